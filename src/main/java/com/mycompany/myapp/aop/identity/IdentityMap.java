@@ -0,0 +1,55 @@
+package com.mycompany.myapp.aop.identity;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Entities loaded during the current unit of work, such as a request, propagated through the Reactor {@link Context}.
+ * <p>
+ * The loads are memoized by key until the next write: loading the same key twice returns the same instance, without a
+ * second query. The loads which fail are not memoized.
+ */
+public final class IdentityMap {
+
+    /**
+     * Key of the current identity map in the Reactor {@link Context}.
+     */
+    public static final Class<IdentityMap> KEY = IdentityMap.class;
+
+    private final Map<Object, Mono<?>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Start a unit of work with an empty identity map.
+     *
+     * @return the context to apply with {@code subscriberContext}.
+     */
+    public static Context withIdentityMap() {
+        return Context.of(KEY, new IdentityMap());
+    }
+
+    /**
+     * Load an entity, or return the load of the same key if it is still memoized.
+     *
+     * @param key the key of the load, equal for the loads returning the same entity.
+     * @param loader the load, only subscribed to once.
+     * @param <T> the type of the entity.
+     * @return the memoized load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> load(Object key, Supplier<Mono<T>> loader) {
+        return (Mono<T>) loads.computeIfAbsent(key, k -> loader.get()
+            .doOnError(e -> loads.remove(k))
+            .cache());
+    }
+
+    /**
+     * Forget all the loads, as a write may have changed the entities.
+     */
+    public void clear() {
+        loads.clear();
+    }
+}
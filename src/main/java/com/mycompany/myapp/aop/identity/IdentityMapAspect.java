@@ -0,0 +1,77 @@
+package com.mycompany.myapp.aop.identity;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Aspect memoizing the entity loads of the Spring Data repositories in the {@link IdentityMap} of the Reactor context.
+ * <p>
+ * The single entity loads, {@code findById} and the {@code findOne*} methods, are memoized by repository, method and
+ * arguments. The other finders and the counts are not. Any other method, such as {@code save} or
+ * {@code deleteUserAuthoritiesByUserId}, is a write: it clears the identity map when it is subscribed to, and again when
+ * it terminates. Without an identity map in the context, as in the scheduled jobs, the calls are left as they are.
+ */
+@Aspect
+public class IdentityMapAspect {
+
+    /**
+     * Pointcut that matches all Spring Data repositories.
+     */
+    @Pointcut("this(org.springframework.data.repository.Repository)")
+    public void repositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that memoizes the loads of a repository, and clears them on its writes.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable if the repository method throws.
+     */
+    @Around("repositoryPointcut()")
+    @SuppressWarnings("unchecked")
+    public Object memoize(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = method.getName();
+        if (name.startsWith("find") || name.startsWith("count") || name.startsWith("exists")) {
+            if (result instanceof Mono && (name.equals("findById") || name.startsWith("findOne")) &&
+                Arrays.stream(joinPoint.getArgs()).noneMatch(arg -> arg instanceof Publisher)) {
+                Mono<Object> load = (Mono<Object>) result;
+                Object key = Arrays.asList(joinPoint.getThis().getClass(), method, Arrays.asList(joinPoint.getArgs()));
+                return Mono.subscriberContext().flatMap(context -> context.<IdentityMap>getOrEmpty(IdentityMap.KEY)
+                    .map(identityMap -> identityMap.load(key, () -> load))
+                    .orElse(load));
+            }
+            return result;
+        }
+        if (result instanceof Mono) {
+            Mono<?> write = (Mono<?>) result;
+            return Mono.subscriberContext().flatMap(context -> {
+                Optional<IdentityMap> identityMap = context.getOrEmpty(IdentityMap.KEY);
+                identityMap.ifPresent(IdentityMap::clear);
+                return write.doFinally(signal -> identityMap.ifPresent(IdentityMap::clear));
+            });
+        }
+        if (result instanceof Flux) {
+            Flux<?> write = (Flux<?>) result;
+            return Mono.subscriberContext().flatMapMany(context -> {
+                Optional<IdentityMap> identityMap = context.getOrEmpty(IdentityMap.KEY);
+                identityMap.ifPresent(IdentityMap::clear);
+                return write.doFinally(signal -> identityMap.ifPresent(IdentityMap::clear));
+            });
+        }
+        return result;
+    }
+}
@@ -8,27 +8,55 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
 
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile. In production it can be enabled with the
+ * {@code application.logging.aspect.enabled} property: calls are then only logged when the logger of the declaring
+ * class is at debug level, and only for the configured fraction of them. The results of the reactive methods are logged
+ * as they are emitted.
  */
 @Aspect
 public class LoggingAspect {
 
-    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private static final String REDACTED = "****";
 
-    private final Environment env;
+    /**
+     * Names of the parameters, and of the fields in rendered values, which must never be logged.
+     */
+    private static final Pattern SENSITIVE_NAME = Pattern.compile("(?i)key|.*(password|resetkey|activationkey|secret|token).*");
+
+    private static final Pattern SENSITIVE_FIELD = Pattern.compile(
+        "(?i)\\b(key|\\w*(?:password|resetkey|activationkey|secret|token)\\w*)(\\s*[=:]\\s*)('[^']*'|\"[^\"]*\"|[^,}\\]\\s]*)");
+
+    private final boolean development;
+
+    private final double sampleRate;
+
+    private final Map<Method, LoggedMethod> loggedMethods = new ConcurrentHashMap<>();
 
     public LoggingAspect(Environment env) {
-        this.env = env;
+        this(env, 1.0);
+    }
+
+    public LoggingAspect(Environment env, double sampleRate) {
+        this.development = env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT));
+        this.sampleRate = sampleRate;
     }
 
     /**
@@ -59,13 +87,13 @@ public class LoggingAspect {
      */
     @AfterThrowing(pointcut = "applicationPackagePointcut() && springBeanPointcut()", throwing = "e")
     public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
-        if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT))) {
-            log.error("Exception in {}.{}() with cause = \'{}\' and exception = \'{}\'", joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(), e.getCause() != null? e.getCause() : "NULL", e.getMessage(), e);
+        LoggedMethod method = loggedMethod(joinPoint);
+        if (development) {
+            method.log.error("Exception in {} with cause = \'{}\' and exception = \'{}\'", method.signature,
+                e.getCause() != null? e.getCause() : "NULL", e.getMessage(), e);
 
         } else {
-            log.error("Exception in {}.{}() with cause = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(), e.getCause() != null? e.getCause() : "NULL");
+            method.log.error("Exception in {} with cause = {}", method.signature, e.getCause() != null? e.getCause() : "NULL");
         }
     }
 
@@ -78,22 +106,89 @@ public class LoggingAspect {
      */
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        LoggedMethod method = loggedMethod(joinPoint);
+        boolean logged = method.log.isDebugEnabled() && sampled();
+        if (logged) {
+            method.log.debug("Enter: {} with argument[s] = {}", method.signature, method.renderArguments(joinPoint.getArgs()));
         }
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                    joinPoint.getSignature().getName(), result);
+            if (logged) {
+                return method.logExit(result);
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}.{}()", Arrays.toString(joinPoint.getArgs()),
-                joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
+            method.log.error("Illegal argument: {} in {}", method.renderArguments(joinPoint.getArgs()), method.signature);
 
             throw e;
         }
     }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private LoggedMethod loggedMethod(JoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        return loggedMethods.computeIfAbsent(signature.getMethod(), m -> new LoggedMethod(signature));
+    }
+
+    static String redact(String value) {
+        return SENSITIVE_FIELD.matcher(value).replaceAll("$1$2" + REDACTED);
+    }
+
+    /**
+     * Logger, signature and sensitive parameters of an advised method, computed once.
+     */
+    private static final class LoggedMethod {
+
+        private final Logger log;
+
+        private final String signature;
+
+        private final boolean[] sensitive;
+
+        private LoggedMethod(MethodSignature signature) {
+            this.log = LoggerFactory.getLogger(signature.getDeclaringTypeName());
+            this.signature = signature.getDeclaringTypeName() + "." + signature.getName() + "()";
+            String[] names = signature.getParameterNames();
+            this.sensitive = new boolean[signature.getParameterTypes().length];
+            for (int i = 0; names != null && i < names.length; i++) {
+                sensitive[i] = SENSITIVE_NAME.matcher(names[i]).matches();
+            }
+        }
+
+        /**
+         * Log the exit of a call. A {@link Mono} or {@link Flux} is not rendered, as it is not run yet: its values are
+         * logged when they are emitted.
+         */
+        private Object logExit(Object result) {
+            if (result instanceof Mono) {
+                return ((Mono<?>) result).doOnSuccess(value ->
+                    log.debug("Exit: {} with result = {}", signature, redact(String.valueOf(value))));
+            }
+            if (result instanceof Flux) {
+                return ((Flux<?>) result)
+                    .doOnNext(value -> log.debug("Next: {} with result = {}", signature, redact(String.valueOf(value))))
+                    .doOnComplete(() -> log.debug("Exit: {}", signature));
+            }
+            if (result instanceof Publisher) {
+                log.debug("Exit: {}", signature);
+            } else {
+                log.debug("Exit: {} with result = {}", signature, redact(String.valueOf(result)));
+            }
+            return result;
+        }
+
+        private String renderArguments(Object[] args) {
+            StringBuilder rendered = new StringBuilder("[");
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    rendered.append(", ");
+                }
+                rendered.append(i < sensitive.length && sensitive[i] ? REDACTED : redact(String.valueOf(args[i])));
+            }
+            return rendered.append(']').toString();
+        }
+    }
 }
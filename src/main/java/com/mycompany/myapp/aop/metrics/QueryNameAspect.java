@@ -0,0 +1,70 @@
+package com.mycompany.myapp.aop.metrics;
+
+import com.mycompany.myapp.config.r2dbc.MeteredConnectionFactory;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect naming the queries executed by the Spring Data repositories.
+ * <p>
+ * The name of the repository interface and method, for instance {@code UserRepository.findOneByLogin}, is put in the
+ * Reactor context of the returned publisher, so that {@link MeteredConnectionFactory} can tag the metrics of the
+ * statements it executes.
+ */
+@Aspect
+public class QueryNameAspect {
+
+    /**
+     * Query names by repository proxy class and method, as the CRUD methods are shared by all repositories.
+     */
+    private final Map<Class<?>, Map<Method, String>> queryNames = new ConcurrentHashMap<>();
+
+    /**
+     * Pointcut that matches all Spring Data repositories.
+     */
+    @Pointcut("this(org.springframework.data.repository.Repository)")
+    public void repositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that names the queries executed by a repository method.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable if the repository method throws.
+     */
+    @Around("repositoryPointcut()")
+    public Object nameQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (result instanceof Mono) {
+            return ((Mono<?>) result).subscriberContext(MeteredConnectionFactory.withQueryName(queryName(joinPoint)));
+        }
+        if (result instanceof Flux) {
+            return ((Flux<?>) result).subscriberContext(MeteredConnectionFactory.withQueryName(queryName(joinPoint)));
+        }
+        return result;
+    }
+
+    private String queryName(ProceedingJoinPoint joinPoint) {
+        Object repository = joinPoint.getThis();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return queryNames.computeIfAbsent(repository.getClass(), proxyClass -> new ConcurrentHashMap<>())
+            .computeIfAbsent(method, m -> {
+                Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(repository);
+                String repositoryName = interfaces.length > 0 ? interfaces[0].getSimpleName() : m.getDeclaringClass().getSimpleName();
+                return repositoryName + "." + m.getName();
+            });
+    }
+}
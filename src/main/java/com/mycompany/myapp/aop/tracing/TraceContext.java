@@ -0,0 +1,111 @@
+package com.mycompany.myapp.aop.tracing;
+
+import org.springframework.util.StringUtils;
+import reactor.util.context.Context;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Trace and span ids of the current unit of work, propagated through the Reactor {@link Context}.
+ * <p>
+ * Ids are in the B3 format: 16 or 32 lower-case hex characters for a trace id, 16 for a span id.
+ */
+public final class TraceContext {
+
+    /**
+     * Key of the current trace context in the Reactor {@link Context}.
+     */
+    public static final Class<TraceContext> KEY = TraceContext.class;
+
+    private static final Pattern TRACE_ID_PATTERN = Pattern.compile("[0-9a-f]{16}|[0-9a-f]{32}");
+
+    private static final Pattern SPAN_ID_PATTERN = Pattern.compile("[0-9a-f]{16}");
+
+    private final String traceId;
+
+    private final long spanId;
+
+    private final long parentSpanId;
+
+    private TraceContext(String traceId, long spanId, long parentSpanId) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+    }
+
+    /**
+     * Start a new trace.
+     *
+     * @return the root span of the new trace.
+     */
+    public static TraceContext root() {
+        long id = nextId();
+        return new TraceContext(toHex(id), id, 0);
+    }
+
+    /**
+     * Continue the trace of a caller, or start a new one if the caller did not send valid ids.
+     *
+     * @param traceId the trace id sent by the caller, may be {@code null}.
+     * @param parentSpanId the span id sent by the caller, may be {@code null}.
+     * @return a span of the caller's trace, or the root span of a new trace.
+     */
+    public static TraceContext continueFrom(String traceId, String parentSpanId) {
+        if (!StringUtils.hasLength(traceId) || !TRACE_ID_PATTERN.matcher(traceId).matches()) {
+            return root();
+        }
+        long parent = StringUtils.hasLength(parentSpanId) && SPAN_ID_PATTERN.matcher(parentSpanId).matches() ?
+            Long.parseUnsignedLong(parentSpanId, 16) : 0;
+        return new TraceContext(traceId, nextId(), parent);
+    }
+
+    /**
+     * Get the trace context of a Reactor {@link Context}.
+     *
+     * @param context the Reactor context.
+     * @return the current trace context, or {@code null} if there is none.
+     */
+    public static TraceContext current(Context context) {
+        return context.getOrDefault(KEY, null);
+    }
+
+    /**
+     * Create a child span of this span, in the same trace.
+     *
+     * @return the child span.
+     */
+    public TraceContext child() {
+        return new TraceContext(traceId, nextId(), spanId);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return toHex(spanId);
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId == 0 ? null : toHex(parentSpanId);
+    }
+
+    @Override
+    public String toString() {
+        return traceId + ":" + getSpanId();
+    }
+
+    private static long nextId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    private static String toHex(long id) {
+        String hex = Long.toHexString(id);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+}
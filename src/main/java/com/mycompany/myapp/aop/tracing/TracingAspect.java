@@ -0,0 +1,189 @@
+package com.mycompany.myapp.aop.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect timing the reactive service and repository methods.
+ * <p>
+ * Unlike a plain around advice, which would only time the assembly of the returned {@link Mono} or {@link Flux},
+ * this measures the time from the subscription to the completion, error or cancellation of the publisher. Each call
+ * is a child span of the {@link TraceContext} found in the Reactor context, and is recorded in the
+ * {@code method.timed} timer, tagged with the simple name of its exception, {@code none} for a success, or
+ * {@code cancelled} for a cancellation such as a timeout or a disconnected client.
+ */
+@Aspect
+public class TracingAspect {
+
+    private static final String NO_EXCEPTION = "none";
+
+    private static final String CANCELLED = "cancelled";
+
+    private final Logger log = LoggerFactory.getLogger(TracingAspect.class);
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Method names and success and cancellation timers by target class and method, as the CRUD methods are shared by all repositories.
+     */
+    private final Map<Class<?>, Map<Method, TracedMethod>> tracedMethods = new ConcurrentHashMap<>();
+
+    public TracingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Pointcut that matches all services.
+     */
+    @Pointcut("within(com.mycompany.myapp.service..*) && within(@org.springframework.stereotype.Service *)")
+    public void servicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring Data repositories.
+     */
+    @Pointcut("this(org.springframework.data.repository.Repository)")
+    public void repositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times the reactive methods from subscription to termination.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable if the method throws.
+     */
+    @Around("servicePointcut() || repositoryPointcut()")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (result instanceof Mono) {
+            TracedMethod method = tracedMethod(joinPoint);
+            Mono<?> mono = (Mono<?>) result;
+            return Mono.subscriberContext().flatMap(context -> {
+                Span span = new Span(method, TraceContext.current(context));
+                return mono
+                    .doOnError(span::error)
+                    .doOnTerminate(span::terminate)
+                    .doOnCancel(span::cancel)
+                    .subscriberContext(c -> c.put(TraceContext.KEY, span.traceContext));
+            });
+        }
+        if (result instanceof Flux) {
+            TracedMethod method = tracedMethod(joinPoint);
+            Flux<?> flux = (Flux<?>) result;
+            return Mono.subscriberContext().flatMapMany(context -> {
+                Span span = new Span(method, TraceContext.current(context));
+                return flux
+                    .doOnError(span::error)
+                    .doOnTerminate(span::terminate)
+                    .doOnCancel(span::cancel)
+                    .subscriberContext(c -> c.put(TraceContext.KEY, span.traceContext));
+            });
+        }
+        return result;
+    }
+
+    private TracedMethod tracedMethod(ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getThis();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return tracedMethods.computeIfAbsent(target.getClass(), targetClass -> new ConcurrentHashMap<>())
+            .computeIfAbsent(method, m -> {
+                String className = target instanceof Repository ?
+                    AopProxyUtils.proxiedUserInterfaces(target)[0].getSimpleName() : m.getDeclaringClass().getSimpleName();
+                return new TracedMethod(className, m.getName());
+            });
+    }
+
+    private final class TracedMethod {
+
+        private final String className;
+
+        private final String methodName;
+
+        private final Timer successTimer;
+
+        private final Timer cancellationTimer;
+
+        private TracedMethod(String className, String methodName) {
+            this.className = className;
+            this.methodName = methodName;
+            this.successTimer = timer(NO_EXCEPTION);
+            this.cancellationTimer = timer(CANCELLED);
+        }
+
+        private Timer timer(String exception) {
+            return Timer.builder("method.timed")
+                .description("Time from subscription to termination of the reactive service and repository methods")
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("exception", exception)
+                .register(meterRegistry);
+        }
+    }
+
+    private final class Span {
+
+        private final TracedMethod method;
+
+        private final TraceContext traceContext;
+
+        private final long start = System.nanoTime();
+
+        private Throwable error;
+
+        private Span(TracedMethod method, TraceContext parent) {
+            this.method = method;
+            this.traceContext = parent == null ? TraceContext.root() : parent.child();
+        }
+
+        private void error(Throwable error) {
+            this.error = error;
+        }
+
+        /**
+         * End the span on the termination of the publisher, before its subscriber handles it, so that the time of the
+         * caller is not counted in the span of the callee.
+         */
+        private void terminate() {
+            end(error == null ? SignalType.ON_COMPLETE : SignalType.ON_ERROR);
+        }
+
+        private void cancel() {
+            end(SignalType.CANCEL);
+        }
+
+        private void end(SignalType signal) {
+            long duration = System.nanoTime() - start;
+            Timer timer;
+            if (signal == SignalType.CANCEL) {
+                timer = method.cancellationTimer;
+            } else {
+                timer = error == null ? method.successTimer : method.timer(error.getClass().getSimpleName());
+            }
+            timer.record(duration, TimeUnit.NANOSECONDS);
+            if (log.isDebugEnabled()) {
+                log.debug("[{}] {}.{}() {} in {} us, parent span {}", traceContext, method.className, method.methodName,
+                    signal, TimeUnit.NANOSECONDS.toMicros(duration), traceContext.getParentSpanId());
+            }
+        }
+    }
+}
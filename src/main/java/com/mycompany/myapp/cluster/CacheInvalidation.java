@@ -0,0 +1,79 @@
+package com.mycompany.myapp.cluster;
+
+import java.util.Objects;
+
+/**
+ * Invalidation of an entry of a cache held by each node.
+ */
+public final class CacheInvalidation {
+
+    private static final char SEPARATOR = ':';
+
+    private final String cacheName;
+
+    private final String key;
+
+    public CacheInvalidation(String cacheName, String key) {
+        if (cacheName.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Cache name " + cacheName + " must not contain '" + SEPARATOR + "'");
+        }
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    /**
+     * Parse an invalidation sent to other nodes.
+     *
+     * @param message the message created by {@link #toMessage()}.
+     * @return the invalidation.
+     */
+    public static CacheInvalidation fromMessage(String message) {
+        int separator = message.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cache invalidation message: " + message);
+        }
+        return new CacheInvalidation(message.substring(0, separator), message.substring(separator + 1));
+    }
+
+    /**
+     * Format this invalidation to be sent to other nodes.
+     *
+     * @return the message.
+     */
+    public String toMessage() {
+        return cacheName + SEPARATOR + key;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidation)) {
+            return false;
+        }
+        CacheInvalidation that = (CacheInvalidation) o;
+        return cacheName.equals(that.cacheName) && Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cacheName, key);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{" +
+            "cacheName='" + cacheName + '\'' +
+            ", key='" + key + '\'' +
+            "}";
+    }
+}
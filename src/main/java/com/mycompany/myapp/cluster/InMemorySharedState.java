@@ -0,0 +1,86 @@
+package com.mycompany.myapp.cluster;
+
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link SharedState} kept in this JVM, for a single node and for the tests.
+ */
+public class InMemorySharedState implements SharedState {
+
+    /**
+     * Number of counters above which the expired ones are purged.
+     */
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final DirectProcessor<CacheInvalidation> invalidations = DirectProcessor.create();
+
+    private final FluxSink<CacheInvalidation> invalidationSink = invalidations.sink();
+
+    private final LongSupplier nanoClock;
+
+    public InMemorySharedState() {
+        this(System::nanoTime);
+    }
+
+    InMemorySharedState(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Long> increment(String key, Duration timeToLive) {
+        return Mono.fromSupplier(() -> {
+            long now = nanoClock.getAsLong();
+            if (counters.size() > PURGE_THRESHOLD) {
+                counters.values().removeIf(counter -> counter.isExpired(now));
+            }
+            return counters
+                .compute(key, (k, counter) -> counter == null || counter.isExpired(now) ?
+                    new Counter(now + timeToLive.toNanos()) : counter.increment())
+                .value;
+        });
+    }
+
+    @Override
+    public Mono<Void> publishInvalidation(CacheInvalidation invalidation) {
+        return Mono.fromRunnable(() -> invalidationSink.next(invalidation));
+    }
+
+    @Override
+    public Flux<CacheInvalidation> invalidations() {
+        return invalidations;
+    }
+
+    private static final class Counter {
+
+        private final long expiresAt;
+
+        private final long value;
+
+        private Counter(long expiresAt) {
+            this(expiresAt, 1);
+        }
+
+        private Counter(long expiresAt, long value) {
+            this.expiresAt = expiresAt;
+            this.value = value;
+        }
+
+        private Counter increment() {
+            return new Counter(expiresAt, value + 1);
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mycompany.myapp.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * {@link SharedState} kept in Redis.
+ * <p>
+ * Counters are Redis keys with an expiry, incremented by a script which sets the expiry in the same atomic step, so
+ * that a counter is never left without one. The invalidations are broadcast with {@code PUBLISH} on a channel every
+ * node subscribes to, so that they reach the other nodes within milliseconds. Invalidations published while a node
+ * is disconnected from Redis are lost, so the caches must still expire their entries.
+ */
+public class RedisSharedState implements SharedState {
+
+    private static final String INVALIDATIONS_CHANNEL = "invalidations";
+
+    /**
+     * Increments the counter and, when it is created or was left without an expiry, sets its expiry in milliseconds.
+     */
+    static final RedisScript<Long> INCREMENT_SCRIPT = RedisScript.of(
+        "local value = redis.call('INCR', KEYS[1])\n" +
+        "if value == 1 or redis.call('PTTL', KEYS[1]) == -1 then\n" +
+        "    redis.call('PEXPIRE', KEYS[1], ARGV[1])\n" +
+        "end\n" +
+        "return value", Long.class);
+
+    private final Logger log = LoggerFactory.getLogger(RedisSharedState.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    private final String invalidationsChannel;
+
+    private final Flux<CacheInvalidation> invalidations;
+
+    public RedisSharedState(ReactiveStringRedisTemplate redisTemplate, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.invalidationsChannel = keyPrefix + INVALIDATIONS_CHANNEL;
+        this.invalidations = redisTemplate.listenToChannel(invalidationsChannel)
+            .map(message -> CacheInvalidation.fromMessage(message.getMessage()))
+            .doOnError(e -> log.warn("Lost the subscription to the cache invalidations, reconnecting: {}", e.toString()))
+            .retryBackoff(Long.MAX_VALUE, Duration.ofMillis(100), Duration.ofSeconds(10))
+            .share();
+    }
+
+    @Override
+    public Mono<Long> increment(String key, Duration timeToLive) {
+        return redisTemplate.execute(INCREMENT_SCRIPT, Collections.singletonList(keyPrefix + key),
+            Collections.singletonList(String.valueOf(timeToLive.toMillis())))
+            .next();
+    }
+
+    @Override
+    public Mono<Void> publishInvalidation(CacheInvalidation invalidation) {
+        return redisTemplate.convertAndSend(invalidationsChannel, invalidation.toMessage()).then();
+    }
+
+    @Override
+    public Flux<CacheInvalidation> invalidations() {
+        return invalidations;
+    }
+}
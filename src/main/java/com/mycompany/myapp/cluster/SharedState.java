@@ -0,0 +1,39 @@
+package com.mycompany.myapp.cluster;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Counters and cache invalidations shared by all the nodes of the application.
+ * <p>
+ * {@link InMemorySharedState} is enough for a single node. With several nodes, {@link RedisSharedState} keeps the
+ * counters in Redis and broadcasts the invalidations over a Redis channel.
+ */
+public interface SharedState {
+
+    /**
+     * Increment a counter by one.
+     *
+     * @param key the key of the counter.
+     * @param timeToLive the time after which the counter is reset, starting from its first increment.
+     * @return the value of the counter after the increment.
+     */
+    Mono<Long> increment(String key, Duration timeToLive);
+
+    /**
+     * Publish the invalidation of a cache entry to all the nodes, including this one.
+     *
+     * @param invalidation the invalidated cache entry.
+     * @return a {@link Mono} completing once the invalidation is published.
+     */
+    Mono<Void> publishInvalidation(CacheInvalidation invalidation);
+
+    /**
+     * Get the invalidations published by all the nodes.
+     *
+     * @return a hot {@link Flux} of the invalidations published after the subscription.
+     */
+    Flux<CacheInvalidation> invalidations();
+}
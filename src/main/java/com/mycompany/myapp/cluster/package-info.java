@@ -0,0 +1,4 @@
+/**
+ * State shared by the nodes of the application.
+ */
+package com.mycompany.myapp.cluster;
@@ -1,7 +1,14 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.security.AuthoritiesConstants;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Properties specific to R 2 Dbc.
  * <p>
@@ -10,4 +17,568 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Database database = new Database();
+
+    private final Tracing tracing = new Tracing();
+
+    private final Logging logging = new Logging();
+
+    private final Security security = new Security();
+
+    private final Cluster cluster = new Cluster();
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public Tracing getTracing() {
+        return tracing;
+    }
+
+    public Logging getLogging() {
+        return logging;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public static class Database {
+
+        private final Metrics metrics = new Metrics();
+
+        private final ReadReplicas readReplicas = new ReadReplicas();
+
+        private final Audit audit = new Audit();
+
+        private final Jdbc jdbc = new Jdbc();
+
+        private final IdentityMap identityMap = new IdentityMap();
+
+        public Metrics getMetrics() {
+            return metrics;
+        }
+
+        public ReadReplicas getReadReplicas() {
+            return readReplicas;
+        }
+
+        public Audit getAudit() {
+            return audit;
+        }
+
+        public Jdbc getJdbc() {
+            return jdbc;
+        }
+
+        public IdentityMap getIdentityMap() {
+            return identityMap;
+        }
+
+        public static class Metrics {
+
+            private boolean enabled = true;
+
+            private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getSlowQueryThreshold() {
+                return slowQueryThreshold;
+            }
+
+            public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+                this.slowQueryThreshold = slowQueryThreshold;
+            }
+        }
+
+        public static class ReadReplicas {
+
+            private List<String> urls = new ArrayList<>();
+
+            private String username;
+
+            private String password;
+
+            private int poolMaxSize = 10;
+
+            private Duration stickiness = Duration.ofSeconds(5);
+
+            private Duration retryPeriod = Duration.ofSeconds(10);
+
+            public List<String> getUrls() {
+                return urls;
+            }
+
+            public void setUrls(List<String> urls) {
+                this.urls = urls;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public int getPoolMaxSize() {
+                return poolMaxSize;
+            }
+
+            public void setPoolMaxSize(int poolMaxSize) {
+                this.poolMaxSize = poolMaxSize;
+            }
+
+            public Duration getStickiness() {
+                return stickiness;
+            }
+
+            public void setStickiness(Duration stickiness) {
+                this.stickiness = stickiness;
+            }
+
+            public Duration getRetryPeriod() {
+                return retryPeriod;
+            }
+
+            public void setRetryPeriod(Duration retryPeriod) {
+                this.retryPeriod = retryPeriod;
+            }
+        }
+
+        public static class Audit {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            private int poolMaxSize = 5;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public int getPoolMaxSize() {
+                return poolMaxSize;
+            }
+
+            public void setPoolMaxSize(int poolMaxSize) {
+                this.poolMaxSize = poolMaxSize;
+            }
+        }
+
+        public static class Jdbc {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            private int poolMaxSize = 10;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public int getPoolMaxSize() {
+                return poolMaxSize;
+            }
+
+            public void setPoolMaxSize(int poolMaxSize) {
+                this.poolMaxSize = poolMaxSize;
+            }
+        }
+
+        public static class IdentityMap {
+
+            private boolean enabled = true;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+        }
+    }
+
+    public static class Tracing {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Logging {
+
+        private final Aspect aspect = new Aspect();
+
+        private final Async async = new Async();
+
+        public Aspect getAspect() {
+            return aspect;
+        }
+
+        public Async getAsync() {
+            return async;
+        }
+
+        public static class Aspect {
+
+            private boolean enabled = false;
+
+            private double sampleRate = 1.0;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public double getSampleRate() {
+                return sampleRate;
+            }
+
+            public void setSampleRate(double sampleRate) {
+                this.sampleRate = sampleRate;
+            }
+        }
+
+        public static class Async {
+
+            private boolean enabled = false;
+
+            private int ringBufferSize = 8192;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getRingBufferSize() {
+                return ringBufferSize;
+            }
+
+            public void setRingBufferSize(int ringBufferSize) {
+                this.ringBufferSize = ringBufferSize;
+            }
+        }
+    }
+
+    public static class Security {
+
+        private final LoginRateLimit loginRateLimit = new LoginRateLimit();
+
+        private final UserCache userCache = new UserCache();
+
+        private final RefreshToken refreshToken = new RefreshToken();
+
+        private final Jwt jwt = new Jwt();
+
+        public LoginRateLimit getLoginRateLimit() {
+            return loginRateLimit;
+        }
+
+        public UserCache getUserCache() {
+            return userCache;
+        }
+
+        public RefreshToken getRefreshToken() {
+            return refreshToken;
+        }
+
+        public Jwt getJwt() {
+            return jwt;
+        }
+
+        public static class LoginRateLimit {
+
+            private boolean enabled = true;
+
+            private int maxEntries = 16384;
+
+            private int loginCapacity = 10;
+
+            private Duration loginRefillPeriod = Duration.ofSeconds(30);
+
+            private int ipCapacity = 100;
+
+            private Duration ipRefillPeriod = Duration.ofMillis(100);
+
+            private int sharedLoginLimit = 20;
+
+            private Duration sharedWindow = Duration.ofMinutes(5);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public int getLoginCapacity() {
+                return loginCapacity;
+            }
+
+            public void setLoginCapacity(int loginCapacity) {
+                this.loginCapacity = loginCapacity;
+            }
+
+            public Duration getLoginRefillPeriod() {
+                return loginRefillPeriod;
+            }
+
+            public void setLoginRefillPeriod(Duration loginRefillPeriod) {
+                this.loginRefillPeriod = loginRefillPeriod;
+            }
+
+            public int getIpCapacity() {
+                return ipCapacity;
+            }
+
+            public void setIpCapacity(int ipCapacity) {
+                this.ipCapacity = ipCapacity;
+            }
+
+            public Duration getIpRefillPeriod() {
+                return ipRefillPeriod;
+            }
+
+            public void setIpRefillPeriod(Duration ipRefillPeriod) {
+                this.ipRefillPeriod = ipRefillPeriod;
+            }
+
+            public int getSharedLoginLimit() {
+                return sharedLoginLimit;
+            }
+
+            public void setSharedLoginLimit(int sharedLoginLimit) {
+                this.sharedLoginLimit = sharedLoginLimit;
+            }
+
+            public Duration getSharedWindow() {
+                return sharedWindow;
+            }
+
+            public void setSharedWindow(Duration sharedWindow) {
+                this.sharedWindow = sharedWindow;
+            }
+        }
+
+        public static class UserCache {
+
+            private Duration timeToLive = Duration.ofMinutes(5);
+
+            private int maxEntries = 10000;
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+
+        public static class RefreshToken {
+
+            private Duration accessTokenValidity = Duration.ofMinutes(15);
+
+            private Duration revocationSyncPeriod = Duration.ofSeconds(5);
+
+            private Duration revocationSyncOverlap = Duration.ofSeconds(10);
+
+            public Duration getAccessTokenValidity() {
+                return accessTokenValidity;
+            }
+
+            public void setAccessTokenValidity(Duration accessTokenValidity) {
+                this.accessTokenValidity = accessTokenValidity;
+            }
+
+            public Duration getRevocationSyncPeriod() {
+                return revocationSyncPeriod;
+            }
+
+            public void setRevocationSyncPeriod(Duration revocationSyncPeriod) {
+                this.revocationSyncPeriod = revocationSyncPeriod;
+            }
+
+            public Duration getRevocationSyncOverlap() {
+                return revocationSyncOverlap;
+            }
+
+            public void setRevocationSyncOverlap(Duration revocationSyncOverlap) {
+                this.revocationSyncOverlap = revocationSyncOverlap;
+            }
+        }
+
+        public static class Jwt {
+
+            private String keyRingLocation;
+
+            private Duration keyRingReloadPeriod = Duration.ofMinutes(1);
+
+            private boolean verifyOnly = false;
+
+            private boolean compactClaims = false;
+
+            private List<String> authorityBits = new ArrayList<>(Arrays.asList(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER));
+
+            public String getKeyRingLocation() {
+                return keyRingLocation;
+            }
+
+            public void setKeyRingLocation(String keyRingLocation) {
+                this.keyRingLocation = keyRingLocation;
+            }
+
+            public Duration getKeyRingReloadPeriod() {
+                return keyRingReloadPeriod;
+            }
+
+            public void setKeyRingReloadPeriod(Duration keyRingReloadPeriod) {
+                this.keyRingReloadPeriod = keyRingReloadPeriod;
+            }
+
+            public boolean isVerifyOnly() {
+                return verifyOnly;
+            }
+
+            public void setVerifyOnly(boolean verifyOnly) {
+                this.verifyOnly = verifyOnly;
+            }
+
+            public boolean isCompactClaims() {
+                return compactClaims;
+            }
+
+            public void setCompactClaims(boolean compactClaims) {
+                this.compactClaims = compactClaims;
+            }
+
+            public List<String> getAuthorityBits() {
+                return authorityBits;
+            }
+
+            public void setAuthorityBits(List<String> authorityBits) {
+                this.authorityBits = authorityBits;
+            }
+        }
+    }
+
+    public static class Cluster {
+
+        private String backend = "in-memory";
+
+        private String keyPrefix = "r2dbc:";
+
+        public String getBackend() {
+            return backend;
+        }
+
+        public void setBackend(String backend) {
+            this.backend = backend;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+    }
 }
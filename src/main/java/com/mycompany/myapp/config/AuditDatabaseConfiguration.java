@@ -0,0 +1,136 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.config.r2dbc.ConnectionPoolMetrics;
+import com.mycompany.myapp.config.r2dbc.EntityRowMappingDataAccessStrategy;
+import com.mycompany.myapp.config.r2dbc.JdbcConnectionFactory;
+import com.mycompany.myapp.config.r2dbc.MeteredConnectionFactory;
+import com.mycompany.myapp.repository.PersistenceAuditEventRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.data.r2dbc.connectionfactory.R2dbcTransactionManager;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.DefaultReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.transaction.ReactiveTransactionManager;
+import reactor.core.Disposable;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Connections of the {@link PersistenceAuditEventRepository}, apart from the primary pool.
+ * <p>
+ * The audit events are written on every authentication, so they have their own pool, transaction manager and
+ * {@link DatabaseClient}: an authentication storm can fill the audit pool, but never takes the connections the user
+ * lookups need. The pool uses {@code spring.r2dbc.*} unless {@code application.database.audit.url} is set, and is a
+ * JDBC pool with the {@code jdbc} profile.
+ */
+@Configuration
+@EnableR2dbcRepositories(
+    basePackageClasses = PersistenceAuditEventRepository.class,
+    includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = PersistenceAuditEventRepository.class),
+    databaseClientRef = AuditDatabaseConfiguration.AUDIT_DATABASE_CLIENT)
+public class AuditDatabaseConfiguration {
+
+    public static final String AUDIT_DATABASE_CLIENT = "auditDatabaseClient";
+
+    public static final String AUDIT_TRANSACTION_MANAGER = "auditTransactionManager";
+
+    @Bean
+    public AuditConnections auditConnections(ApplicationProperties applicationProperties, Environment env,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        ApplicationProperties.Database.Audit properties = applicationProperties.getDatabase().getAudit();
+        ApplicationProperties.Database.Metrics metrics = applicationProperties.getDatabase().getMetrics();
+        if (env.acceptsProfiles(Profiles.of(Constants.SPRING_PROFILE_JDBC))) {
+            JdbcConnectionFactory jdbc = DatabaseConfiguration.jdbcConnectionFactory(env,
+                applicationProperties.getDatabase().getJdbc(), properties.getPoolMaxSize(), "audit");
+            return new AuditConnections(jdbc, metered(jdbc, metrics, meterRegistry));
+        }
+        String url = properties.getUrl() != null ? properties.getUrl() : env.getProperty("spring.r2dbc.url");
+        if (url == null) {
+            throw new IllegalStateException("The audit database needs application.database.audit.url or spring.r2dbc.url");
+        }
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        String username = properties.getUrl() != null ? properties.getUsername() : env.getProperty("spring.r2dbc.username");
+        String password = properties.getUrl() != null ? properties.getPassword() : env.getProperty("spring.r2dbc.password");
+        if (username != null) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+            .name("audit")
+            .initialSize(1)
+            .maxSize(properties.getPoolMaxSize())
+            .build());
+        return new AuditConnections(pool, metered(pool, metrics, meterRegistry));
+    }
+
+    private static ConnectionFactory metered(ConnectionFactory connectionFactory, ApplicationProperties.Database.Metrics metrics,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        if (metrics.isEnabled()) {
+            return new MeteredConnectionFactory(connectionFactory, meterRegistry.getObject(), metrics.getSlowQueryThreshold());
+        }
+        return connectionFactory;
+    }
+
+    @Bean(AUDIT_DATABASE_CLIENT)
+    public DatabaseClient auditDatabaseClient(AuditConnections auditConnections) {
+        ConnectionFactory connectionFactory = auditConnections.getConnectionFactory();
+        R2dbcDialect dialect = DialectResolver.getDialect(connectionFactory);
+        return DatabaseClient.builder()
+            .connectionFactory(connectionFactory)
+            .dataAccessStrategy(new EntityRowMappingDataAccessStrategy(
+                new DefaultReactiveDataAccessStrategy(dialect, DatabaseConfiguration.temporalConverters(dialect)), dialect))
+            .build();
+    }
+
+    @Bean(AUDIT_TRANSACTION_MANAGER)
+    public ReactiveTransactionManager auditTransactionManager(AuditConnections auditConnections) {
+        return new R2dbcTransactionManager(auditConnections.getConnectionFactory());
+    }
+
+    @Bean
+    public MeterBinder auditConnectionPoolMetrics(AuditConnections auditConnections) {
+        return new ConnectionPoolMetrics("audit", auditConnections.getConnectionFactory());
+    }
+
+    /**
+     * The audit pool, which is not a {@link ConnectionFactory} bean so that it is never mistaken for the primary one.
+     */
+    public static class AuditConnections {
+
+        private final Disposable pool;
+
+        private final ConnectionFactory connectionFactory;
+
+        AuditConnections(Disposable pool, ConnectionFactory connectionFactory) {
+            this.pool = pool;
+            this.connectionFactory = connectionFactory;
+        }
+
+        public ConnectionFactory getConnectionFactory() {
+            return connectionFactory;
+        }
+
+        @PreDestroy
+        public void dispose() {
+            pool.dispose();
+        }
+    }
+}
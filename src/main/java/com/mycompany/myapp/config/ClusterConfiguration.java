@@ -0,0 +1,30 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.cluster.InMemorySharedState;
+import com.mycompany.myapp.cluster.RedisSharedState;
+import com.mycompany.myapp.cluster.SharedState;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * Selects where the state shared by the nodes, such as the login attempt counters and the cache invalidations, is
+ * kept.
+ */
+@Configuration
+public class ClusterConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.cluster", name = "backend", havingValue = "in-memory", matchIfMissing = true)
+    public SharedState inMemorySharedState() {
+        return new InMemorySharedState();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.cluster", name = "backend", havingValue = "redis")
+    public SharedState redisSharedState(ReactiveStringRedisTemplate redisTemplate, ApplicationProperties applicationProperties) {
+        return new RedisSharedState(redisTemplate, applicationProperties.getCluster().getKeyPrefix());
+    }
+}
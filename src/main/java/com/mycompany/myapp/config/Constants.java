@@ -12,6 +12,9 @@ public final class Constants {
     public static final String DEFAULT_LANGUAGE = "en";
     public static final String ANONYMOUS_USER = "anonymoususer";
 
+    // Spring profile running the repositories on JDBC instead of R2DBC
+    public static final String SPRING_PROFILE_JDBC = "jdbc";
+
     private Constants() {
     }
 }
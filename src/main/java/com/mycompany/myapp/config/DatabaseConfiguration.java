@@ -1,25 +1,54 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.config.r2dbc.ConnectionPoolMetrics;
+import com.mycompany.myapp.config.r2dbc.EntityRowMappingDataAccessStrategy;
+import com.mycompany.myapp.config.r2dbc.JdbcConnectionFactory;
+import com.mycompany.myapp.config.r2dbc.ReadReplicaRoutingConnectionFactory;
+import com.mycompany.myapp.config.r2dbc.ReadReplicaTransactionManager;
+import com.mycompany.myapp.repository.PersistenceAuditEventRepository;
+import com.mycompany.myapp.security.AuthenticatedUser;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import io.github.jhipster.config.JHipsterConstants;
 import io.github.jhipster.config.h2.H2ConfigurationHelper;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.env.Environment;
 import org.springframework.data.convert.CustomConversions;
+import org.springframework.data.convert.ReadingConverter;
 import org.springframework.data.convert.WritingConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
 import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
 import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import java.sql.SQLException;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
@@ -27,7 +56,9 @@ import java.util.Collections;
 import java.util.List;
 
 @Configuration
-@EnableR2dbcRepositories("com.mycompany.myapp.repository")
+@EnableR2dbcRepositories(
+    basePackages = "com.mycompany.myapp.repository",
+    excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = PersistenceAuditEventRepository.class))
 @EnableTransactionManagement
 public class DatabaseConfiguration {
 
@@ -67,24 +98,219 @@ public class DatabaseConfiguration {
         return String.valueOf(port);
     }
 
-    // Can be removed in 0.8.3+ version of r2dbc-h2
-    // See https://github.com/r2dbc/r2dbc-h2/pull/139
+    /**
+     * Run the repositories on blocking JDBC instead of R2DBC, to compare the two.
+     *
+     * @param applicationProperties the application properties.
+     * @return the JDBC pool behind the reactive interfaces of the repositories.
+     */
+    @Bean(destroyMethod = "dispose")
+    @Profile(Constants.SPRING_PROFILE_JDBC)
+    public ConnectionFactory connectionFactory(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Database.Jdbc properties = applicationProperties.getDatabase().getJdbc();
+        log.info("Running the repositories on JDBC");
+        return jdbcConnectionFactory(env, properties, properties.getPoolMaxSize(), "primary");
+    }
+
+    /**
+     * Create a JDBC pool, on {@code application.database.jdbc.url} or else on the url of Liquibase.
+     */
+    static JdbcConnectionFactory jdbcConnectionFactory(Environment env, ApplicationProperties.Database.Jdbc properties,
+                                                       int poolMaxSize, String name) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jdbc-" + name);
+        config.setMaximumPoolSize(poolMaxSize);
+        if (properties.getUrl() != null) {
+            config.setJdbcUrl(properties.getUrl());
+            config.setUsername(properties.getUsername());
+            config.setPassword(properties.getPassword());
+        } else {
+            config.setJdbcUrl(env.getProperty("spring.liquibase.url"));
+            config.setUsername(env.getProperty("spring.liquibase.user", env.getProperty("spring.r2dbc.username")));
+            config.setPassword(env.getProperty("spring.liquibase.password", env.getProperty("spring.r2dbc.password")));
+        }
+        if (config.getJdbcUrl() == null) {
+            throw new IllegalStateException("The jdbc profile needs application.database.jdbc.url or spring.liquibase.url");
+        }
+        return new JdbcConnectionFactory(new HikariDataSource(config), poolMaxSize, name);
+    }
+
+    /**
+     * Route the read-only transactions to the read replicas, when some are configured.
+     *
+     * @param applicationProperties the application properties.
+     * @return the post-processor wrapping the primary {@link ConnectionFactory}.
+     */
     @Bean
-    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
-        R2dbcDialect dialect = DialectResolver.getDialect(connectionFactory);
+    public static ReadReplicaRoutingPostProcessor readReplicaRoutingPostProcessor(ObjectProvider<ApplicationProperties> applicationProperties) {
+        return new ReadReplicaRoutingPostProcessor(applicationProperties);
+    }
+
+    /**
+     * Map the entities with the row mappings generated at compile time, instead of reflection.
+     *
+     * @param dialect the dialect of the primary database.
+     * @return the post-processor wrapping the {@link ReactiveDataAccessStrategy}.
+     */
+    @Bean
+    public static EntityRowMappingPostProcessor entityRowMappingPostProcessor(ObjectProvider<R2dbcDialect> dialect) {
+        return new EntityRowMappingPostProcessor(dialect);
+    }
+
+    @Bean
+    @Primary
+    public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new ReadReplicaTransactionManager(connectionFactory);
+    }
+
+    /**
+     * The primary {@link DatabaseClient}, declared as the {@link AuditDatabaseConfiguration} declares another one.
+     *
+     * @param connectionFactory the primary connection factory.
+     * @param dataAccessStrategy the data access strategy of the primary database.
+     * @return the client used by all the repositories but the audit one.
+     */
+    @Bean
+    @Primary
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory, ReactiveDataAccessStrategy dataAccessStrategy) {
+        return DatabaseClient.builder()
+            .connectionFactory(connectionFactory)
+            .dataAccessStrategy(dataAccessStrategy)
+            .build();
+    }
+
+    @Bean
+    public MeterBinder connectionPoolMetrics(ConnectionFactory connectionFactory) {
+        return new ConnectionPoolMetrics("primary", connectionFactory);
+    }
+
+    @Bean
+    public R2dbcDialect r2dbcDialect(ConnectionFactory connectionFactory) {
+        return DialectResolver.getDialect(connectionFactory);
+    }
+
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(R2dbcDialect dialect) {
         List<Object> converters = new ArrayList<>(dialect.getConverters());
-        converters.add(new InstantWriteConverter());
+        converters.addAll(temporalConverters(dialect));
         converters.addAll(R2dbcCustomConversions.STORE_CONVERTERS);
         return new R2dbcCustomConversions(
             CustomConversions.StoreConversions.of(dialect.getSimpleTypeHolder(), converters),
             Collections.emptyList());
     }
 
+    /**
+     * The converters of the {@link Instant} fields, which the drivers do not all map the same way.
+     * <p>
+     * r2dbc-h2 cannot bind an {@link Instant} before 0.8.3 (see https://github.com/r2dbc/r2dbc-h2/pull/139), so it
+     * is bound as an {@link OffsetDateTime}. The MySQL and PostgreSQL drivers bind it, but read the {@code timestamp}
+     * columns as {@link LocalDateTime}, which are in UTC as the sessions use the UTC time zone.
+     *
+     * @param dialect the dialect of the database.
+     * @return the converters to register for this dialect.
+     */
+    public static List<Object> temporalConverters(R2dbcDialect dialect) {
+        if (dialect instanceof H2Dialect) {
+            return Collections.singletonList(new InstantWriteConverter());
+        }
+        if (dialect instanceof MySqlDialect || dialect instanceof PostgresDialect) {
+            return Collections.singletonList(new LocalDateTimeReadConverter());
+        }
+        return Collections.emptyList();
+    }
+
     @WritingConverter
-    public class InstantWriteConverter implements Converter<Instant, OffsetDateTime> {
+    public static class InstantWriteConverter implements Converter<Instant, OffsetDateTime> {
 
         public OffsetDateTime convert(Instant source) {
             return source.atOffset(ZoneOffset.UTC);
         }
     }
+
+    @ReadingConverter
+    public static class LocalDateTimeReadConverter implements Converter<LocalDateTime, Instant> {
+
+        public Instant convert(LocalDateTime source) {
+            return source.toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * Wraps the primary {@link ConnectionFactory} before the other post-processors, so that its decorators, such as
+     * the metrics, also see the connections to the replicas.
+     */
+    public static class ReadReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingPostProcessor.class);
+
+        private final ObjectProvider<ApplicationProperties> applicationProperties;
+
+        public ReadReplicaRoutingPostProcessor(ObjectProvider<ApplicationProperties> applicationProperties) {
+            this.applicationProperties = applicationProperties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof ConnectionFactory) || bean instanceof ReadReplicaRoutingConnectionFactory) {
+                return bean;
+            }
+            ApplicationProperties.Database.ReadReplicas properties = applicationProperties.getObject().getDatabase().getReadReplicas();
+            if (properties.getUrls().isEmpty()) {
+                return bean;
+            }
+            List<ConnectionFactory> replicas = new ArrayList<>();
+            for (String url : properties.getUrls()) {
+                replicas.add(createReplica(url, properties, replicas.size()));
+            }
+            log.info("Routing the read-only transactions to {} read replicas", replicas.size());
+            return new ReadReplicaRoutingConnectionFactory((ConnectionFactory) bean, replicas, properties.getStickiness(),
+                properties.getRetryPeriod(),
+                context -> context.<AuthenticatedUser>getOrEmpty(AuthenticatedUser.class).map(AuthenticatedUser::getLogin));
+        }
+
+        private ConnectionFactory createReplica(String url, ApplicationProperties.Database.ReadReplicas properties, int index) {
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+            if (properties.getUsername() != null) {
+                options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+            }
+            if (properties.getPassword() != null) {
+                options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+            }
+            ConnectionFactory replica = ConnectionFactories.get(options.build());
+            if (replica instanceof ConnectionPool) {
+                return replica;
+            }
+            return new ConnectionPool(ConnectionPoolConfiguration.builder(replica)
+                .name("replica-" + index)
+                .initialSize(1)
+                .maxSize(properties.getPoolMaxSize())
+                .build());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    /**
+     * Wraps the {@link ReactiveDataAccessStrategy} declared by Spring Data, which the repositories and the primary
+     * {@link DatabaseClient} use.
+     */
+    public static class EntityRowMappingPostProcessor implements BeanPostProcessor {
+
+        private final ObjectProvider<R2dbcDialect> dialect;
+
+        public EntityRowMappingPostProcessor(ObjectProvider<R2dbcDialect> dialect) {
+            this.dialect = dialect;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof ReactiveDataAccessStrategy) || bean instanceof EntityRowMappingDataAccessStrategy) {
+                return bean;
+            }
+            return new EntityRowMappingDataAccessStrategy((ReactiveDataAccessStrategy) bean, dialect.getObject());
+        }
+    }
 }
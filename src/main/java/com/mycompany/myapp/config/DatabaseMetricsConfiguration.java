@@ -0,0 +1,42 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.aop.metrics.QueryNameAspect;
+import com.mycompany.myapp.config.r2dbc.MeteredConnectionFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+/**
+ * Records the latency and the number of rows of the R2DBC queries, by repository method.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.database.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseMetricsConfiguration {
+
+    @Bean
+    public static BeanPostProcessor meteredConnectionFactoryPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                          ObjectProvider<ApplicationProperties> applicationProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory && !(bean instanceof MeteredConnectionFactory)) {
+                    return new MeteredConnectionFactory((ConnectionFactory) bean, meterRegistry.getObject(),
+                        applicationProperties.getObject().getDatabase().getMetrics().getSlowQueryThreshold());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryNameAspect queryNameAspect() {
+        return new QueryNameAspect();
+    }
+}
@@ -0,0 +1,28 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.aop.identity.IdentityMapAspect;
+import com.mycompany.myapp.web.filter.IdentityMapWebFilter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+/**
+ * Memoizes the entity loads of the repositories within each request, until the next write.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.database.identity-map", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdentityMapConfiguration {
+
+    @Bean
+    public IdentityMapWebFilter identityMapWebFilter() {
+        return new IdentityMapWebFilter();
+    }
+
+    @Bean
+    public IdentityMapAspect identityMapAspect() {
+        return new IdentityMapAspect();
+    }
+}
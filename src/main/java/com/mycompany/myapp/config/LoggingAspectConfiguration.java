@@ -4,6 +4,7 @@ import com.mycompany.myapp.aop.logging.LoggingAspect;
 
 import io.github.jhipster.config.JHipsterConstants;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 
@@ -16,4 +17,11 @@ public class LoggingAspectConfiguration {
     public LoggingAspect loggingAspect(Environment env) {
         return new LoggingAspect(env);
     }
+
+    @Bean
+    @Profile("!" + JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
+    @ConditionalOnProperty(prefix = "application.logging.aspect", name = "enabled", havingValue = "true")
+    public LoggingAspect sampledLoggingAspect(Environment env, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, applicationProperties.getLogging().getAspect().getSampleRate());
+    }
 }
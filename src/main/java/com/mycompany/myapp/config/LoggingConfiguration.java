@@ -3,9 +3,12 @@ package com.mycompany.myapp.config;
 import ch.qos.logback.classic.LoggerContext;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.logging.AsyncLoggingUtils;
+import com.mycompany.myapp.config.logging.DroppedLogEventsListener;
 import io.github.jhipster.config.JHipsterProperties;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.HashMap;
@@ -19,9 +22,12 @@ import static io.github.jhipster.config.logging.LoggingUtils.*;
 @Configuration
 public class LoggingConfiguration {
 
+    private final DroppedLogEventsListener droppedLogEventsListener = new DroppedLogEventsListener();
+
     public LoggingConfiguration(@Value("${spring.application.name}") String appName,
                                 @Value("${server.port}") String serverPort,
                                 JHipsterProperties jHipsterProperties,
+                                ApplicationProperties applicationProperties,
                                 ObjectMapper mapper) throws JsonProcessingException {
 
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -46,5 +52,16 @@ public class LoggingConfiguration {
         if (jHipsterProperties.getMetrics().getLogs().isEnabled()) {
             setMetricsMarkerLogbackFilter(context, loggingProperties.isUseJsonFormat());
         }
+
+        ApplicationProperties.Logging.Async asyncProperties = applicationProperties.getLogging().getAsync();
+        if (asyncProperties.isEnabled()) {
+            AsyncLoggingUtils.addAsyncAppenders(context, asyncProperties.getRingBufferSize(), droppedLogEventsListener);
+            AsyncLoggingUtils.addContextListener(context, asyncProperties.getRingBufferSize(), droppedLogEventsListener);
+        }
+    }
+
+    @Bean
+    public DroppedLogEventsListener droppedLogEventsListener() {
+        return droppedLogEventsListener;
     }
 }
@@ -1,11 +1,15 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.security.AuthenticatedUserExpressionHandler;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.jwt.JWTFilter;
 import com.mycompany.myapp.security.jwt.TokenProvider;
+import com.mycompany.myapp.security.jwt.TokenRevocationList;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
@@ -32,14 +36,27 @@ public class SecurityConfiguration {
 
     private final TokenProvider tokenProvider;
 
+    private final TokenRevocationList tokenRevocationList;
+
     private final SecurityProblemSupport problemSupport;
 
-    public SecurityConfiguration(ReactiveUserDetailsService userDetailsService, TokenProvider tokenProvider, SecurityProblemSupport problemSupport) {
+    public SecurityConfiguration(ReactiveUserDetailsService userDetailsService, TokenProvider tokenProvider,
+                                 TokenRevocationList tokenRevocationList, SecurityProblemSupport problemSupport) {
         this.userDetailsService = userDetailsService;
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
         this.problemSupport = problemSupport;
     }
 
+    /**
+     * Evaluate the {@code @PreAuthorize} role checks against the principal resolved by the {@link JWTFilter}.
+     */
+    @Bean
+    @Primary
+    public static MethodSecurityExpressionHandler authenticatedUserExpressionHandler() {
+        return new AuthenticatedUserExpressionHandler();
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -62,7 +79,7 @@ public class SecurityConfiguration {
             )))
             .csrf()
                 .disable()
-            .addFilterAt(new JWTFilter(tokenProvider), SecurityWebFiltersOrder.HTTP_BASIC)
+            .addFilterAt(new JWTFilter(tokenProvider, tokenRevocationList), SecurityWebFiltersOrder.HTTP_BASIC)
             .authenticationManager(reactiveAuthenticationManager())
             .exceptionHandling()
                 .accessDeniedHandler(problemSupport)
@@ -81,6 +98,7 @@ public class SecurityConfiguration {
             .pathMatchers("/api/register").permitAll()
             .pathMatchers("/api/activate").permitAll()
             .pathMatchers("/api/authenticate").permitAll()
+            .pathMatchers("/api/authenticate/refresh").permitAll()
             .pathMatchers("/api/account/reset-password/init").permitAll()
             .pathMatchers("/api/account/reset-password/finish").permitAll()
             .pathMatchers("/api/auth-info").permitAll()
@@ -0,0 +1,29 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.aop.tracing.TracingAspect;
+import com.mycompany.myapp.web.filter.TracingWebFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+/**
+ * Traces the requests through the reactive service and repository calls.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfiguration {
+
+    @Bean
+    public TracingWebFilter tracingWebFilter() {
+        return new TracingWebFilter();
+    }
+
+    @Bean
+    public TracingAspect tracingAspect(MeterRegistry meterRegistry) {
+        return new TracingAspect(meterRegistry);
+    }
+}
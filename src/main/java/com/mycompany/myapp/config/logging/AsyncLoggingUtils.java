@@ -0,0 +1,177 @@
+package com.mycompany.myapp.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AsyncAppenderBase;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.spi.FilterReply;
+import net.logstash.logback.appender.AsyncDisruptorAppender;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.appender.LogstashTcpSocketAppender;
+import net.logstash.logback.encoder.LoggingEventCompositeJsonEncoder;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Utility methods to move the appenders of the root logger off the logging threads.
+ * <p>
+ * Each synchronous appender is wrapped in a {@link LoggingEventAsyncDisruptorAppender}: logging threads only publish
+ * the event to a bounded lock-free ring buffer, and a single consumer thread writes it. When the ring buffer is full
+ * the event is dropped rather than blocking the caller, typically a Netty event loop, and counted by a
+ * {@link DroppedLogEventsListener}.
+ */
+public final class AsyncLoggingUtils {
+
+    private static final org.slf4j.Logger log = LoggerFactory.getLogger(AsyncLoggingUtils.class);
+
+    private static final String ASYNC_APPENDER_NAME_PREFIX = "ASYNC_";
+
+    private AsyncLoggingUtils() {
+    }
+
+    /**
+     * Wrap the synchronous appenders of the root logger in asynchronous ones.
+     *
+     * @param context the logger context.
+     * @param ringBufferSize the size of the ring buffer of each appender, a power of 2.
+     * @param listener the listener counting the dropped events.
+     */
+    public static void addAsyncAppenders(LoggerContext context, int ringBufferSize, DroppedLogEventsListener listener) {
+        log.info("Initializing asynchronous appenders");
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        rootLogger.iteratorForAppenders().forEachRemaining(appenders::add);
+        for (Appender<ILoggingEvent> appender : appenders) {
+            if (appender instanceof LogstashTcpSocketAppender) {
+                // Already backed by a ring buffer
+                ((LogstashTcpSocketAppender) appender).addListener(listener);
+            } else if (!(appender instanceof AsyncDisruptorAppender) && !(appender instanceof AsyncAppenderBase)) {
+                LoggingEventAsyncDisruptorAppender asyncAppender = new LoggingEventAsyncDisruptorAppender();
+                asyncAppender.setContext(context);
+                asyncAppender.setName(ASYNC_APPENDER_NAME_PREFIX + appender.getName());
+                asyncAppender.setRingBufferSize(ringBufferSize);
+                asyncAppender.addListener(listener);
+                asyncAppender.addAppender(delegate(context, appender));
+                asyncAppender.start();
+                rootLogger.detachAppender(appender);
+                rootLogger.addAppender(asyncAppender);
+            }
+        }
+    }
+
+    /**
+     * Wrap the synchronous appenders again when the logger context is started, and after it is reset, as it is when the
+     * configuration is reloaded.
+     *
+     * @param context the logger context.
+     * @param ringBufferSize the size of the ring buffer of each appender, a power of 2.
+     * @param listener the listener counting the dropped events.
+     */
+    public static void addContextListener(LoggerContext context, int ringBufferSize, DroppedLogEventsListener listener) {
+        AsyncLoggerContextListener contextListener = new AsyncLoggerContextListener(ringBufferSize, listener);
+        contextListener.setContext(context);
+        context.addListener(contextListener);
+    }
+
+    /**
+     * Replace the JSON console appender with one reusing its buffer, as only the consumer thread will write to it.
+     */
+    private static Appender<ILoggingEvent> delegate(LoggerContext context, Appender<ILoggingEvent> appender) {
+        if (!(appender instanceof ConsoleAppender) || appender instanceof JsonStreamAppender ||
+            !(((ConsoleAppender<ILoggingEvent>) appender).getEncoder() instanceof LoggingEventCompositeJsonEncoder)) {
+            return appender;
+        }
+        ConsoleAppender<ILoggingEvent> consoleAppender = (ConsoleAppender<ILoggingEvent>) appender;
+        JsonStreamAppender jsonAppender = new JsonStreamAppender();
+        jsonAppender.setContext(context);
+        jsonAppender.setName(consoleAppender.getName());
+        jsonAppender.setEncoder(consoleAppender.getEncoder());
+        consoleAppender.getCopyOfAttachedFiltersList().forEach(jsonAppender::addFilter);
+        jsonAppender.start();
+        consoleAppender.stop();
+        return jsonAppender;
+    }
+
+    private static class AsyncLoggerContextListener extends ContextAwareBase implements LoggerContextListener {
+
+        private final int ringBufferSize;
+
+        private final DroppedLogEventsListener listener;
+
+        private AsyncLoggerContextListener(int ringBufferSize, DroppedLogEventsListener listener) {
+            this.ringBufferSize = ringBufferSize;
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean isResetResistant() {
+            return true;
+        }
+
+        @Override
+        public void onStart(LoggerContext context) {
+            addAsyncAppenders(context, ringBufferSize, listener);
+        }
+
+        /**
+         * Wrap the appenders added by the other reset listeners now, and those of the configuration once it is applied:
+         * the root logger has no appenders yet when the context fires its reset.
+         */
+        @Override
+        public void onReset(LoggerContext context) {
+            addAsyncAppenders(context, ringBufferSize, listener);
+            ConfiguredAppendersFilter filter = new ConfiguredAppendersFilter(ringBufferSize, listener);
+            filter.setContext(context);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+
+        @Override
+        public void onStop(LoggerContext context) {
+            // Nothing to do.
+        }
+
+        @Override
+        public void onLevelChange(Logger logger, Level level) {
+            // Nothing to do.
+        }
+    }
+
+    /**
+     * Turbo filter wrapping the appenders of the root logger on the first event logged after a reset, which is after
+     * the configuration is applied again, and then removing itself. It never filters out an event.
+     */
+    private static class ConfiguredAppendersFilter extends TurboFilter {
+
+        private final int ringBufferSize;
+
+        private final DroppedLogEventsListener listener;
+
+        private final AtomicBoolean wrapped = new AtomicBoolean();
+
+        private ConfiguredAppendersFilter(int ringBufferSize, DroppedLogEventsListener listener) {
+            this.ringBufferSize = ringBufferSize;
+            this.listener = listener;
+        }
+
+        @Override
+        public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+            if (wrapped.compareAndSet(false, true)) {
+                LoggerContext context = (LoggerContext) getContext();
+                context.getTurboFilterList().remove(this);
+                addAsyncAppenders(context, ringBufferSize, listener);
+            }
+            return FilterReply.NEUTRAL;
+        }
+    }
+}
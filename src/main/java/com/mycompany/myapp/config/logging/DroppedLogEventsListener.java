@@ -0,0 +1,72 @@
+package com.mycompany.myapp.config.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.logstash.logback.appender.RingBufferFullException;
+import net.logstash.logback.appender.listener.LoggingEventTcpAppenderListenerImpl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the log events dropped by the asynchronous appenders because their ring buffer was full.
+ * <p>
+ * The counts are published as the {@code logback.events.dropped} metric, tagged by appender.
+ */
+public class DroppedLogEventsListener extends LoggingEventTcpAppenderListenerImpl implements MeterBinder {
+
+    private final Map<String, AtomicLong> droppedEvents = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    @Override
+    public void appenderStarted(Appender<ILoggingEvent> appender) {
+        droppedEvents(appender.getName());
+    }
+
+    @Override
+    public void eventAppendFailed(Appender<ILoggingEvent> appender, ILoggingEvent event, Throwable reason) {
+        if (reason instanceof RingBufferFullException) {
+            droppedEvents(appender.getName()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the number of events dropped by an appender.
+     *
+     * @param appenderName the name of the appender.
+     * @return the number of dropped events.
+     */
+    public long getDroppedEvents(String appenderName) {
+        AtomicLong dropped = droppedEvents.get(appenderName);
+        return dropped == null ? 0 : dropped.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        droppedEvents.forEach((appenderName, dropped) -> register(registry, appenderName, dropped));
+    }
+
+    private AtomicLong droppedEvents(String appenderName) {
+        return droppedEvents.computeIfAbsent(appenderName, name -> {
+            AtomicLong dropped = new AtomicLong();
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) {
+                register(registry, name, dropped);
+            }
+            return dropped;
+        });
+    }
+
+    private static void register(MeterRegistry registry, String appenderName, AtomicLong dropped) {
+        FunctionCounter.builder("logback.events.dropped", dropped, AtomicLong::get)
+            .description("Log events dropped because the ring buffer of the asynchronous appender was full")
+            .tag("appender", appenderName)
+            .register(registry);
+    }
+}
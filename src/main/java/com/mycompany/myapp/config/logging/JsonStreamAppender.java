@@ -0,0 +1,78 @@
+package com.mycompany.myapp.config.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.status.ErrorStatus;
+import net.logstash.logback.composite.loggingevent.LoggingEventCompositeJsonFormatter;
+import net.logstash.logback.encoder.LoggingEventCompositeJsonEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Console appender writing the JSON of each event through a buffer reused from one event to the next.
+ * <p>
+ * The {@link LoggingEventCompositeJsonEncoder} allocates an output stream and a byte array per event. This appender
+ * formats with the same JSON providers, but into a single buffer which is then copied to the console, so that a
+ * steady stream of events does not produce garbage. It is meant to be the delegate of an asynchronous appender, so
+ * that only its consumer thread writes to the buffer.
+ */
+public class JsonStreamAppender extends ConsoleAppender<ILoggingEvent> {
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /**
+     * Buffers grown bigger than this, for instance by a long stack trace, are not kept.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final LoggingEventCompositeJsonFormatter formatter = new LoggingEventCompositeJsonFormatter(this);
+
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+
+    @Override
+    public void start() {
+        if (!(getEncoder() instanceof LoggingEventCompositeJsonEncoder)) {
+            addError("No JSON encoder set for the appender named \"" + name + "\".");
+            return;
+        }
+        formatter.setContext(getContext());
+        formatter.setProviders(((LoggingEventCompositeJsonEncoder) getEncoder()).getProviders());
+        formatter.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        formatter.stop();
+    }
+
+    @Override
+    protected void subAppend(ILoggingEvent event) {
+        if (!isStarted()) {
+            return;
+        }
+        lock.lock();
+        try {
+            buffer.reset();
+            formatter.writeEventToOutputStream(event, buffer);
+            buffer.write(LINE_SEPARATOR);
+            buffer.writeTo(getOutputStream());
+            if (isImmediateFlush()) {
+                getOutputStream().flush();
+            }
+            if (buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+                buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+            }
+        } catch (IOException e) {
+            started = false;
+            addStatus(new ErrorStatus("IO failure in appender", this, e));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Asynchronous Logback appenders.
+ */
+package com.mycompany.myapp.config.logging;
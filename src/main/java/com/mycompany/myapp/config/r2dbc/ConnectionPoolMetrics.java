@@ -0,0 +1,58 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gauges of the connections of an R2DBC {@link ConnectionPool}, tagged with the name of the pool.
+ * <p>
+ * The pool is looked up behind the decorators of the connection factory. Nothing is recorded if the connections are
+ * not pooled.
+ */
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final String poolName;
+
+    private final ConnectionFactory connectionFactory;
+
+    public ConnectionPoolMetrics(String poolName, ConnectionFactory connectionFactory) {
+        this.poolName = poolName;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Object factory = connectionFactory;
+        while (!(factory instanceof ConnectionPool) && factory instanceof Wrapped) {
+            factory = ((Wrapped<?>) factory).unwrap();
+        }
+        if (!(factory instanceof ConnectionPool)) {
+            return;
+        }
+        ((ConnectionPool) factory).getMetrics().ifPresent(metrics -> {
+            gauge(registry, "r2dbc.pool.acquired", "Connections in use", metrics, PoolMetrics::acquiredSize);
+            gauge(registry, "r2dbc.pool.idle", "Idle connections", metrics, PoolMetrics::idleSize);
+            gauge(registry, "r2dbc.pool.allocated", "Connections open, in use or idle", metrics, PoolMetrics::allocatedSize);
+            gauge(registry, "r2dbc.pool.pending", "Subscribers waiting for a connection", metrics,
+                PoolMetrics::pendingAcquireSize);
+            gauge(registry, "r2dbc.pool.max.allocated", "Maximum number of connections", metrics,
+                PoolMetrics::getMaxAllocatedSize);
+        });
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, PoolMetrics metrics,
+                       ToDoubleFunction<PoolMetrics> value) {
+        Gauge.builder(name, metrics, value)
+            .description(description)
+            .baseUnit("connections")
+            .tag("pool", poolName)
+            .register(registry);
+    }
+}
@@ -0,0 +1,185 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.SettableValue;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Row mapper and parameter binder of a {@code @Table} entity, generated at compile time by the
+ * {@link EntityRowMappingProcessor}.
+ * <p>
+ * The columns of a result are resolved to their indexes once per result layout, then every row is read by index and
+ * its values converted without reflection nor conversion service. The conversions are those of the
+ * {@code DatabaseConfiguration.temporalConverters} for the dialect the mapping is configured with.
+ *
+ * @param <T> the type of the entity.
+ */
+public abstract class EntityRowMapping<T> implements BiFunction<Row, RowMetadata, T> {
+
+    private final Class<T> type;
+
+    private final String[] columns;
+
+    private ZoneId localDateTimeZone = ZoneId.systemDefault();
+
+    private boolean instantAsOffsetDateTime;
+
+    private volatile ColumnIndexes indexes;
+
+    protected EntityRowMapping(Class<T> type, String... columns) {
+        this.type = type;
+        this.columns = columns;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Convert the temporal values as the drivers of a dialect expect them.
+     *
+     * @param dialect the dialect of the database.
+     */
+    public void configure(R2dbcDialect dialect) {
+        instantAsOffsetDateTime = dialect instanceof H2Dialect;
+        localDateTimeZone = dialect instanceof MySqlDialect || dialect instanceof PostgresDialect ?
+            ZoneOffset.UTC : ZoneId.systemDefault();
+    }
+
+    @Override
+    public T apply(Row row, RowMetadata metadata) {
+        return read(row, indexesOf(metadata));
+    }
+
+    /**
+     * Read an entity from a row.
+     *
+     * @param row the row.
+     * @param indexes the index of each column of the entity in the row, in the order given to the constructor, or
+     *                {@code -1} when the row does not have the column.
+     * @return the entity.
+     */
+    protected abstract T read(Row row, int[] indexes);
+
+    /**
+     * Bind the columns of an entity.
+     *
+     * @param entity the entity.
+     * @return the values of all its columns, empty for the {@code null} ones.
+     */
+    public abstract OutboundRow write(T entity);
+
+    private int[] indexesOf(RowMetadata metadata) {
+        ColumnIndexes cached = indexes;
+        if (cached != null && cached.metadata == metadata) {
+            return cached.indexes;
+        }
+        List<String> names = new ArrayList<>();
+        for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+            names.add(column.getName());
+        }
+        // The results of a query have their own metadata, but the same layout
+        if (cached != null && cached.names.equals(names)) {
+            indexes = new ColumnIndexes(metadata, names, cached.indexes);
+            return cached.indexes;
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            positions.putIfAbsent(names.get(i).toLowerCase(Locale.ENGLISH), i);
+        }
+        int[] resolved = new int[columns.length];
+        Arrays.fill(resolved, -1);
+        for (int i = 0; i < columns.length; i++) {
+            Integer position = positions.get(columns[i].toLowerCase(Locale.ENGLISH));
+            if (position != null) {
+                resolved[i] = position;
+            }
+        }
+        indexes = new ColumnIndexes(metadata, names, resolved);
+        return resolved;
+    }
+
+    protected static String readString(Object value) {
+        return value instanceof String ? (String) value : value.toString();
+    }
+
+    protected static Long readLong(Object value) {
+        return value instanceof Long ? (Long) value : Long.valueOf(((Number) value).longValue());
+    }
+
+    protected static Integer readInteger(Object value) {
+        return value instanceof Integer ? (Integer) value : Integer.valueOf(((Number) value).intValue());
+    }
+
+    protected static Boolean readBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return ((Number) value).intValue() != 0;
+    }
+
+    protected Instant readInstant(Object value) {
+        if (value instanceof Instant) {
+            return (Instant) value;
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(localDateTimeZone).toInstant();
+        }
+        if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toInstant();
+        }
+        if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant();
+        }
+        throw new IllegalArgumentException("Cannot read an Instant from a " + value.getClass().getName());
+    }
+
+    protected static SettableValue bind(Object value, Class<?> type) {
+        return SettableValue.fromOrEmpty(value, type);
+    }
+
+    protected SettableValue bindInstant(Instant value) {
+        if (instantAsOffsetDateTime) {
+            return SettableValue.fromOrEmpty(value == null ? null : value.atOffset(ZoneOffset.UTC), OffsetDateTime.class);
+        }
+        return SettableValue.fromOrEmpty(value, Instant.class);
+    }
+
+    /**
+     * Indexes of the columns of the entity, in the last result layout read.
+     */
+    private static final class ColumnIndexes {
+
+        private final RowMetadata metadata;
+
+        private final List<String> names;
+
+        private final int[] indexes;
+
+        private ColumnIndexes(RowMetadata metadata, List<String> names, int[] indexes) {
+            this.metadata = metadata;
+            this.names = names;
+            this.indexes = indexes;
+        }
+    }
+}
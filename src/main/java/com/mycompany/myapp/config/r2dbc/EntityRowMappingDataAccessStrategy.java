@@ -0,0 +1,87 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.PreparedOperation;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.BiFunction;
+
+/**
+ * {@link ReactiveDataAccessStrategy} decorator mapping the entities with their generated {@link EntityRowMapping}.
+ * <p>
+ * The mappings are the services registered by the {@link EntityRowMappingProcessor}. The entities without one, as
+ * when the sources were compiled without the processor, keep the reflection-based mapping of the delegate.
+ */
+public class EntityRowMappingDataAccessStrategy implements ReactiveDataAccessStrategy {
+
+    private final Logger log = LoggerFactory.getLogger(EntityRowMappingDataAccessStrategy.class);
+
+    private final ReactiveDataAccessStrategy delegate;
+
+    private final Map<Class<?>, EntityRowMapping<?>> mappings = new HashMap<>();
+
+    @SuppressWarnings("rawtypes")
+    public EntityRowMappingDataAccessStrategy(ReactiveDataAccessStrategy delegate, R2dbcDialect dialect) {
+        this.delegate = delegate;
+        for (EntityRowMapping<?> mapping : ServiceLoader.load(EntityRowMapping.class, EntityRowMapping.class.getClassLoader())) {
+            mapping.configure(dialect);
+            mappings.put(mapping.getType(), mapping);
+        }
+        log.debug("Mapping the entities {} with their generated row mappings", mappings.keySet());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> BiFunction<Row, RowMetadata, T> getRowMapper(Class<T> typeToRead) {
+        EntityRowMapping<?> mapping = mappings.get(typeToRead);
+        return mapping != null ? (EntityRowMapping<T>) mapping : delegate.getRowMapper(typeToRead);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public OutboundRow getOutboundRow(Object object) {
+        EntityRowMapping<Object> mapping = (EntityRowMapping<Object>) mappings.get(object.getClass());
+        return mapping != null ? mapping.write(object) : delegate.getOutboundRow(object);
+    }
+
+    @Override
+    public List<String> getAllColumns(Class<?> entityType) {
+        return delegate.getAllColumns(entityType);
+    }
+
+    @Override
+    public List<String> getIdentifierColumns(Class<?> entityType) {
+        return delegate.getIdentifierColumns(entityType);
+    }
+
+    @Override
+    public String getTableName(Class<?> type) {
+        return delegate.getTableName(type);
+    }
+
+    @Override
+    public PreparedOperation<?> processNamedParameters(String query, NamedParameterProvider parameterProvider) {
+        return delegate.processNamedParameters(query, parameterProvider);
+    }
+
+    @Override
+    public StatementMapper getStatementMapper() {
+        return delegate.getStatementMapper();
+    }
+
+    @Override
+    public R2dbcConverter getConverter() {
+        return delegate.getConverter();
+    }
+}
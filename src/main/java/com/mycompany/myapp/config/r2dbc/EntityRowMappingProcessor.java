@@ -0,0 +1,315 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor generating an {@link EntityRowMapping} for each {@code @Table} entity, named after the entity
+ * with a {@code RowMapping} suffix and registered as a service.
+ * <p>
+ * The columns are the non-transient fields of the entity and of its superclasses, named as Spring Data names them:
+ * the value of their {@code @Column}, or else their name in snake case. The values are read and written with the
+ * public setters and getters. The entities with a field of another type than {@link String}, {@link Long},
+ * {@link Integer}, {@link Boolean}, their primitives and {@link java.time.Instant}, or without a public no-argument
+ * constructor, are skipped and keep the reflection-based mapping of Spring Data.
+ * <p>
+ * It is not on the annotation processor path of the main compilation, but run by the {@code generate-row-mappers}
+ * execution of the compiler plugin, once the entities and this class are compiled.
+ */
+@SupportedAnnotationTypes(EntityRowMappingProcessor.TABLE_ANNOTATION)
+public class EntityRowMappingProcessor extends AbstractProcessor {
+
+    static final String TABLE_ANNOTATION = "org.springframework.data.relational.core.mapping.Table";
+
+    private static final String COLUMN_ANNOTATION = "org.springframework.data.relational.core.mapping.Column";
+
+    private static final String TRANSIENT_ANNOTATION = "org.springframework.data.annotation.Transient";
+
+    private static final String SUFFIX = "RowMapping";
+
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement entity : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                List<Property> properties = properties(entity);
+                if (properties != null) {
+                    generate(entity, properties);
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !generated.isEmpty()) {
+            writeServices();
+        }
+        return false;
+    }
+
+    /**
+     * The mapped properties of an entity, or {@code null} when it cannot be mapped without reflection.
+     */
+    private List<Property> properties(TypeElement entity) {
+        if (entity.getModifiers().contains(Modifier.ABSTRACT) || !hasPublicNoArgConstructor(entity)) {
+            note(entity, "it has no public no-argument constructor");
+            return null;
+        }
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(entity));
+        List<Property> properties = new ArrayList<>();
+        for (TypeElement type = entity; type != null; type = superclass(type)) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT) ||
+                    annotation(field, TRANSIENT_ANNOTATION) != null) {
+                    continue;
+                }
+                String name = field.getSimpleName().toString();
+                ValueType valueType = ValueType.of(field.asType());
+                if (valueType == null) {
+                    note(entity, "the type of " + name + " is not supported");
+                    return null;
+                }
+                String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                ExecutableElement getter = accessor(methods, "get" + capitalized, 0);
+                if (getter == null && field.asType().getKind() == TypeKind.BOOLEAN) {
+                    getter = accessor(methods, "is" + capitalized, 0);
+                }
+                ExecutableElement setter = accessor(methods, "set" + capitalized, 1);
+                if (getter == null || setter == null) {
+                    note(entity, name + " has no public getter and setter");
+                    return null;
+                }
+                properties.add(new Property(columnName(field), valueType, getter.getSimpleName().toString(),
+                    setter.getSimpleName().toString()));
+            }
+        }
+        return properties;
+    }
+
+    private void generate(TypeElement entity, List<Property> properties) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+        String entityName = entity.getSimpleName().toString();
+        String className = entityName + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, entity).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import " + EntityRowMapping.class.getName() + ";");
+            out.println("import io.r2dbc.spi.Row;");
+            out.println("import org.springframework.data.r2dbc.mapping.OutboundRow;");
+            out.println();
+            out.println("/**");
+            out.println(" * Row mapping of {@link " + entityName + "}, generated by the {@code " +
+                EntityRowMappingProcessor.class.getSimpleName() + "}.");
+            out.println(" */");
+            out.println("public final class " + className + " extends " + EntityRowMapping.class.getSimpleName() +
+                "<" + entityName + "> {");
+            out.println();
+            StringJoiner columns = new StringJoiner(", ");
+            properties.forEach(property -> columns.add("\"" + property.column + "\""));
+            out.println("    public " + className + "() {");
+            out.println("        super(" + entityName + ".class, " + columns + ");");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    protected " + entityName + " read(Row row, int[] indexes) {");
+            out.println("        " + entityName + " entity = new " + entityName + "();");
+            out.println("        Object value;");
+            for (int i = 0; i < properties.size(); i++) {
+                Property property = properties.get(i);
+                out.println("        if (indexes[" + i + "] >= 0 && (value = row.get(indexes[" + i + "])) != null) {");
+                out.println("            entity." + property.setter + "(" + property.type.reader + "(value));");
+                out.println("        }");
+            }
+            out.println("        return entity;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public OutboundRow write(" + entityName + " entity) {");
+            out.println("        OutboundRow row = new OutboundRow();");
+            for (Property property : properties) {
+                out.println("        row.put(\"" + property.column + "\", " +
+                    String.format(property.type.binder, "entity." + property.getter + "()") + ");");
+            }
+            out.println("        return row;");
+            out.println("    }");
+            out.println("}");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Cannot generate the row mapping of " + entityName + ": " + e.getMessage(), entity);
+            return;
+        }
+        generated.add(qualifiedName);
+    }
+
+    private void writeServices() {
+        try {
+            FileObject services = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                "META-INF/services/" + EntityRowMapping.class.getName());
+            try (Writer out = services.openWriter()) {
+                for (String className : generated) {
+                    out.write(className + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Cannot register the row mappings: " + e.getMessage());
+        }
+    }
+
+    private static boolean hasPublicNoArgConstructor(TypeElement entity) {
+        return ElementFilter.constructorsIn(entity.getEnclosedElements()).stream()
+            .anyMatch(constructor -> constructor.getParameters().isEmpty() &&
+                constructor.getModifiers().contains(Modifier.PUBLIC));
+    }
+
+    private static TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return Object.class.getName().equals(element.getQualifiedName().toString()) ? null : element;
+    }
+
+    private static ExecutableElement accessor(List<ExecutableElement> methods, String name, int parameters) {
+        return methods.stream()
+            .filter(method -> method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters &&
+                method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC))
+            .findFirst()
+            .orElse(null);
+    }
+
+    /**
+     * The column of a field, named as the default {@code NamingStrategy} of Spring Data names it.
+     */
+    private static String columnName(VariableElement field) {
+        AnnotationMirror column = annotation(field, COLUMN_ANNOTATION);
+        if (column != null) {
+            for (ExecutableElement attribute : column.getElementValues().keySet()) {
+                if (attribute.getSimpleName().contentEquals("value")) {
+                    AnnotationValue value = column.getElementValues().get(attribute);
+                    if (!value.getValue().toString().isEmpty()) {
+                        return value.getValue().toString();
+                    }
+                }
+            }
+        }
+        StringBuilder name = new StringBuilder();
+        for (char c : field.getSimpleName().toString().toCharArray()) {
+            if (Character.isUpperCase(c) && name.length() > 0) {
+                name.append('_');
+            }
+            name.append(Character.toLowerCase(c));
+        }
+        return name.toString();
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private void note(TypeElement entity, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+            "No row mapping generated for " + entity.getSimpleName() + ", " + reason, entity);
+    }
+
+    /**
+     * A column of the entity, with its accessors.
+     */
+    private static final class Property {
+
+        private final String column;
+
+        private final ValueType type;
+
+        private final String getter;
+
+        private final String setter;
+
+        private Property(String column, ValueType type, String getter, String setter) {
+            this.column = column;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * The supported field types, with the {@link EntityRowMapping} methods reading and binding them.
+     */
+    private enum ValueType {
+        STRING("java.lang.String", "readString", "bind(%s, String.class)"),
+        LONG("java.lang.Long", "readLong", "bind(%s, Long.class)"),
+        INTEGER("java.lang.Integer", "readInteger", "bind(%s, Integer.class)"),
+        BOOLEAN("java.lang.Boolean", "readBoolean", "bind(%s, Boolean.class)"),
+        INSTANT("java.time.Instant", "readInstant", "bindInstant(%s)");
+
+        private final String className;
+
+        private final String reader;
+
+        private final String binder;
+
+        ValueType(String className, String reader, String binder) {
+            this.className = className;
+            this.reader = reader;
+            this.binder = binder;
+        }
+
+        private static ValueType of(TypeMirror type) {
+            switch (type.getKind()) {
+                case LONG:
+                    return LONG;
+                case INT:
+                    return INTEGER;
+                case BOOLEAN:
+                    return BOOLEAN;
+                case DECLARED:
+                    String className = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                    for (ValueType valueType : values()) {
+                        if (valueType.className.equals(className)) {
+                            return valueType;
+                        }
+                    }
+                    return null;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,848 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.R2dbcBadGrammarException;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcRollbackException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.ValidationDepth;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * {@link ConnectionFactory} running blocking JDBC on a fixed pool of threads, so that the repositories can use a JDBC
+ * driver and pool behind the same reactive interfaces as the R2DBC drivers.
+ * <p>
+ * The pool has one thread per pooled connection, and a connection is only requested from the pool once another
+ * one is closed: a thread never blocks on an exhausted pool while the statements of the open connections wait for a
+ * thread. A subscriber which cancels before it receives its connection hands the permit back, and the connection is
+ * closed if it was opened in the meantime. The rows of a statement are read on that thread before they are emitted,
+ * so the results are not streamed. The {@code $1} and {@code ?} bind markers of the dialects are both supported, and
+ * the {@link SQLException}s are translated into the {@link R2dbcException}s Spring translates.
+ */
+public class JdbcConnectionFactory implements ConnectionFactory, Disposable {
+
+    private final DataSource dataSource;
+
+    private final Scheduler scheduler;
+
+    private final AtomicInteger permits;
+
+    private final Queue<Acquisition> waiting = new ConcurrentLinkedQueue<>();
+
+    private volatile DatabaseProduct product;
+
+    public JdbcConnectionFactory(DataSource dataSource, int maxThreads, String name) {
+        this.dataSource = dataSource;
+        AtomicInteger threads = new AtomicInteger();
+        this.scheduler = Schedulers.fromExecutorService(Executors.newFixedThreadPool(maxThreads,
+            task -> new Thread(task, "jdbc-" + name + "-" + threads.incrementAndGet())), "jdbc-" + name);
+        this.permits = new AtomicInteger(maxThreads);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            Acquisition acquisition = new Acquisition();
+            return Mono.<Void>create(acquisition::enqueue)
+                .then(blocking(acquisition::open))
+                .doOnNext(connection -> acquisition.delivered())
+                .doOnCancel(acquisition::cancel);
+        });
+    }
+
+    private void releasePermit() {
+        permits.incrementAndGet();
+        grantPermits();
+    }
+
+    /**
+     * Hand the available permits to the waiting subscribers, in order.
+     */
+    private void grantPermits() {
+        while (!waiting.isEmpty()) {
+            int available = permits.get();
+            if (available == 0) {
+                return;
+            }
+            if (permits.compareAndSet(available, available - 1)) {
+                Acquisition next = waiting.poll();
+                if (next == null || !next.grant()) {
+                    permits.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the metadata of the factory. The first call blocks, to read the product of the database from a connection
+     * taken like any other.
+     */
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return () -> product().name;
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.dispose();
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not close the JDBC data source", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return scheduler.isDisposed();
+    }
+
+    private DatabaseProduct product() {
+        if (product == null) {
+            Mono.usingWhen(create(), connection -> blocking(((JdbcConnection) connection)::product), Connection::close)
+                .block();
+        }
+        return product;
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(() -> {
+            try {
+                return call.call();
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        }).subscribeOn(scheduler);
+    }
+
+    private Mono<Void> blocking(SqlRunnable call) {
+        return blocking(() -> {
+            call.run();
+            return true;
+        }).then();
+    }
+
+    static R2dbcException translate(SQLException e) {
+        String state = e.getSQLState() != null ? e.getSQLState() : "";
+        if (e instanceof SQLIntegrityConstraintViolationException || state.startsWith("23")) {
+            return new R2dbcDataIntegrityViolationException(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+        if (e instanceof SQLTransactionRollbackException || state.startsWith("40")) {
+            return new R2dbcRollbackException(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+        if (e instanceof SQLSyntaxErrorException || state.startsWith("42")) {
+            return new R2dbcBadGrammarException(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+        if (e instanceof SQLTimeoutException) {
+            return new R2dbcTimeoutException(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+        if (e instanceof SQLTransientException) {
+            return new R2dbcTransientResourceException(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+        if (e instanceof SQLNonTransientConnectionException || state.startsWith("08")) {
+            return new R2dbcNonTransientResourceException(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+        return new UncategorizedJdbcException(e);
+    }
+
+    /**
+     * Opening of a connection by a subscriber, which hands the permit back, or closes the connection, if the subscriber
+     * cancels before it receives the connection.
+     */
+    private final class Acquisition {
+
+        private static final int WAITING = 0;
+
+        private static final int GRANTED = 1;
+
+        private static final int OPENING = 2;
+
+        private static final int OPENED = 3;
+
+        private static final int DELIVERED = 4;
+
+        private static final int CANCELLED = 5;
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private volatile MonoSink<Void> sink;
+
+        private volatile JdbcConnection connection;
+
+        private void enqueue(MonoSink<Void> sink) {
+            this.sink = sink;
+            waiting.add(this);
+            grantPermits();
+        }
+
+        private boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            sink.success();
+            return true;
+        }
+
+        private JdbcConnection open() throws SQLException {
+            if (!state.compareAndSet(GRANTED, OPENING)) {
+                return null;
+            }
+            try {
+                connection = new JdbcConnection(dataSource.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                releasePermit();
+                throw e;
+            }
+            if (!state.compareAndSet(OPENING, OPENED)) {
+                Mono.from(connection.close()).subscribe();
+                return null;
+            }
+            return connection;
+        }
+
+        private void delivered() {
+            state.compareAndSet(OPENED, DELIVERED);
+        }
+
+        private void cancel() {
+            int previous = state.getAndUpdate(current -> current == DELIVERED ? DELIVERED : CANCELLED);
+            if (previous == GRANTED) {
+                releasePermit();
+            } else if (previous == OPENED) {
+                Mono.from(connection.close()).subscribe();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlRunnable {
+
+        void run() throws SQLException;
+    }
+
+    private static final class UncategorizedJdbcException extends R2dbcException {
+
+        private UncategorizedJdbcException(SQLException e) {
+            super(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+    }
+
+    private static final class DatabaseProduct implements ConnectionMetadata {
+
+        private final String name;
+
+        private final String version;
+
+        private DatabaseProduct(DatabaseMetaData metaData) throws SQLException {
+            this.name = metaData.getDatabaseProductName();
+            this.version = metaData.getDatabaseProductVersion();
+        }
+
+        @Override
+        public String getDatabaseProductName() {
+            return name;
+        }
+
+        @Override
+        public String getDatabaseVersion() {
+            return version;
+        }
+    }
+
+    private final class JdbcConnection implements Connection {
+
+        private final java.sql.Connection connection;
+
+        private final Map<String, Savepoint> savepoints = new HashMap<>();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private JdbcConnection(java.sql.Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return blocking(() -> connection.setAutoCommit(false));
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return Mono.defer(() -> {
+                if (!closed.compareAndSet(false, true)) {
+                    return Mono.empty();
+                }
+                return blocking(connection::close).doFinally(signal -> releasePermit());
+            });
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return blocking(() -> {
+                connection.commit();
+                connection.setAutoCommit(true);
+            });
+        }
+
+        @Override
+        public Batch createBatch() {
+            return new JdbcBatch(connection);
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return blocking(() -> {
+                savepoints.put(name, connection.setSavepoint(name));
+            });
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new JdbcStatement(connection, sql);
+        }
+
+        @Override
+        public boolean isAutoCommit() {
+            try {
+                return connection.getAutoCommit();
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            try {
+                return product();
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        }
+
+        private DatabaseProduct product() throws SQLException {
+            if (product == null) {
+                product = new DatabaseProduct(connection.getMetaData());
+            }
+            return product;
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            try {
+                switch (connection.getTransactionIsolation()) {
+                    case java.sql.Connection.TRANSACTION_READ_UNCOMMITTED:
+                        return IsolationLevel.READ_UNCOMMITTED;
+                    case java.sql.Connection.TRANSACTION_REPEATABLE_READ:
+                        return IsolationLevel.REPEATABLE_READ;
+                    case java.sql.Connection.TRANSACTION_SERIALIZABLE:
+                        return IsolationLevel.SERIALIZABLE;
+                    default:
+                        return IsolationLevel.READ_COMMITTED;
+                }
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return blocking(() -> {
+                Savepoint savepoint = savepoints.remove(name);
+                if (savepoint != null) {
+                    connection.releaseSavepoint(savepoint);
+                }
+            });
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return blocking(() -> {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            });
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return blocking(() -> {
+                Savepoint savepoint = savepoints.get(name);
+                if (savepoint == null) {
+                    throw new SQLException("Unknown savepoint " + name, "3B001");
+                }
+                connection.rollback(savepoint);
+            });
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return blocking(() -> connection.setAutoCommit(autoCommit));
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            int level;
+            if (isolationLevel == IsolationLevel.READ_UNCOMMITTED) {
+                level = java.sql.Connection.TRANSACTION_READ_UNCOMMITTED;
+            } else if (isolationLevel == IsolationLevel.REPEATABLE_READ) {
+                level = java.sql.Connection.TRANSACTION_REPEATABLE_READ;
+            } else if (isolationLevel == IsolationLevel.SERIALIZABLE) {
+                level = java.sql.Connection.TRANSACTION_SERIALIZABLE;
+            } else {
+                level = java.sql.Connection.TRANSACTION_READ_COMMITTED;
+            }
+            return blocking(() -> connection.setTransactionIsolation(level));
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            if (depth == ValidationDepth.LOCAL) {
+                return blocking(() -> !connection.isClosed());
+            }
+            return blocking(() -> connection.isValid(0));
+        }
+    }
+
+    private final class JdbcStatement implements Statement {
+
+        private final java.sql.Connection connection;
+
+        private final String sql;
+
+        /**
+         * Index of the bound value of each JDBC parameter.
+         */
+        private final List<Integer> parameters = new ArrayList<>();
+
+        private final List<Object[]> bindings = new ArrayList<>();
+
+        private Object[] current;
+
+        private String[] generatedColumns;
+
+        private JdbcStatement(java.sql.Connection connection, String sql) {
+            this.connection = connection;
+            this.sql = parse(sql);
+            this.current = new Object[parameters.stream().mapToInt(i -> i + 1).max().orElse(0)];
+        }
+
+        /**
+         * Replace the {@code $1} markers by {@code ?}, outside of the quoted literals and identifiers.
+         */
+        private String parse(String sql) {
+            StringBuilder jdbcSql = new StringBuilder(sql.length());
+            char quote = 0;
+            int anonymous = 0;
+            for (int i = 0; i < sql.length(); i++) {
+                char c = sql.charAt(i);
+                if (quote != 0) {
+                    quote = c == quote ? 0 : quote;
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '?') {
+                    parameters.add(anonymous++);
+                } else if (c == '$' && i + 1 < sql.length() && Character.isDigit(sql.charAt(i + 1))) {
+                    int end = i + 1;
+                    while (end < sql.length() && Character.isDigit(sql.charAt(end))) {
+                        end++;
+                    }
+                    parameters.add(Integer.parseInt(sql.substring(i + 1, end)) - 1);
+                    jdbcSql.append('?');
+                    i = end - 1;
+                    continue;
+                }
+                jdbcSql.append(c);
+            }
+            return jdbcSql.toString();
+        }
+
+        @Override
+        public Statement add() {
+            bindings.add(current);
+            current = new Object[current.length];
+            return this;
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            if (index < 0 || index >= current.length) {
+                throw new IndexOutOfBoundsException("No bind marker at index " + index + " in " + sql);
+            }
+            current[index] = value;
+            return this;
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            return bind(indexOf(name), value);
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            return bind(index, new NullValue(type));
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            return bindNull(indexOf(name), type);
+        }
+
+        private int indexOf(String name) {
+            if (name.startsWith("$")) {
+                return Integer.parseInt(name.substring(1)) - 1;
+            }
+            throw new IllegalArgumentException("Only the $1 bind markers can be bound by name, not " + name);
+        }
+
+        @Override
+        public Statement returnGeneratedValues(String... columns) {
+            this.generatedColumns = columns;
+            return this;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            List<Object[]> all = new ArrayList<>(bindings);
+            if (all.isEmpty() || current.length == 0 || Arrays.stream(current).anyMatch(value -> value != null)) {
+                all.add(current);
+            }
+            return Flux.fromIterable(all).concatMap(values -> blocking(() -> execute(values)));
+        }
+
+        private Result execute(Object[] values) throws SQLException {
+            try (PreparedStatement statement = prepare()) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    setParameter(statement, i + 1, values[parameters.get(i)]);
+                }
+                if (statement.execute()) {
+                    try (ResultSet resultSet = statement.getResultSet()) {
+                        return JdbcResult.read(resultSet, -1);
+                    }
+                }
+                int updateCount = statement.getUpdateCount();
+                if (generatedColumns != null) {
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        return JdbcResult.read(keys, updateCount);
+                    }
+                }
+                return new JdbcResult(updateCount, new RowColumns(new String[0]), new ArrayList<>());
+            }
+        }
+
+        private PreparedStatement prepare() throws SQLException {
+            if (generatedColumns == null) {
+                return connection.prepareStatement(sql);
+            }
+            if (generatedColumns.length == 0) {
+                return connection.prepareStatement(sql, java.sql.Statement.RETURN_GENERATED_KEYS);
+            }
+            return connection.prepareStatement(sql, generatedColumns);
+        }
+    }
+
+    private final class JdbcBatch implements Batch {
+
+        private final java.sql.Connection connection;
+
+        private final List<String> statements = new ArrayList<>();
+
+        private JdbcBatch(java.sql.Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Batch add(String sql) {
+            statements.add(sql);
+            return this;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            return blocking(() -> {
+                try (java.sql.Statement statement = connection.createStatement()) {
+                    for (String sql : statements) {
+                        statement.addBatch(sql);
+                    }
+                    List<Result> results = new ArrayList<>();
+                    for (int updateCount : statement.executeBatch()) {
+                        results.add(new JdbcResult(updateCount, new RowColumns(new String[0]), new ArrayList<>()));
+                    }
+                    return results;
+                }
+            }).flatMapMany(Flux::fromIterable);
+        }
+    }
+
+    private static void setParameter(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (value instanceof NullValue) {
+            statement.setNull(index, ((NullValue) value).sqlType());
+        } else if (value instanceof Instant) {
+            statement.setTimestamp(index, Timestamp.from((Instant) value));
+        } else if (value instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            statement.setBytes(index, bytes);
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    private static final class NullValue {
+
+        private final Class<?> type;
+
+        private NullValue(Class<?> type) {
+            this.type = type;
+        }
+
+        private int sqlType() {
+            if (type == String.class) {
+                return Types.VARCHAR;
+            }
+            if (type == Long.class) {
+                return Types.BIGINT;
+            }
+            if (type == Integer.class) {
+                return Types.INTEGER;
+            }
+            if (type == Boolean.class) {
+                return Types.BOOLEAN;
+            }
+            if (type == Instant.class || type == LocalDateTime.class) {
+                return Types.TIMESTAMP;
+            }
+            if (type == OffsetDateTime.class) {
+                return Types.TIMESTAMP_WITH_TIMEZONE;
+            }
+            return Types.NULL;
+        }
+    }
+
+    /**
+     * Rows of a statement, read before they are emitted, with the JDBC types mapped to the types of the R2DBC drivers.
+     */
+    private static final class JdbcResult implements Result {
+
+        private final int updateCount;
+
+        private final RowColumns columns;
+
+        private final List<Object[]> rows;
+
+        private JdbcResult(int updateCount, RowColumns columns, List<Object[]> rows) {
+            this.updateCount = updateCount;
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        private static JdbcResult read(ResultSet resultSet, int updateCount) throws SQLException {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            String[] names = new String[metaData.getColumnCount()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = metaData.getColumnLabel(i + 1);
+            }
+            List<Object[]> rows = new ArrayList<>();
+            while (resultSet.next()) {
+                Object[] row = new Object[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    row[i] = readValue(resultSet, i + 1, metaData.getColumnType(i + 1));
+                }
+                rows.add(row);
+            }
+            return new JdbcResult(updateCount, new RowColumns(names), rows);
+        }
+
+        private static Object readValue(ResultSet resultSet, int index, int sqlType) throws SQLException {
+            Object value;
+            switch (sqlType) {
+                case Types.TIMESTAMP:
+                    value = resultSet.getObject(index, LocalDateTime.class);
+                    break;
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    value = resultSet.getObject(index, OffsetDateTime.class);
+                    break;
+                case Types.DATE:
+                    value = resultSet.getObject(index, LocalDate.class);
+                    break;
+                case Types.TIME:
+                    value = resultSet.getObject(index, LocalTime.class);
+                    break;
+                case Types.CLOB:
+                case Types.NCLOB:
+                    value = resultSet.getString(index);
+                    break;
+                case Types.BLOB:
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                    byte[] bytes = resultSet.getBytes(index);
+                    value = bytes != null ? ByteBuffer.wrap(bytes) : null;
+                    break;
+                default:
+                    value = resultSet.getObject(index);
+            }
+            return resultSet.wasNull() ? null : value;
+        }
+
+        @Override
+        public Publisher<Integer> getRowsUpdated() {
+            return updateCount >= 0 ? Mono.just(updateCount) : Mono.empty();
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return Flux.fromIterable(rows).map(values -> mappingFunction.apply(new JdbcRow(columns, values), columns));
+        }
+    }
+
+    private static final class RowColumns implements RowMetadata {
+
+        private final String[] names;
+
+        private RowColumns(String[] names) {
+            this.names = names;
+        }
+
+        private int indexOf(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("No column " + name + " in " + Arrays.toString(names));
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            String name = names[index];
+            return () -> name;
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return getColumnMetadata(indexOf(name));
+        }
+
+        @Override
+        public Iterable<? extends ColumnMetadata> getColumnMetadatas() {
+            List<ColumnMetadata> columns = new ArrayList<>();
+            for (int i = 0; i < names.length; i++) {
+                columns.add(getColumnMetadata(i));
+            }
+            return columns;
+        }
+
+        @Override
+        public Collection<String> getColumnNames() {
+            return Arrays.asList(names);
+        }
+    }
+
+    private static final class JdbcRow implements Row {
+
+        private final RowColumns columns;
+
+        private final Object[] values;
+
+        private JdbcRow(RowColumns columns, Object[] values) {
+            this.columns = columns;
+            this.values = values;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return convert(values[index], type);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return get(columns.indexOf(name), type);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T convert(Object value, Class<T> type) {
+            if (value == null || type == Object.class || type.isInstance(value)) {
+                return (T) value;
+            }
+            if (value instanceof Number) {
+                Number number = (Number) value;
+                if (type == Long.class) {
+                    return (T) Long.valueOf(number.longValue());
+                }
+                if (type == Integer.class) {
+                    return (T) Integer.valueOf(number.intValue());
+                }
+                if (type == Short.class) {
+                    return (T) Short.valueOf(number.shortValue());
+                }
+                if (type == Double.class) {
+                    return (T) Double.valueOf(number.doubleValue());
+                }
+                if (type == BigDecimal.class) {
+                    return (T) new BigDecimal(number.toString());
+                }
+                if (type == Boolean.class) {
+                    return (T) Boolean.valueOf(number.intValue() != 0);
+                }
+            }
+            throw new IllegalArgumentException("Cannot decode " + value.getClass().getName() + " as " + type.getName());
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * {@link ConnectionFactory} decorator recording the latency and the number of rows of every statement.
+ * <p>
+ * Statements are grouped by the logical query name found in the Reactor {@link Context} under
+ * {@link #QUERY_NAME_KEY}, and recorded in the {@code r2dbc.query} timer and the {@code r2dbc.query.rows}
+ * distribution summary. Statements slower than the configured threshold are logged with their SQL, and the names
+ * and types of their bind parameters: the bound values are never kept.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    /**
+     * Key of the logical query name in the Reactor {@link Context}.
+     */
+    public static final String QUERY_NAME_KEY = MeteredConnectionFactory.class.getName() + ".QUERY_NAME";
+
+    private static final String UNNAMED_QUERY = "unnamed";
+
+    private final Logger log = LoggerFactory.getLogger(MeteredConnectionFactory.class);
+
+    private final ConnectionFactory delegate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowQueryThresholdInNanos;
+
+    private final Map<String, QueryMeters> meters = new ConcurrentHashMap<>();
+
+    public MeteredConnectionFactory(ConnectionFactory delegate, MeterRegistry meterRegistry, Duration slowQueryThreshold) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.slowQueryThresholdInNanos = slowQueryThreshold.toNanos();
+    }
+
+    /**
+     * Name the queries executed by a publisher.
+     *
+     * @param queryName the logical query name, used as the {@code query} tag of the metrics.
+     * @return the context to apply with {@code subscriberContext}.
+     */
+    public static Context withQueryName(String queryName) {
+        return Context.of(QUERY_NAME_KEY, queryName);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.from(delegate.create()).map(MeteredConnection::new);
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable && ((Disposable) delegate).isDisposed();
+    }
+
+    private QueryMeters meters(String queryName) {
+        return meters.computeIfAbsent(queryName, name -> new QueryMeters(
+            Timer.builder("r2dbc.query")
+                .description("Execution time of the R2DBC statements")
+                .tag("query", name)
+                .register(meterRegistry),
+            DistributionSummary.builder("r2dbc.query.rows")
+                .description("Number of rows returned or updated by the R2DBC statements")
+                .baseUnit("rows")
+                .tag("query", name)
+                .register(meterRegistry)));
+    }
+
+    private static final class QueryMeters {
+
+        private final Timer timer;
+
+        private final DistributionSummary rows;
+
+        private QueryMeters(Timer timer, DistributionSummary rows) {
+            this.timer = timer;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Measures a single statement execution, from the subscription to the end of the consumption of the rows of all
+     * its results, as a batch or a statement returning generated values may have several.
+     */
+    private final class Execution {
+
+        private final String queryName;
+
+        private final MeteredStatement statement;
+
+        private final long start = System.nanoTime();
+
+        private final AtomicLong rows = new AtomicLong();
+
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        /**
+         * The results being consumed, plus one until the statement has emitted all its results.
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        private Execution(String queryName, MeteredStatement statement) {
+            this.queryName = queryName;
+            this.statement = statement;
+        }
+
+        private MeteredResult result(Result result) {
+            pending.incrementAndGet();
+            return new MeteredResult(result, this);
+        }
+
+        /**
+         * Stop once the statement has emitted all its results and they have all been consumed.
+         */
+        private void release() {
+            if (pending.decrementAndGet() == 0) {
+                stop();
+            }
+        }
+
+        private void stop() {
+            if (!stopped.compareAndSet(false, true)) {
+                return;
+            }
+            long duration = System.nanoTime() - start;
+            QueryMeters queryMeters = meters(queryName);
+            queryMeters.timer.record(duration, TimeUnit.NANOSECONDS);
+            queryMeters.rows.record(rows.get());
+            if (duration > slowQueryThresholdInNanos) {
+                log.warn("Slow query {} took {} ms: {} with bindings {}", queryName,
+                    TimeUnit.NANOSECONDS.toMillis(duration), statement.sql, statement.renderBindings());
+            }
+        }
+    }
+
+    private final class MeteredConnection implements Connection, Wrapped<Connection> {
+
+        private final Connection delegate;
+
+        private MeteredConnection(Connection delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return delegate.beginTransaction();
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return delegate.close();
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return delegate.commitTransaction();
+        }
+
+        @Override
+        public Batch createBatch() {
+            return delegate.createBatch();
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return delegate.createSavepoint(name);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new MeteredStatement(delegate.createStatement(sql), sql);
+        }
+
+        @Override
+        public boolean isAutoCommit() {
+            return delegate.isAutoCommit();
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            return delegate.getTransactionIsolationLevel();
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return delegate.releaseSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return delegate.rollbackTransaction();
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return delegate.rollbackTransactionToSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return delegate.setAutoCommit(autoCommit);
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            return delegate.setTransactionIsolationLevel(isolationLevel);
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            return delegate.validate(depth);
+        }
+
+        @Override
+        public Connection unwrap() {
+            return delegate;
+        }
+    }
+
+    private final class MeteredStatement implements Statement, Wrapped<Statement> {
+
+        private final Statement delegate;
+
+        private final String sql;
+
+        /**
+         * Names (or indexes) and types of the bind parameters, the values are deliberately not kept.
+         */
+        private final List<Object> bindings = new ArrayList<>();
+
+        private MeteredStatement(Statement delegate, String sql) {
+            this.delegate = delegate;
+            this.sql = sql;
+        }
+
+        @Override
+        public Statement add() {
+            delegate.add();
+            bindings.add(null);
+            bindings.add(null);
+            return this;
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            delegate.bind(index, value);
+            bindings.add(index);
+            bindings.add(value.getClass());
+            return this;
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            delegate.bind(name, value);
+            bindings.add(name);
+            bindings.add(value.getClass());
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            delegate.bindNull(index, type);
+            bindings.add(index);
+            bindings.add(null);
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            delegate.bindNull(name, type);
+            bindings.add(name);
+            bindings.add(null);
+            return this;
+        }
+
+        @Override
+        public Statement returnGeneratedValues(String... columns) {
+            delegate.returnGeneratedValues(columns);
+            return this;
+        }
+
+        @Override
+        public Statement fetchSize(int rows) {
+            delegate.fetchSize(rows);
+            return this;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            return Mono.subscriberContext().flatMapMany(context -> {
+                Execution execution = new Execution(context.getOrDefault(QUERY_NAME_KEY, UNNAMED_QUERY), this);
+                return Flux.from(delegate.execute())
+                    .map(execution::result)
+                    .doOnComplete(execution::release)
+                    .doOnError(e -> execution.stop())
+                    .doOnCancel(execution::stop);
+            });
+        }
+
+        @Override
+        public Statement unwrap() {
+            return delegate;
+        }
+
+        private String renderBindings() {
+            StringBuilder builder = new StringBuilder("[");
+            for (int i = 0; i < bindings.size(); i += 2) {
+                Object key = bindings.get(i);
+                if (key == null) {
+                    builder.append("] [");
+                    continue;
+                }
+                Object type = bindings.get(i + 1);
+                if (builder.charAt(builder.length() - 1) != '[') {
+                    builder.append(", ");
+                }
+                builder.append(key instanceof Integer ? "$" + ((Integer) key + 1) : key)
+                    .append('=')
+                    .append(type == null ? "null" : "<" + ((Class<?>) type).getSimpleName() + ">");
+            }
+            return builder.append(']').toString();
+        }
+    }
+
+    private static final class MeteredResult implements Result {
+
+        private final Result delegate;
+
+        private final Execution execution;
+
+        private final AtomicBoolean consumed = new AtomicBoolean();
+
+        private MeteredResult(Result delegate, Execution execution) {
+            this.delegate = delegate;
+            this.execution = execution;
+        }
+
+        @Override
+        public Publisher<Integer> getRowsUpdated() {
+            return Flux.from(delegate.getRowsUpdated())
+                .doOnNext(count -> execution.rows.addAndGet(count))
+                .doFinally(this::consumed);
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return Flux.<T>from(delegate.map(mappingFunction))
+                .doOnNext(row -> execution.rows.incrementAndGet())
+                .doFinally(this::consumed);
+        }
+
+        private void consumed(SignalType signal) {
+            if (signal != SignalType.ON_COMPLETE) {
+                execution.stop();
+            } else if (consumed.compareAndSet(false, true)) {
+                execution.release();
+            }
+        }
+    }
+}
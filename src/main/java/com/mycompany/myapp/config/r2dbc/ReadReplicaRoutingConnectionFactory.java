@@ -0,0 +1,204 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link ConnectionFactory} sending the read-only transactions to read replicas, and everything else to the primary.
+ * <p>
+ * The {@link ReadReplicaTransactionManager} flags the connections of the read-only transactions in the Reactor
+ * {@link Context}. They are created on the replicas in turn, skipping for the retry period a replica which failed to
+ * create a connection, and on the primary when no replica is available. After a session commits a write, its
+ * read-only transactions stay on the primary for the stickiness period, so that it reads its own writes whatever the
+ * replication lag.
+ */
+public class ReadReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    /**
+     * Key of the read-only flag of the transaction being started, in the Reactor {@link Context}.
+     */
+    public static final String READ_ONLY_KEY = ReadReplicaRoutingConnectionFactory.class.getName() + ".READ_ONLY";
+
+    /**
+     * Number of sessions above which the expired write times are purged.
+     */
+    private static final int MAX_STICKY_SESSIONS = 10000;
+
+    private final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingConnectionFactory.class);
+
+    private final ConnectionFactory primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final long stickinessInMillis;
+
+    private final long retryPeriodInMillis;
+
+    private final Function<Context, Optional<String>> sessionKey;
+
+    private final LongSupplier currentTimeMillis;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Time of the last write of each session.
+     */
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * @param primary the primary database.
+     * @param replicas the read replicas.
+     * @param stickiness the time after a write during which the session reads from the primary.
+     * @param retryPeriod the time during which a failed replica is skipped.
+     * @param sessionKey the session of a Reactor context, usually the login of the current user.
+     */
+    public ReadReplicaRoutingConnectionFactory(ConnectionFactory primary, List<? extends ConnectionFactory> replicas,
+                                               Duration stickiness, Duration retryPeriod,
+                                               Function<Context, Optional<String>> sessionKey) {
+        this(primary, replicas, stickiness, retryPeriod, sessionKey, System::currentTimeMillis);
+    }
+
+    ReadReplicaRoutingConnectionFactory(ConnectionFactory primary, List<? extends ConnectionFactory> replicas,
+                                        Duration stickiness, Duration retryPeriod,
+                                        Function<Context, Optional<String>> sessionKey, LongSupplier currentTimeMillis) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica(i, replicas.get(i)));
+        }
+        this.stickinessInMillis = stickiness.toMillis();
+        this.retryPeriodInMillis = retryPeriod.toMillis();
+        this.sessionKey = sessionKey;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Flag the connection of a transaction.
+     *
+     * @param readOnly whether the transaction is read-only.
+     * @return the context to apply with {@code subscriberContext} to the creation of the connection.
+     */
+    public static Context withReadOnly(boolean readOnly) {
+        return Context.of(READ_ONLY_KEY, readOnly);
+    }
+
+    /**
+     * Find the routing factory behind decorators.
+     *
+     * @param connectionFactory a connection factory, possibly {@link Wrapped}.
+     * @return the routing factory, or {@code null} if the connections are not routed.
+     */
+    public static ReadReplicaRoutingConnectionFactory find(ConnectionFactory connectionFactory) {
+        Object factory = connectionFactory;
+        while (!(factory instanceof ReadReplicaRoutingConnectionFactory) && factory instanceof Wrapped) {
+            factory = ((Wrapped<?>) factory).unwrap();
+        }
+        return factory instanceof ReadReplicaRoutingConnectionFactory ? (ReadReplicaRoutingConnectionFactory) factory : null;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.subscriberContext().flatMap(context -> {
+            if (!context.getOrDefault(READ_ONLY_KEY, false) || isSticky(context) || replicas.isEmpty()) {
+                return Mono.<Connection>from(primary.create());
+            }
+            return createOnReplica(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()), 0);
+        });
+    }
+
+    private Mono<Connection> createOnReplica(int first, int attempt) {
+        if (attempt == replicas.size()) {
+            return Mono.from(primary.create());
+        }
+        Replica replica = replicas.get((first + attempt) % replicas.size());
+        if (replica.unavailableUntil > currentTimeMillis.getAsLong()) {
+            return createOnReplica(first, attempt + 1);
+        }
+        return Mono.<Connection>from(replica.connectionFactory.create())
+            .onErrorResume(e -> {
+                log.warn("Read replica {} is unavailable for {} ms: {}", replica.index, retryPeriodInMillis, e.toString());
+                replica.unavailableUntil = currentTimeMillis.getAsLong() + retryPeriodInMillis;
+                return createOnReplica(first, attempt + 1);
+            });
+    }
+
+    private boolean isSticky(Context context) {
+        return sessionKey.apply(context)
+            .map(lastWrites::get)
+            .filter(lastWrite -> lastWrite + stickinessInMillis > currentTimeMillis.getAsLong())
+            .isPresent();
+    }
+
+    /**
+     * Record that the session of a context committed a write, so that it reads from the primary for a while.
+     *
+     * @param context the Reactor context of the write.
+     */
+    public void recordWrite(Context context) {
+        sessionKey.apply(context).ifPresent(session -> {
+            long now = currentTimeMillis.getAsLong();
+            if (lastWrites.size() >= MAX_STICKY_SESSIONS) {
+                lastWrites.values().removeIf(lastWrite -> lastWrite + stickinessInMillis <= now);
+            }
+            lastWrites.put(session, now);
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public void dispose() {
+        for (Replica replica : replicas) {
+            if (replica.connectionFactory instanceof Disposable) {
+                ((Disposable) replica.connectionFactory).dispose();
+            }
+        }
+        if (primary instanceof Disposable) {
+            ((Disposable) primary).dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return primary instanceof Disposable && ((Disposable) primary).isDisposed();
+    }
+
+    private static final class Replica {
+
+        private final int index;
+
+        private final ConnectionFactory connectionFactory;
+
+        private volatile long unavailableUntil;
+
+        private Replica(int index, ConnectionFactory connectionFactory) {
+            this.index = index;
+            this.connectionFactory = connectionFactory;
+        }
+    }
+}
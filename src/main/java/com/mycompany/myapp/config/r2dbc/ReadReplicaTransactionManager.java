@@ -0,0 +1,43 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.data.r2dbc.connectionfactory.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link R2dbcTransactionManager} telling a {@link ReadReplicaRoutingConnectionFactory} which transactions are
+ * read-only, and which sessions committed a write.
+ * <p>
+ * The read-only flag of a transaction is only known to the transaction manager when the connection is created, so it
+ * is passed in the Reactor context of the creation. Without a routing factory, it is a plain
+ * {@link R2dbcTransactionManager}.
+ */
+public class ReadReplicaTransactionManager extends R2dbcTransactionManager {
+
+    private final ReadReplicaRoutingConnectionFactory router;
+
+    public ReadReplicaTransactionManager(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+        this.router = ReadReplicaRoutingConnectionFactory.find(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+                                 TransactionDefinition definition) {
+        return super.doBegin(synchronizationManager, transaction, definition)
+            .subscriberContext(ReadReplicaRoutingConnectionFactory.withReadOnly(definition.isReadOnly()));
+    }
+
+    @Override
+    protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                  GenericReactiveTransaction status) {
+        Mono<Void> commit = super.doCommit(synchronizationManager, status);
+        if (router == null || status.isReadOnly()) {
+            return commit;
+        }
+        return commit.then(Mono.subscriberContext().doOnNext(router::recordWrite).then());
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * R2DBC connection factory decorators and routing.
+ */
+package com.mycompany.myapp.config.r2dbc;
@@ -0,0 +1,124 @@
+package com.mycompany.myapp.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A refresh token, and the session of the access tokens issued with it.
+ * <p>
+ * Only a hash of the token is stored. The id is the session id carried by the access tokens, so revoking the refresh
+ * token also revokes them.
+ */
+@Table("jhi_refresh_token")
+public class RefreshToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Size(min = 64, max = 64)
+    @Column("token_hash")
+    private String tokenHash;
+
+    @NotNull
+    @Size(min = 1, max = 50)
+    @Column("login")
+    private String login;
+
+    @NotNull
+    @Column("created_date")
+    private Instant createdDate;
+
+    @NotNull
+    @Column("expiry_date")
+    private Instant expiryDate;
+
+    @Column("revoked_date")
+    private Instant revokedDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(Instant expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public Instant getRevokedDate() {
+        return revokedDate;
+    }
+
+    public void setRevokedDate(Instant revokedDate) {
+        this.revokedDate = revokedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RefreshToken)) {
+            return false;
+        }
+        return id != null && id.equals(((RefreshToken) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+            "id=" + id +
+            ", login='" + login + '\'' +
+            ", createdDate=" + createdDate +
+            ", expiryDate=" + expiryDate +
+            ", revokedDate=" + revokedDate +
+            '}';
+    }
+}
@@ -82,6 +82,9 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @Column("reset_date")
     private Instant resetDate = null;
 
+    @Column("version")
+    private Long version = 0L;
+
     @JsonIgnore
     @Transient
     private Set<Authority> authorities = new HashSet<>();
@@ -175,6 +178,14 @@ public class User extends AbstractAuditingEntity implements Serializable {
         this.resetDate = resetDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getLangKey() {
         return langKey;
     }
@@ -1,6 +1,8 @@
 package com.mycompany.myapp.repository;
 
+import com.mycompany.myapp.config.AuditDatabaseConfiguration;
 import com.mycompany.myapp.domain.PersistentAuditEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.DatabaseClient;
 import org.springframework.data.r2dbc.query.Criteria;
@@ -12,6 +14,7 @@ import reactor.core.publisher.Mono;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.Map;
 
 /**
  * Spring Data JPA repository for the {@link PersistentAuditEvent} entity.
@@ -31,13 +34,18 @@ interface PersistenceAuditEventRepositoryInternal {
     Flux<PersistentAuditEvent> findAllBy(Pageable pageable);
 
     Mono<Long> countByAuditEventDateBetween(Instant fromDate, Instant toDate);
+
+    /**
+     * Save the data of a saved audit event, which is not mapped by the entity.
+     */
+    Mono<Void> saveData(Long eventId, Map<String, String> data);
 }
 
 class PersistenceAuditEventRepositoryInternalImpl implements PersistenceAuditEventRepositoryInternal {
 
     private final DatabaseClient databaseClient;
 
-    public PersistenceAuditEventRepositoryInternalImpl(DatabaseClient databaseClient) {
+    public PersistenceAuditEventRepositoryInternalImpl(@Qualifier(AuditDatabaseConfiguration.AUDIT_DATABASE_CLIENT) DatabaseClient databaseClient) {
         this.databaseClient = databaseClient;
     }
 
@@ -83,6 +91,17 @@ class PersistenceAuditEventRepositoryInternalImpl implements PersistenceAuditEve
             .one();
     }
 
+    @Override
+    public Mono<Void> saveData(Long eventId, Map<String, String> data) {
+        return Flux.fromIterable(data.entrySet())
+            .concatMap(entry -> databaseClient.insert().into("jhi_persistent_audit_evt_data")
+                .value("event_id", eventId)
+                .value("name", entry.getKey())
+                .value("value", entry.getValue())
+                .then())
+            .then();
+    }
+
     private Flux<PersistentAuditEvent> findAllByCriteria(Criteria criteria) {
         return findAllFromSpec(select().matching(criteria));
     }
@@ -0,0 +1,37 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.RefreshToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Spring Data JPA repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends R2dbcRepository<RefreshToken, Long> {
+
+    @Query("SELECT * FROM jhi_refresh_token WHERE token_hash = :tokenHash")
+    Mono<RefreshToken> findOneByTokenHash(String tokenHash);
+
+    @Query("SELECT * FROM jhi_refresh_token WHERE revoked_date >= :since")
+    Flux<RefreshToken> findAllByRevokedDateSince(OffsetDateTime since);
+
+    @Modifying
+    @Query("UPDATE jhi_refresh_token SET token_hash = :newTokenHash " +
+        "WHERE id = :id AND token_hash = :tokenHash AND revoked_date IS NULL")
+    Mono<Integer> rotate(Long id, String tokenHash, String newTokenHash);
+
+    @Modifying
+    @Query("UPDATE jhi_refresh_token SET revoked_date = :revokedDate WHERE login = :login AND revoked_date IS NULL")
+    Mono<Integer> revokeAllByLogin(String login, OffsetDateTime revokedDate);
+
+    @Modifying
+    @Query("DELETE FROM jhi_refresh_token WHERE expiry_date < :dateTime")
+    Mono<Integer> deleteAllByExpiryDateBefore(OffsetDateTime dateTime);
+}
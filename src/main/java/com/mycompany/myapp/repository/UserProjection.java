@@ -0,0 +1,118 @@
+package com.mycompany.myapp.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Immutable projection of users: the columns of {@code jhi_user} a query reads.
+ * <p>
+ * The properties of the users which are not projected are left to their initial value, so a projected user is only
+ * fit for the properties it was read with, and must never be saved.
+ */
+public final class UserProjection {
+
+    private static final List<String> ENTITY_COLUMNS = Collections.unmodifiableList(Arrays.asList("id", "login",
+        "password_hash", "first_name", "last_name", "email", "activated", "lang_key", "image_url", "activation_key",
+        "reset_key", "reset_date", "version", "created_by", "created_date", "last_modified_by", "last_modified_date"));
+
+    private static final Map<String, String> PROFILE_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        PROFILE_COLUMNS.put("id", "id");
+        PROFILE_COLUMNS.put("login", "login");
+        PROFILE_COLUMNS.put("firstName", "first_name");
+        PROFILE_COLUMNS.put("lastName", "last_name");
+        PROFILE_COLUMNS.put("email", "email");
+        PROFILE_COLUMNS.put("imageUrl", "image_url");
+        PROFILE_COLUMNS.put("activated", "activated");
+        PROFILE_COLUMNS.put("langKey", "lang_key");
+        PROFILE_COLUMNS.put("createdBy", "created_by");
+        PROFILE_COLUMNS.put("createdDate", "created_date");
+        PROFILE_COLUMNS.put("lastModifiedBy", "last_modified_by");
+        PROFILE_COLUMNS.put("lastModifiedDate", "last_modified_date");
+        PROFILE_COLUMNS.put("version", "version");
+    }
+
+    private static final UserProjection ENTITY = new UserProjection(ENTITY_COLUMNS);
+
+    private static final UserProjection PROFILE = new UserProjection(new ArrayList<>(PROFILE_COLUMNS.values()));
+
+    private final List<String> columns;
+
+    private UserProjection(List<String> columns) {
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Project all the columns, as the entity is saved.
+     *
+     * @return the projection.
+     */
+    public static UserProjection entity() {
+        return ENTITY;
+    }
+
+    /**
+     * Project the profile of the users, which is what the {@code UserDTO} shows of them: all the columns but the
+     * password hash and the activation and reset keys.
+     *
+     * @return the projection.
+     */
+    public static UserProjection profile() {
+        return PROFILE;
+    }
+
+    /**
+     * Project some properties of the profile.
+     *
+     * @param properties the properties, such as {@code login} or {@code lastModifiedDate}.
+     * @return the projection.
+     * @throws IllegalArgumentException if a property is not a property of the profile.
+     */
+    public static UserProjection profile(Collection<String> properties) {
+        List<String> columns = new ArrayList<>();
+        for (String property : properties) {
+            String column = PROFILE_COLUMNS.get(property);
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown user property " + property + ", the properties are " +
+                    PROFILE_COLUMNS.keySet());
+            }
+            if (!columns.contains(column)) {
+                columns.add(column);
+            }
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("A projection needs at least one property");
+        }
+        return new UserProjection(columns);
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * The projected columns, for a {@code SELECT} clause.
+     *
+     * @param alias the alias of {@code jhi_user} in the query, or {@code null}.
+     * @return the comma-separated columns.
+     */
+    String toSql(String alias) {
+        StringJoiner sql = new StringJoiner(", ");
+        for (String column : columns) {
+            sql.add(alias == null ? column : alias + "." + column);
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "UserProjection" + columns;
+    }
+}
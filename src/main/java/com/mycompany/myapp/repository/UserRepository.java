@@ -2,9 +2,17 @@ package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.core.DatabaseClient;
 import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.SettableValue;
 import org.springframework.data.r2dbc.query.Criteria;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -14,7 +22,15 @@ import reactor.core.publisher.Mono;
 import reactor.util.function.Tuples;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -37,6 +53,16 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
     @Query("SELECT * FROM jhi_user WHERE login = :login")
     Mono<User> findOneByLogin(String login);
 
+    /**
+     * Find the users with a login or an email, in one query on the unique indexes.
+     *
+     * @param login the lowercase login.
+     * @param email the lowercase email.
+     * @return the users, at most two.
+     */
+    @Query("SELECT * FROM jhi_user WHERE login = :login OR email = :email")
+    Flux<User> findAllByLoginOrEmail(String login, String email);
+
     @Query("SELECT COUNT(DISTINCT id) FROM jhi_user WHERE login != :anonymousUser")
     Mono<Long> countAllByLoginNot(String anonymousUser);
 
@@ -53,43 +79,137 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
 interface UserRepositoryInternal {
     Mono<User> findOneWithAuthoritiesByLogin(String login);
 
+    /**
+     * Find a user with its authorities, reading only some of its columns.
+     *
+     * @param login the login of the user.
+     * @param projection the columns to read.
+     * @return the user, with only the projected properties.
+     */
+    Mono<User> findOneWithAuthoritiesByLogin(String login, UserProjection projection);
+
     Mono<User> findOneWithAuthoritiesById(Long id);
 
     Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
+    /**
+     * Find a page of users, except one.
+     *
+     * @return the users, with only the properties of their {@link UserProjection#profile()} and without their
+     * authorities.
+     */
     Flux<User> findAllByLoginNot(Pageable pageable, String login);
 
+    /**
+     * Find a page of the selected users.
+     *
+     * @param selection the selection, usually a filter.
+     * @param pageable the page, sorted by the columns of {@code jhi_user}. The unknown sort properties are ignored.
+     * @param projection the columns to read.
+     * @return the users, with only the projected properties and without their authorities.
+     */
+    Flux<User> findAllBy(UserSelection selection, Pageable pageable, UserProjection projection);
+
+    Mono<Long> countAllBy(UserSelection selection);
+
+    /**
+     * Apply changes to a user read with all its columns, and update only the columns they changed.
+     * <p>
+     * Nothing is written when the changes leave the columns as they were. The authorities are not written. The update
+     * increments the version of the user, and only succeeds if the user still has the version it was read with.
+     *
+     * @param user the user, with its id and version.
+     * @param changes the changes to the user.
+     * @return the changed user, with its new version, or an {@link OptimisticLockingFailureException} if the user was
+     * updated or deleted since it was read.
+     */
+    Mono<User> update(User user, Consumer<? super User> changes);
+
+    /**
+     * Activate or deactivate the selected users, in one statement, incrementing their version.
+     *
+     * @return the number of users whose state changed.
+     */
+    Mono<Integer> updateActivatedBy(UserSelection selection, boolean activated, String lastModifiedBy,
+                                    OffsetDateTime lastModifiedDate);
+
+    /**
+     * Grant an authority to the selected users which do not have it yet, in one statement.
+     *
+     * @return the number of users granted the authority.
+     */
+    Mono<Integer> addAuthorityBy(UserSelection selection, String authority);
+
+    /**
+     * Revoke the refresh tokens of the selected users, in one statement.
+     *
+     * @return the number of revoked refresh tokens.
+     */
+    Mono<Integer> revokeRefreshTokensBy(UserSelection selection, OffsetDateTime revokedDate);
+
+    /**
+     * Delete the selected users, in one statement. The foreign key of {@code jhi_user_authority} deletes their
+     * authorities with them.
+     *
+     * @return the number of deleted users.
+     */
+    Mono<Integer> deleteAllBy(UserSelection selection);
 }
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
     private final DatabaseClient db;
     private final ReactiveDataAccessStrategy dataAccessStrategy;
+    private final R2dbcDialect dialect;
+
+    private static final Map<String, String> SORTABLE_COLUMNS = new HashMap<>();
+
+    static {
+        SORTABLE_COLUMNS.put("id", "id");
+        SORTABLE_COLUMNS.put("login", "login");
+        SORTABLE_COLUMNS.put("firstName", "first_name");
+        SORTABLE_COLUMNS.put("lastName", "last_name");
+        SORTABLE_COLUMNS.put("email", "email");
+        SORTABLE_COLUMNS.put("activated", "activated");
+        SORTABLE_COLUMNS.put("langKey", "lang_key");
+        SORTABLE_COLUMNS.put("createdBy", "created_by");
+        SORTABLE_COLUMNS.put("createdDate", "created_date");
+        SORTABLE_COLUMNS.put("lastModifiedBy", "last_modified_by");
+        SORTABLE_COLUMNS.put("lastModifiedDate", "last_modified_date");
+    }
 
-    public UserRepositoryInternalImpl(DatabaseClient db, ReactiveDataAccessStrategy dataAccessStrategy) {
+    public UserRepositoryInternalImpl(DatabaseClient db, ReactiveDataAccessStrategy dataAccessStrategy, R2dbcDialect dialect) {
         this.db = db;
         this.dataAccessStrategy = dataAccessStrategy;
+        this.dialect = dialect;
     }
 
     @Override
     public Mono<User> findOneWithAuthoritiesByLogin(String login) {
-        return findOneWithAuthoritiesBy("login", login);
+        return findOneWithAuthoritiesBy("login", login, UserProjection.entity());
+    }
+
+    @Override
+    public Mono<User> findOneWithAuthoritiesByLogin(String login, UserProjection projection) {
+        return findOneWithAuthoritiesBy("login", login, projection);
     }
 
     @Override
     public Mono<User> findOneWithAuthoritiesById(Long id) {
-        return findOneWithAuthoritiesBy("id", id);
+        return findOneWithAuthoritiesBy("id", id, UserProjection.entity());
     }
 
     @Override
     public Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email) {
-        return findOneWithAuthoritiesBy("email", email.toLowerCase());
+        return findOneWithAuthoritiesBy("email", email.toLowerCase(), UserProjection.entity());
     }
 
-    private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
-        return db.execute("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u." + fieldName + " = :" + fieldName)
+    private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue, UserProjection projection) {
+        BiFunction<Row, RowMetadata, User> userMapper = dataAccessStrategy.getRowMapper(User.class);
+        return db.execute("SELECT " + projection.toSql("u") + ", ua.authority_name " +
+            "FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u." + fieldName + " = :" + fieldName)
             .bind(fieldName, fieldValue)
             .map((row, metadata) ->
                 Tuples.of(
-                    dataAccessStrategy.getRowMapper(User.class).apply(row, metadata),
+                    userMapper.apply(row, metadata),
                     Optional.ofNullable(row.get("authority_name", String.class))
                 )
             )
@@ -115,10 +235,216 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
     @Override
     public Flux<User> findAllByLoginNot(Pageable pageable, String login) {
         return db.select().from(User.class)
+            .project(UserProjection.profile().getColumns().toArray(new String[0]))
             .matching(Criteria.where("login").not(login))
             .page(pageable)
             .as(User.class)
             .all();
     }
 
+    @Override
+    public Flux<User> findAllBy(UserSelection selection, Pageable pageable, UserProjection projection) {
+        Predicate where = where(selection);
+        String sql = "SELECT " + projection.toSql(null) + " FROM jhi_user WHERE " + where.sql + orderBy(pageable.getSort());
+        if (pageable.isPaged()) {
+            sql += " LIMIT " + pageable.getPageSize() + " OFFSET " + pageable.getOffset();
+        }
+        return where.bindTo(db.execute(sql))
+            .as(User.class)
+            .fetch()
+            .all();
+    }
+
+    @Override
+    public Mono<Long> countAllBy(UserSelection selection) {
+        Predicate where = where(selection);
+        return where.bindTo(db.execute("SELECT COUNT(*) FROM jhi_user WHERE " + where.sql))
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one();
+    }
+
+    /**
+     * Order by the sorted columns, then by id so that the pages do not overlap.
+     */
+    private static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ", " ORDER BY ", "");
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            String column = SORTABLE_COLUMNS.get(order.getProperty());
+            if (column != null) {
+                orderBy.add(column + (order.isAscending() ? " ASC" : " DESC"));
+                byId |= "id".equals(column);
+            }
+        }
+        if (!byId) {
+            orderBy.add("id ASC");
+        }
+        return orderBy.toString();
+    }
+
+    @Override
+    public Mono<User> update(User user, Consumer<? super User> changes) {
+        return Mono.defer(() -> {
+            Long version = user.getVersion();
+            OutboundRow before = dataAccessStrategy.getOutboundRow(user);
+            changes.accept(user);
+            Map<String, SettableValue> changed = new LinkedHashMap<>();
+            dataAccessStrategy.getOutboundRow(user).forEach((column, value) -> {
+                if (!column.equals("id") && !column.equals("version") && !value.equals(before.get(column))) {
+                    changed.put(column, value);
+                }
+            });
+            if (changed.isEmpty()) {
+                return Mono.just(user);
+            }
+            StringJoiner set = new StringJoiner(", ");
+            changed.keySet().forEach(column -> set.add(column + " = :" + column));
+            DatabaseClient.GenericExecuteSpec update = db.execute("UPDATE jhi_user SET " + set + ", version = version + 1 " +
+                "WHERE id = :id AND version = :version")
+                .bind("id", user.getId())
+                .bind("version", version);
+            for (Map.Entry<String, SettableValue> column : changed.entrySet()) {
+                SettableValue value = column.getValue();
+                update = value.hasValue() ? update.bind(column.getKey(), value.getValue()) :
+                    update.bindNull(column.getKey(), value.getType());
+            }
+            return update.fetch().rowsUpdated().flatMap(rowsUpdated -> {
+                if (rowsUpdated == 0) {
+                    return Mono.error(new OptimisticLockingFailureException("The user " + user.getId() +
+                        " was updated or deleted since its version " + version + " was read"));
+                }
+                user.setVersion(version + 1);
+                return Mono.just(user);
+            });
+        });
+    }
+
+    @Override
+    public Mono<Integer> updateActivatedBy(UserSelection selection, boolean activated, String lastModifiedBy,
+                                           OffsetDateTime lastModifiedDate) {
+        Predicate where = where(selection);
+        return where.bindTo(db.execute("UPDATE jhi_user " +
+            "SET activated = :activated, last_modified_by = :lastModifiedBy, last_modified_date = :lastModifiedDate, " +
+            "version = version + 1 " +
+            "WHERE activated = :previouslyActivated AND " + where.sql))
+            .bind("activated", activated)
+            .bind("lastModifiedBy", lastModifiedBy)
+            .bind("lastModifiedDate", lastModifiedDate)
+            .bind("previouslyActivated", !activated)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Integer> addAuthorityBy(UserSelection selection, String authority) {
+        Predicate where = where(selection);
+        return where.bindTo(db.execute("INSERT INTO jhi_user_authority (user_id, authority_name) " +
+            "SELECT id, :addedAuthority FROM jhi_user WHERE " + where.sql +
+            " AND id NOT IN " + subquery("SELECT user_id FROM jhi_user_authority WHERE authority_name = :existingAuthority")))
+            .bind("addedAuthority", authority)
+            .bind("existingAuthority", authority)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Integer> revokeRefreshTokensBy(UserSelection selection, OffsetDateTime revokedDate) {
+        Predicate where = where(selection);
+        return where.bindTo(db.execute("UPDATE jhi_refresh_token SET revoked_date = :revokedDate " +
+            "WHERE revoked_date IS NULL AND login IN (SELECT login FROM jhi_user WHERE " + where.sql + ")"))
+            .bind("revokedDate", revokedDate)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Integer> deleteAllBy(UserSelection selection) {
+        Predicate where = where(selection);
+        // The foreign key of jhi_user_authority deletes the authorities of the users with them
+        return where.bindTo(db.execute("DELETE FROM jhi_user WHERE " + where.sql))
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private Predicate where(UserSelection selection) {
+        Predicate predicate = new Predicate();
+        if (selection.getLogins() != null) {
+            predicate.and("login IN (:logins)", "logins", selection.getLogins());
+        }
+        if (selection.getActivated() != null) {
+            predicate.and("activated = :selectedActivated", "selectedActivated", selection.getActivated());
+        }
+        if (selection.getAuthority() != null) {
+            predicate.and("id IN " + subquery("SELECT user_id FROM jhi_user_authority WHERE authority_name = :selectedAuthority"),
+                "selectedAuthority", selection.getAuthority());
+        }
+        // No index can match a suffix, so the domain is matched on the rows left by the other conditions
+        if (selection.getEmailDomain() != null) {
+            predicate.and("LOWER(email) LIKE :emailPattern", "emailPattern", "%@" + escapeLike(selection.getEmailDomain()));
+        }
+        // The logins and emails are stored in lowercase, so the prefixes are matched with the unique indexes
+        if (selection.getLoginPrefix() != null) {
+            predicate.and("login LIKE :loginPrefix", "loginPrefix", startsWith(selection.getLoginPrefix()));
+        }
+        if (selection.getEmailPrefix() != null) {
+            predicate.and("email LIKE :emailPrefix", "emailPrefix", startsWith(selection.getEmailPrefix()));
+        }
+        if (selection.getCreatedFrom() != null) {
+            predicate.and("created_date >= :createdFrom", "createdFrom", selection.getCreatedFrom().atOffset(ZoneOffset.UTC));
+        }
+        if (selection.getCreatedTo() != null) {
+            predicate.and("created_date < :createdTo", "createdTo", selection.getCreatedTo().atOffset(ZoneOffset.UTC));
+        }
+        if (!selection.getExcludedLogins().isEmpty()) {
+            predicate.and("login NOT IN (:excludedLogins)", "excludedLogins", selection.getExcludedLogins());
+        }
+        return predicate;
+    }
+
+    /**
+     * Subquery on {@code jhi_user_authority}, which MySQL refuses in the statements modifying that table, including the
+     * deletes of users cascading to it, unless it is materialized in a derived table.
+     */
+    private String subquery(String select) {
+        if (dialect instanceof MySqlDialect) {
+            return "(SELECT * FROM (" + select + ") selected)";
+        }
+        return "(" + select + ")";
+    }
+
+    private static String startsWith(String prefix) {
+        return escapeLike(prefix) + "%";
+    }
+
+    /**
+     * Lowercase a value and escape the {@code LIKE} wildcards in it, so that it is matched literally.
+     */
+    private static String escapeLike(String value) {
+        return value.toLowerCase(Locale.ENGLISH)
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    }
+
+    /**
+     * SQL condition on the columns of {@code jhi_user}, with its named parameters.
+     */
+    private static final class Predicate {
+
+        private final Map<String, Object> bindings = new LinkedHashMap<>();
+
+        private String sql = "1 = 1";
+
+        private void and(String condition, String name, Object value) {
+            sql = bindings.isEmpty() ? condition : sql + " AND " + condition;
+            bindings.put(name, value);
+        }
+
+        private DatabaseClient.GenericExecuteSpec bindTo(DatabaseClient.GenericExecuteSpec spec) {
+            for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+                spec = spec.bind(binding.getKey(), binding.getValue());
+            }
+            return spec;
+        }
+    }
 }
@@ -0,0 +1,213 @@
+package com.mycompany.myapp.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Immutable selection of users: either a list of logins, or a filter.
+ * <p>
+ * It is turned into a single SQL predicate by the {@link UserRepository}, so that a bulk operation is one statement
+ * whatever the number of users, and a search is answered from the indexes of {@code jhi_user}, except for the email
+ * domain, a suffix which no index can match.
+ */
+public final class UserSelection {
+
+    private Set<String> logins;
+
+    private Boolean activated;
+
+    private String authority;
+
+    private String emailDomain;
+
+    private String loginPrefix;
+
+    private String emailPrefix;
+
+    private Instant createdFrom;
+
+    private Instant createdTo;
+
+    private Set<String> excludedLogins = Collections.emptySet();
+
+    private UserSelection() {
+    }
+
+    private UserSelection(UserSelection other) {
+        this.logins = other.logins;
+        this.activated = other.activated;
+        this.authority = other.authority;
+        this.emailDomain = other.emailDomain;
+        this.loginPrefix = other.loginPrefix;
+        this.emailPrefix = other.emailPrefix;
+        this.createdFrom = other.createdFrom;
+        this.createdTo = other.createdTo;
+        this.excludedLogins = other.excludedLogins;
+    }
+
+    /**
+     * Select all the users, to be narrowed by the {@code with} methods.
+     *
+     * @return the selection.
+     */
+    public static UserSelection all() {
+        return new UserSelection();
+    }
+
+    /**
+     * Select users by login.
+     *
+     * @param logins the lowercase logins.
+     * @return the selection.
+     */
+    public static UserSelection ofLogins(Collection<String> logins) {
+        UserSelection selection = new UserSelection();
+        selection.logins = Collections.unmodifiableSet(new LinkedHashSet<>(logins));
+        return selection;
+    }
+
+    /**
+     * Select users by filter. The criteria which are {@code null} are ignored.
+     *
+     * @param activated whether the users are activated.
+     * @param authority an authority of the users.
+     * @param emailDomain the domain of the email of the users, such as {@code sales.example.com}.
+     * @return the selection.
+     * @throws IllegalArgumentException if all the criteria are {@code null}, which would select every user.
+     */
+    public static UserSelection matching(Boolean activated, String authority, String emailDomain) {
+        if (activated == null && authority == null && emailDomain == null) {
+            throw new IllegalArgumentException("A user filter needs at least one criterion");
+        }
+        UserSelection selection = new UserSelection();
+        selection.activated = activated;
+        selection.authority = authority;
+        selection.emailDomain = emailDomain;
+        return selection;
+    }
+
+    /**
+     * @param activated whether the users are activated, or {@code null} for any.
+     * @return a new selection with this criterion.
+     */
+    public UserSelection withActivated(Boolean activated) {
+        UserSelection selection = new UserSelection(this);
+        selection.activated = activated;
+        return selection;
+    }
+
+    /**
+     * @param authority an authority of the users, or {@code null} for any.
+     * @return a new selection with this criterion.
+     */
+    public UserSelection withAuthority(String authority) {
+        UserSelection selection = new UserSelection(this);
+        selection.authority = authority;
+        return selection;
+    }
+
+    /**
+     * @param loginPrefix the beginning of the login of the users, or {@code null} for any.
+     * @return a new selection with this criterion.
+     */
+    public UserSelection withLoginPrefix(String loginPrefix) {
+        UserSelection selection = new UserSelection(this);
+        selection.loginPrefix = loginPrefix;
+        return selection;
+    }
+
+    /**
+     * @param emailPrefix the beginning of the email of the users, or {@code null} for any.
+     * @return a new selection with this criterion.
+     */
+    public UserSelection withEmailPrefix(String emailPrefix) {
+        UserSelection selection = new UserSelection(this);
+        selection.emailPrefix = emailPrefix;
+        return selection;
+    }
+
+    /**
+     * @param from the first instant of creation of the users, inclusive, or {@code null} for no lower bound.
+     * @param to the last instant of creation of the users, exclusive, or {@code null} for no upper bound.
+     * @return a new selection with this criterion.
+     */
+    public UserSelection withCreatedDate(Instant from, Instant to) {
+        UserSelection selection = new UserSelection(this);
+        selection.createdFrom = from;
+        selection.createdTo = to;
+        return selection;
+    }
+
+    /**
+     * Exclude users from the selection.
+     *
+     * @param excluded the lowercase logins of the excluded users.
+     * @return a new selection without these users.
+     */
+    public UserSelection excluding(String... excluded) {
+        Set<String> excludedLogins = new LinkedHashSet<>(this.excludedLogins);
+        Collections.addAll(excludedLogins, excluded);
+        UserSelection selection = new UserSelection(this);
+        selection.excludedLogins = Collections.unmodifiableSet(excludedLogins);
+        return selection;
+    }
+
+    /**
+     * @return the selected logins, or {@code null} if the users are selected by filter.
+     */
+    public Set<String> getLogins() {
+        return logins;
+    }
+
+    public Boolean getActivated() {
+        return activated;
+    }
+
+    public String getAuthority() {
+        return authority;
+    }
+
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+
+    public String getLoginPrefix() {
+        return loginPrefix;
+    }
+
+    public String getEmailPrefix() {
+        return emailPrefix;
+    }
+
+    public Instant getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public Instant getCreatedTo() {
+        return createdTo;
+    }
+
+    public Set<String> getExcludedLogins() {
+        return excludedLogins;
+    }
+
+    @Override
+    public String toString() {
+        if (logins != null) {
+            return "UserSelection{logins=" + logins.size() + ", excludedLogins=" + excludedLogins + "}";
+        }
+        return "UserSelection{" +
+            "activated=" + activated +
+            ", authority='" + authority + "'" +
+            ", emailDomain='" + emailDomain + "'" +
+            ", loginPrefix='" + loginPrefix + "'" +
+            ", emailPrefix='" + emailPrefix + "'" +
+            ", createdFrom=" + createdFrom +
+            ", createdTo=" + createdTo +
+            ", excludedLogins=" + excludedLogins +
+            "}";
+    }
+}
@@ -0,0 +1,53 @@
+package com.mycompany.myapp.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The principal of a request authenticated by a JWT, resolved once by the
+ * {@link com.mycompany.myapp.security.jwt.JWTFilter JWTFilter}.
+ * <p>
+ * It is both the principal of the {@link org.springframework.security.core.Authentication Authentication}, read by
+ * the {@code @PreAuthorize} checks, and an entry of the Reactor {@link reactor.util.context.Context Context}, read by
+ * {@link SecurityUtils}. The authority names are hashed once, so the role checks do not walk the authorities.
+ */
+public final class AuthenticatedUser extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> authorityNames;
+
+    public AuthenticatedUser(String login, Collection<? extends GrantedAuthority> authorities) {
+        super(login, "", authorities);
+        Set<String> names = new HashSet<>(authorities.size() * 2);
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        this.authorityNames = names;
+    }
+
+    public String getLogin() {
+        return getUsername();
+    }
+
+    /**
+     * Check if the user has an authority.
+     *
+     * @param authority the name of the authority.
+     * @return {@code true} if the user has the authority.
+     */
+    public boolean hasAuthority(String authority) {
+        return authorityNames.contains(authority);
+    }
+
+    /**
+     * @return {@code true} unless the user has the {@link AuthoritiesConstants#ANONYMOUS} authority.
+     */
+    public boolean isAuthenticated() {
+        return !authorityNames.contains(AuthoritiesConstants.ANONYMOUS);
+    }
+}
@@ -0,0 +1,150 @@
+package com.mycompany.myapp.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Evaluates the {@code @PreAuthorize} authority and role checks against the hashed authorities of an
+ * {@link AuthenticatedUser}, instead of a set of the authorities rebuilt for each invocation.
+ * <p>
+ * The other authentications, and the other expressions, are evaluated as usual.
+ */
+public class AuthenticatedUserExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    @Override
+    protected MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication,
+                                                                              MethodInvocation invocation) {
+        MethodSecurityExpressionOperations root = super.createSecurityExpressionRoot(authentication, invocation);
+        if (authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return new AuthenticatedUserExpressionRoot(root, (AuthenticatedUser) authentication.getPrincipal(),
+                getDefaultRolePrefix());
+        }
+        return root;
+    }
+
+    private static final class AuthenticatedUserExpressionRoot implements MethodSecurityExpressionOperations {
+
+        private final MethodSecurityExpressionOperations root;
+
+        private final AuthenticatedUser user;
+
+        private final String rolePrefix;
+
+        private AuthenticatedUserExpressionRoot(MethodSecurityExpressionOperations root, AuthenticatedUser user,
+                                                String rolePrefix) {
+            this.root = root;
+            this.user = user;
+            this.rolePrefix = rolePrefix;
+        }
+
+        @Override
+        public boolean hasAuthority(String authority) {
+            return user.hasAuthority(authority);
+        }
+
+        @Override
+        public boolean hasAnyAuthority(String... authorities) {
+            for (String authority : authorities) {
+                if (user.hasAuthority(authority)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasRole(String role) {
+            return user.hasAuthority(toAuthority(role));
+        }
+
+        @Override
+        public boolean hasAnyRole(String... roles) {
+            for (String role : roles) {
+                if (user.hasAuthority(toAuthority(role))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String toAuthority(String role) {
+            return rolePrefix == null || role.startsWith(rolePrefix) ? role : rolePrefix + role;
+        }
+
+        public Object getPrincipal() {
+            return user;
+        }
+
+        @Override
+        public Authentication getAuthentication() {
+            return root.getAuthentication();
+        }
+
+        @Override
+        public boolean permitAll() {
+            return root.permitAll();
+        }
+
+        @Override
+        public boolean denyAll() {
+            return root.denyAll();
+        }
+
+        @Override
+        public boolean isAnonymous() {
+            return root.isAnonymous();
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return root.isAuthenticated();
+        }
+
+        @Override
+        public boolean isRememberMe() {
+            return root.isRememberMe();
+        }
+
+        @Override
+        public boolean isFullyAuthenticated() {
+            return root.isFullyAuthenticated();
+        }
+
+        @Override
+        public boolean hasPermission(Object target, Object permission) {
+            return root.hasPermission(target, permission);
+        }
+
+        @Override
+        public boolean hasPermission(Object targetId, String targetType, Object permission) {
+            return root.hasPermission(targetId, targetType, permission);
+        }
+
+        @Override
+        public void setFilterObject(Object filterObject) {
+            root.setFilterObject(filterObject);
+        }
+
+        @Override
+        public Object getFilterObject() {
+            return root.getFilterObject();
+        }
+
+        @Override
+        public void setReturnObject(Object returnObject) {
+            root.setReturnObject(returnObject);
+        }
+
+        @Override
+        public Object getReturnObject() {
+            return root.getReturnObject();
+        }
+
+        @Override
+        public Object getThis() {
+            return root.getThis();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.mycompany.myapp.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of immutable, shared {@link GrantedAuthority} instances.
+ * <p>
+ * Users only have a handful of distinct authority combinations, so the authority lists are computed once per
+ * combination, keyed by their comma-separated form as found in the JWT claim, instead of on every request. Both caches
+ * are bounded: past their limit, authorities are still resolved but not cached.
+ */
+public final class GrantedAuthorities {
+
+    private static final int MAX_AUTHORITIES = 256;
+
+    private static final int MAX_COMBINATIONS = 1024;
+
+    private static final Map<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private static final Map<String, List<GrantedAuthority>> COMBINATIONS = new ConcurrentHashMap<>();
+
+    public static final GrantedAuthority ADMIN = of(AuthoritiesConstants.ADMIN);
+
+    public static final GrantedAuthority USER = of(AuthoritiesConstants.USER);
+
+    public static final GrantedAuthority ANONYMOUS = of(AuthoritiesConstants.ANONYMOUS);
+
+    private GrantedAuthorities() {
+    }
+
+    /**
+     * Get the shared instance of an authority.
+     *
+     * @param name the name of the authority.
+     * @return the authority.
+     */
+    public static GrantedAuthority of(String name) {
+        GrantedAuthority authority = AUTHORITIES.get(name);
+        if (authority != null) {
+            return authority;
+        }
+        authority = new SimpleGrantedAuthority(name);
+        if (AUTHORITIES.size() < MAX_AUTHORITIES) {
+            GrantedAuthority existing = AUTHORITIES.putIfAbsent(name, authority);
+            return existing != null ? existing : authority;
+        }
+        return authority;
+    }
+
+    /**
+     * Get the authorities of a comma-separated list of names, as stored in the JWT claim.
+     *
+     * @param claim the comma-separated authority names, empty names are ignored.
+     * @return an unmodifiable list of the authorities, in the order of the claim.
+     */
+    public static List<GrantedAuthority> fromClaim(String claim) {
+        List<GrantedAuthority> authorities = COMBINATIONS.get(claim);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = parse(claim);
+        if (COMBINATIONS.size() < MAX_COMBINATIONS) {
+            List<GrantedAuthority> existing = COMBINATIONS.putIfAbsent(claim, authorities);
+            return existing != null ? existing : authorities;
+        }
+        return authorities;
+    }
+
+    /**
+     * Get the authorities of a collection of names.
+     *
+     * @param names the authority names, in any order.
+     * @return an unmodifiable list of the authorities, sorted by name.
+     */
+    public static List<GrantedAuthority> fromNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (names.size() == 1) {
+            return fromClaim(names.iterator().next());
+        }
+        List<String> sorted = new ArrayList<>(names);
+        Collections.sort(sorted);
+        return fromClaim(String.join(",", sorted));
+    }
+
+    private static List<GrantedAuthority> parse(String claim) {
+        List<GrantedAuthority> authorities = new ArrayList<>(2);
+        int start = 0;
+        while (start <= claim.length()) {
+            int end = claim.indexOf(',', start);
+            if (end < 0) {
+                end = claim.length();
+            }
+            if (end > start) {
+                authorities.add(of(claim.substring(start, end)));
+            }
+            start = end + 1;
+        }
+        return Collections.unmodifiableList(authorities);
+    }
+}
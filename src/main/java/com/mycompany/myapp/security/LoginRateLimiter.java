@@ -0,0 +1,229 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.cluster.SharedState;
+import com.mycompany.myapp.config.ApplicationProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttles the authentication attempts with a token bucket per login and per client IP address.
+ * <p>
+ * Every attempt takes a token from both buckets, and is rejected if either is empty, before the password is checked
+ * or anything is written to the database. As the buckets are held by each node, the attempts allowed locally are also
+ * counted per login in the {@link SharedState}, to enforce a limit across all the nodes.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final String SHARED_COUNTER_PREFIX = "login-attempts:";
+
+    private final Logger log = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private final boolean enabled;
+
+    private final SharedState sharedState;
+
+    private final int sharedLoginLimit;
+
+    private final Duration sharedWindow;
+
+    private final TokenBuckets loginBuckets;
+
+    private final TokenBuckets ipBuckets;
+
+    @Autowired
+    public LoginRateLimiter(ApplicationProperties applicationProperties, SharedState sharedState) {
+        this(applicationProperties.getSecurity().getLoginRateLimit(), sharedState, System::nanoTime);
+    }
+
+    LoginRateLimiter(ApplicationProperties.Security.LoginRateLimit properties, SharedState sharedState, LongSupplier nanoClock) {
+        this.enabled = properties.isEnabled();
+        this.sharedState = sharedState;
+        this.sharedLoginLimit = properties.getSharedLoginLimit();
+        this.sharedWindow = properties.getSharedWindow();
+        this.loginBuckets = new TokenBuckets(properties.getMaxEntries(), properties.getLoginCapacity(),
+            properties.getLoginRefillPeriod(), nanoClock);
+        this.ipBuckets = new TokenBuckets(properties.getMaxEntries(), properties.getIpCapacity(),
+            properties.getIpRefillPeriod(), nanoClock);
+    }
+
+    /**
+     * Take a token for an authentication attempt.
+     * <p>
+     * Attempts rejected by the local buckets are answered without calling the {@link SharedState}. If the shared
+     * counter cannot be reached, the attempt is allowed.
+     *
+     * @param login the login of the attempt.
+     * @param address the client address, may be {@code null} if unknown.
+     * @return {@code true} if the attempt is allowed, {@code false} if it must be rejected.
+     */
+    public Mono<Boolean> tryAcquire(String login, InetAddress address) {
+        if (!enabled) {
+            return Mono.just(true);
+        }
+        String lowercaseLogin = login == null ? null : login.toLowerCase(Locale.ENGLISH);
+        boolean allowed = lowercaseLogin == null || loginBuckets.tryAcquire(loginBuckets.hash(lowercaseLogin));
+        if (address != null) {
+            allowed &= ipBuckets.tryAcquire(ipBuckets.hash(address.getAddress()));
+        }
+        if (!allowed || lowercaseLogin == null || sharedLoginLimit <= 0) {
+            return Mono.just(allowed);
+        }
+        return sharedState.increment(SHARED_COUNTER_PREFIX + lowercaseLogin, sharedWindow)
+            .map(attempts -> attempts <= sharedLoginLimit)
+            .onErrorResume(e -> {
+                log.warn("Could not count the login attempts of {} across the nodes: {}", lowercaseLogin, e.toString());
+                return Mono.just(true);
+            });
+    }
+
+    /**
+     * Get the time after which a rejected attempt can be retried.
+     *
+     * @return the time to regain a token in the slowest bucket.
+     */
+    public Duration getRetryAfter() {
+        return Duration.ofNanos(Math.max(loginBuckets.refillPeriodNanos, ipBuckets.refillPeriodNanos));
+    }
+
+    /**
+     * Fixed-size table of token buckets keyed by a 64-bit hash, split in independently locked stripes.
+     * <p>
+     * The memory used is allocated once. When the slots of a key are all taken, the fullest bucket is evicted:
+     * a full bucket behaves as a missing one, so evicting it loses nothing.
+     */
+    static final class TokenBuckets {
+
+        private static final int STRIPES = 64;
+
+        private static final int PROBES = 8;
+
+        private final long seed = ThreadLocalRandom.current().nextLong();
+
+        private final Object[] locks = new Object[STRIPES];
+
+        private final long[] keys;
+
+        private final double[] tokens;
+
+        private final long[] refilledAt;
+
+        private final int slotsPerStripe;
+
+        private final double capacity;
+
+        private final long refillPeriodNanos;
+
+        private final LongSupplier nanoClock;
+
+        TokenBuckets(int maxEntries, int capacity, Duration refillPeriod, LongSupplier nanoClock) {
+            this.slotsPerStripe = Integer.highestOneBit(Math.max(PROBES, maxEntries / STRIPES));
+            this.keys = new long[STRIPES * slotsPerStripe];
+            this.tokens = new double[keys.length];
+            this.refilledAt = new long[keys.length];
+            this.capacity = capacity;
+            this.refillPeriodNanos = refillPeriod.toNanos();
+            this.nanoClock = nanoClock;
+            for (int i = 0; i < STRIPES; i++) {
+                locks[i] = new Object();
+            }
+        }
+
+        long hash(String key) {
+            long hash = seed;
+            for (int i = 0; i < key.length(); i++) {
+                hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        long hash(byte[] key) {
+            long hash = seed;
+            for (byte b : key) {
+                hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        boolean tryAcquire(long key) {
+            int stripe = (int) (key >>> 58) & (STRIPES - 1);
+            int base = stripe * slotsPerStripe;
+            long now = nanoClock.getAsLong();
+            synchronized (locks[stripe]) {
+                int slot = findSlot(key, base, now);
+                if (keys[slot] != key) {
+                    keys[slot] = key;
+                    tokens[slot] = capacity;
+                    refilledAt[slot] = now;
+                } else {
+                    refill(slot, now);
+                }
+                if (tokens[slot] < 1) {
+                    return false;
+                }
+                tokens[slot] -= 1;
+                return true;
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (long key : keys) {
+                if (key != 0) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Find the slot of a key, or else a free slot, or else the fullest bucket among the probed slots.
+         */
+        private int findSlot(long key, int base, long now) {
+            int start = (int) key & (slotsPerStripe - 1);
+            int free = -1;
+            int fullest = -1;
+            for (int i = 0; i < PROBES; i++) {
+                int slot = base + ((start + i) & (slotsPerStripe - 1));
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                if (keys[slot] == 0) {
+                    if (free < 0) {
+                        free = slot;
+                    }
+                } else if (refill(slot, now) >= capacity || fullest < 0 || tokens[slot] > tokens[fullest]) {
+                    fullest = slot;
+                }
+            }
+            return free >= 0 ? free : fullest;
+        }
+
+        private double refill(int slot, long now) {
+            long elapsed = now - refilledAt[slot];
+            if (elapsed > 0) {
+                tokens[slot] = Math.min(capacity, tokens[slot] + (double) elapsed / refillPeriodNanos);
+                refilledAt[slot] = now;
+            }
+            return tokens[slot];
+        }
+
+        private static long mix(long hash) {
+            hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+            hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            // 0 marks a free slot
+            return hash == 0 ? 1 : hash;
+        }
+    }
+}
@@ -6,22 +6,52 @@ import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.userdetails.UserDetails;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 
 /**
  * Utility class for Spring Security.
+ * <p>
+ * The helpers read the {@link AuthenticatedUser} put in the Reactor {@link Context} by the JWT filter, and only fall
+ * back to the {@link ReactiveSecurityContextHolder} for the other authentications.
  */
 public final class SecurityUtils {
 
     private SecurityUtils() {
     }
 
+    /**
+     * Add the principal of the current request to a Reactor {@link Context}.
+     *
+     * @param user the authenticated user.
+     * @return a {@link Context} with the user, to merge into the subscriber context.
+     */
+    public static Context withAuthenticatedUser(AuthenticatedUser user) {
+        return Context.of(AuthenticatedUser.class, user);
+    }
+
+    /**
+     * Get the principal resolved by the JWT filter.
+     *
+     * @return the authenticated user, or empty for the requests not authenticated by a JWT.
+     */
+    public static Mono<AuthenticatedUser> getAuthenticatedUser() {
+        return Mono.subscriberContext()
+            .flatMap(context -> Mono.justOrEmpty(context.<AuthenticatedUser>getOrEmpty(AuthenticatedUser.class)));
+    }
+
     /**
      * Get the login of the current user.
      *
      * @return the login of the current user.
      */
     public static Mono<String> getCurrentUserLogin() {
+        return getAuthenticatedUser()
+            .map(AuthenticatedUser::getLogin)
+            .switchIfEmpty(Mono.defer(SecurityUtils::getCurrentUserLoginFromSecurityContext));
+    }
+
+    private static Mono<String> getCurrentUserLoginFromSecurityContext() {
         return ReactiveSecurityContextHolder.getContext()
             .map(SecurityContext::getAuthentication)
             .map(Authentication::getPrincipal)
@@ -52,6 +82,12 @@ public final class SecurityUtils {
      * @return true if the user is authenticated, false otherwise.
      */
     public static Mono<Boolean> isAuthenticated() {
+        return getAuthenticatedUser()
+            .map(AuthenticatedUser::isAuthenticated)
+            .switchIfEmpty(Mono.defer(SecurityUtils::isAuthenticatedFromSecurityContext));
+    }
+
+    private static Mono<Boolean> isAuthenticatedFromSecurityContext() {
         return ReactiveSecurityContextHolder.getContext()
             .map(SecurityContext::getAuthentication)
             .map(Authentication::getAuthorities)
@@ -70,6 +106,12 @@ public final class SecurityUtils {
      * @return true if the current user has the authority, false otherwise.
      */
     public static Mono<Boolean> isCurrentUserInRole(String authority) {
+        return getAuthenticatedUser()
+            .map(user -> user.hasAuthority(authority))
+            .switchIfEmpty(Mono.defer(() -> isCurrentUserInRoleFromSecurityContext(authority)));
+    }
+
+    private static Mono<Boolean> isCurrentUserInRoleFromSecurityContext(String authority) {
         return ReactiveSecurityContextHolder.getContext()
             .map(SecurityContext::getAuthentication)
             .map(Authentication::getAuthorities)
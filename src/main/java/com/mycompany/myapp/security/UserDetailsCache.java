@@ -0,0 +1,183 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.cluster.CacheInvalidation;
+import com.mycompany.myapp.cluster.SharedState;
+import com.mycompany.myapp.config.ApplicationProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the users loaded by {@link DomainUserDetailsService}, by login.
+ * <p>
+ * Evictions are published through the {@link SharedState}, so that a user updated on one node is evicted from the
+ * cache of every node. Entries also expire after a configurable time, in case an invalidation is lost.
+ * <p>
+ * Within a transaction, the evictions are made once it commits: evicting before would let a concurrent login load the
+ * old row again, and cache it until it expires.
+ */
+@Component
+public class UserDetailsCache {
+
+    public static final String CACHE_NAME = "users";
+
+    /**
+     * Key of the invalidation of every user, which is not a valid login.
+     */
+    private static final String ALL_USERS = "*";
+
+    private final Logger log = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final SharedState sharedState;
+
+    private final long timeToLiveNanos;
+
+    private final int maxEntries;
+
+    private final LongSupplier nanoClock;
+
+    private final Disposable invalidations;
+
+    @Autowired
+    public UserDetailsCache(SharedState sharedState, ApplicationProperties applicationProperties) {
+        this(sharedState, applicationProperties.getSecurity().getUserCache(), System::nanoTime);
+    }
+
+    UserDetailsCache(SharedState sharedState, ApplicationProperties.Security.UserCache properties, LongSupplier nanoClock) {
+        this.sharedState = sharedState;
+        this.timeToLiveNanos = properties.getTimeToLive().toNanos();
+        this.maxEntries = properties.getMaxEntries();
+        this.nanoClock = nanoClock;
+        this.invalidations = sharedState.invalidations()
+            .filter(invalidation -> CACHE_NAME.equals(invalidation.getCacheName()))
+            .subscribe(invalidation -> {
+                    if (ALL_USERS.equals(invalidation.getKey())) {
+                        entries.clear();
+                    } else {
+                        entries.remove(invalidation.getKey());
+                    }
+                },
+                e -> log.error("Stopped listening to the user cache invalidations", e));
+    }
+
+    /**
+     * Get a user from the cache, or load it.
+     *
+     * @param login the lowercase login of the user.
+     * @param loader the loader of the user, called on a cache miss.
+     * @return the user.
+     */
+    public Mono<UserDetails> get(String login, Supplier<Mono<UserDetails>> loader) {
+        if (timeToLiveNanos <= 0) {
+            return loader.get();
+        }
+        Entry entry = entries.get(login);
+        long now = nanoClock.getAsLong();
+        if (entry != null && now - entry.expiresAt < 0) {
+            return Mono.just(copy(entry.userDetails));
+        }
+        return loader.get().doOnNext(userDetails -> put(login, userDetails, now));
+    }
+
+    /**
+     * Evict a user from the cache of every node, once the current transaction, if any, commits.
+     *
+     * @param login the lowercase login of the user.
+     * @return a {@link Mono} completing once the eviction is published, or registered with the current transaction.
+     */
+    public Mono<Void> evict(String login) {
+        if (login == null) {
+            return Mono.empty();
+        }
+        return afterCommit(() -> Mono.fromRunnable(() -> entries.remove(login))
+            .then(sharedState.publishInvalidation(new CacheInvalidation(CACHE_NAME, login)))
+            .onErrorResume(e -> {
+                log.warn("Could not publish the eviction of user {} to the other nodes: {}", login, e.toString());
+                return Mono.empty();
+            }));
+    }
+
+    /**
+     * Evict all the users from the cache of every node after a bulk update, once the current transaction, if any,
+     * commits.
+     *
+     * @return a {@link Mono} completing once the eviction is published, or registered with the current transaction.
+     */
+    public Mono<Void> evictAll() {
+        return afterCommit(() -> Mono.fromRunnable(entries::clear)
+            .then(sharedState.publishInvalidation(new CacheInvalidation(CACHE_NAME, ALL_USERS)))
+            .onErrorResume(e -> {
+                log.warn("Could not publish the eviction of all the users to the other nodes: {}", e.toString());
+                return Mono.empty();
+            }));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        invalidations.dispose();
+    }
+
+    private static Mono<Void> afterCommit(Supplier<Mono<Void>> eviction) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .flatMap(synchronizationManager -> {
+                if (!synchronizationManager.isSynchronizationActive()) {
+                    return eviction.get();
+                }
+                synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return eviction.get();
+                    }
+                });
+                return Mono.<Void>empty();
+            })
+            .onErrorResume(NoTransactionException.class, e -> eviction.get());
+    }
+
+    private void put(String login, UserDetails userDetails, long now) {
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> now - entry.expiresAt >= 0);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(login, new Entry(copy(userDetails), now + timeToLiveNanos));
+    }
+
+    /**
+     * Copy the cached users, as Spring Security may erase the credentials of the instances it is given.
+     */
+    private static UserDetails copy(UserDetails userDetails) {
+        return User.withUserDetails(userDetails).build();
+    }
+
+    private static final class Entry {
+
+        private final UserDetails userDetails;
+
+        private final long expiresAt;
+
+        private Entry(UserDetails userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.security.GrantedAuthorities;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encoding of a set of authorities as a bitmask, from {@code application.security.jwt.authority-bits}.
+ * <p>
+ * Bit {@code i} stands for the {@code i}-th authority of the list, so the list must only be appended to. The bits of
+ * the authorities unknown to this node are ignored, so a token never grants more than this node knows of.
+ */
+final class AuthorityBits {
+
+    private static final int MAX_BITS = Long.SIZE - 1;
+
+    private static final int MAX_COMBINATIONS = 1024;
+
+    private final List<String> names;
+
+    private final Map<String, Long> bits = new HashMap<>();
+
+    private final Map<Long, List<GrantedAuthority>> combinations = new ConcurrentHashMap<>();
+
+    AuthorityBits(List<String> names) {
+        if (names.size() > MAX_BITS) {
+            throw new IllegalArgumentException("At most " + MAX_BITS + " authorities can be encoded as bits, not " + names.size());
+        }
+        this.names = new ArrayList<>(names);
+        for (int i = 0; i < names.size(); i++) {
+            if (bits.putIfAbsent(names.get(i), 1L << i) != null) {
+                throw new IllegalArgumentException("The authority " + names.get(i) + " has several bits");
+            }
+        }
+    }
+
+    /**
+     * Encode authorities.
+     *
+     * @param authorities the authorities.
+     * @return the bitmask, or {@code -1} if an authority has no bit.
+     */
+    long encode(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Long bit = bits.get(authority.getAuthority());
+            if (bit == null) {
+                return -1;
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Decode authorities.
+     *
+     * @param mask the bitmask.
+     * @return an unmodifiable list of the authorities, sorted by name.
+     */
+    List<GrantedAuthority> decode(long mask) {
+        List<GrantedAuthority> authorities = combinations.get(mask);
+        if (authorities != null) {
+            return authorities;
+        }
+        List<String> decoded = new ArrayList<>(Long.bitCount(mask));
+        for (int i = 0; i < names.size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                decoded.add(names.get(i));
+            }
+        }
+        authorities = GrantedAuthorities.fromNames(decoded);
+        if (combinations.size() < MAX_COMBINATIONS) {
+            combinations.putIfAbsent(mask, authorities);
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,171 @@
+package com.mycompany.myapp.security.jwt;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Fixed layout of the compact access tokens signed with an HMAC key.
+ * <p>
+ * They are standard JWT, with the authorities as a bitmask in the {@value #AUTHORITY_MASK_KEY} claim, but the header
+ * and claims are always written in the same order. A node verifies them without a JSON parser: the header is looked up
+ * as a whole in the {@link KeyRing}, and the claims are read in the order they were written. Any other token, including
+ * a compact token this layout does not match, is left to the generic parser.
+ */
+final class CompactTokenCodec {
+
+    /**
+     * Claim holding the bitmask of the authorities of the token, encoded by {@link AuthorityBits}.
+     */
+    static final String AUTHORITY_MASK_KEY = "am";
+
+    private static final String MAC_ALGORITHM = "HmacSHA512";
+
+    /**
+     * The key ids and subjects which need no escaping in JSON.
+     */
+    private static final Pattern PLAIN = Pattern.compile("[A-Za-z0-9_.@-]+");
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CompactTokenCodec() {
+    }
+
+    /**
+     * Get the encoded header of the compact tokens signed with an HS512 key.
+     *
+     * @param keyId the id of the key.
+     * @return the encoded header, or {@code null} if the key id needs escaping.
+     */
+    static String header(String keyId) {
+        if (!PLAIN.matcher(keyId).matches()) {
+            return null;
+        }
+        return ENCODER.encodeToString(("{\"alg\":\"HS512\",\"kid\":\"" + keyId + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Check if a subject can be written in a compact token.
+     *
+     * @param subject the subject.
+     * @return {@code true} if the subject needs no escaping.
+     */
+    static boolean isPlain(String subject) {
+        return PLAIN.matcher(subject).matches();
+    }
+
+    static String encode(KeyRing.JwtKey key, String subject, long authorityMask, long sessionId, long expirationInSeconds) {
+        String payload = "{\"sub\":\"" + subject + "\",\"" + AUTHORITY_MASK_KEY + "\":" + authorityMask +
+            ",\"sid\":" + sessionId + ",\"exp\":" + expirationInSeconds + "}";
+        String content = key.getCompactHeader() + '.' + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return content + '.' + ENCODER.encodeToString(sign(key.getSigningKey(), content));
+    }
+
+    /**
+     * Verify and read a compact token.
+     *
+     * @param token the token.
+     * @param keyRing the keys.
+     * @param authorityBits the decoder of the authorities.
+     * @param now the current time, in milliseconds.
+     * @return the claims, or {@code null} if the token is not a valid compact token.
+     */
+    static TokenClaims decode(String token, KeyRing keyRing, AuthorityBits authorityBits, long now) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = token.lastIndexOf('.');
+        if (headerEnd < 0 || payloadEnd <= headerEnd) {
+            return null;
+        }
+        KeyRing.JwtKey key = keyRing.getByCompactHeader(token.substring(0, headerEnd));
+        if (key == null) {
+            return null;
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(payloadEnd + 1));
+            if (!MessageDigest.isEqual(signature, sign(key.getSigningKey(), token.substring(0, payloadEnd)))) {
+                return null;
+            }
+            ClaimsReader claims = new ClaimsReader(new String(DECODER.decode(token.substring(headerEnd + 1, payloadEnd)),
+                StandardCharsets.UTF_8));
+            String subject = claims.expect("{\"sub\":\"") ? claims.readPlainString() : null;
+            long authorityMask = claims.expect(",\"" + AUTHORITY_MASK_KEY + "\":") ? claims.readLong() : -1;
+            long sessionId = claims.expect(",\"sid\":") ? claims.readLong() : -1;
+            long expiration = claims.expect(",\"exp\":") ? claims.readLong() : -1;
+            if (subject == null || authorityMask < 0 || sessionId < 0 || expiration < 0 || !claims.expectEnd("}") ||
+                expiration * 1000 < now) {
+                return null;
+            }
+            return new TokenClaims(subject, authorityBits.decode(authorityMask), sessionId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] sign(Key key, String content) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign the JWT with " + MAC_ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Reads the claims in the order they are written by {@link #encode}.
+     */
+    private static final class ClaimsReader {
+
+        private static final int MAX_DIGITS = 18;
+
+        private final String json;
+
+        private int position;
+
+        private ClaimsReader(String json) {
+            this.json = json;
+        }
+
+        private boolean expect(String expected) {
+            if (!json.startsWith(expected, position)) {
+                return false;
+            }
+            position += expected.length();
+            return true;
+        }
+
+        private boolean expectEnd(String expected) {
+            return expect(expected) && position == json.length();
+        }
+
+        private String readPlainString() {
+            int end = json.indexOf('"', position);
+            if (end < 0) {
+                return null;
+            }
+            String value = json.substring(position, end);
+            position = end + 1;
+            return isPlain(value) ? value : null;
+        }
+
+        private long readLong() {
+            int start = position;
+            long value = 0;
+            while (position < json.length() && position - start < MAX_DIGITS) {
+                char c = json.charAt(position);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                position++;
+            }
+            return position > start ? value : -1;
+        }
+    }
+}
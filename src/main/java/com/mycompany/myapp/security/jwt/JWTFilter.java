@@ -1,5 +1,8 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.mycompany.myapp.security.AuthenticatedUser;
+import com.mycompany.myapp.security.SecurityUtils;
+
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
@@ -12,6 +15,10 @@ import reactor.core.publisher.Mono;
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
  * found.
+ * <p>
+ * Tokens from a revoked session, and tokens without a session, are ignored.
+ * <p>
+ * The principal is also put in the Reactor context, where {@link SecurityUtils} reads it.
  */
 public class JWTFilter implements WebFilter {
 
@@ -19,23 +26,31 @@ public class JWTFilter implements WebFilter {
 
     private final TokenProvider tokenProvider;
 
-    public JWTFilter(TokenProvider tokenProvider) {
+    private final TokenRevocationList tokenRevocationList;
+
+    public JWTFilter(TokenProvider tokenProvider, TokenRevocationList tokenRevocationList) {
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String jwt = resolveToken(exchange.getRequest());
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            return chain.filter(exchange).subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication));
+        TokenClaims claims = StringUtils.hasText(jwt) ? this.tokenProvider.parseToken(jwt) : null;
+        if (claims != null) {
+            Long sessionId = claims.getSessionId();
+            if (sessionId != null && !this.tokenRevocationList.isRevoked(sessionId)) {
+                Authentication authentication = this.tokenProvider.getAuthentication(jwt, claims);
+                return chain.filter(exchange).subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication)
+                    .putAll(SecurityUtils.withAuthenticatedUser((AuthenticatedUser) authentication.getPrincipal())));
+            }
         }
         return chain.filter(exchange);
     }
 
     private String resolveToken(ServerHttpRequest request) {
         String bearerToken = request.getHeaders().getFirst(AUTHORIZATION_HEADER);
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
         return null;
@@ -0,0 +1,226 @@
+package com.mycompany.myapp.security.jwt;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.util.StringUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Immutable set of JWT signing keys, by key id.
+ * <p>
+ * Tokens are signed with the active key, and carry its id in their {@code kid} header. They are verified with the key
+ * of their {@code kid}, so tokens signed with a retiring key stay valid until the key is removed from the ring. Tokens
+ * without a {@code kid} are verified with the {@value #DEFAULT_KEY_ID} key.
+ * <p>
+ * Keys are either HMAC secrets, or asymmetric key pairs. A node which only verifies tokens only needs the public keys
+ * of the asymmetric keys.
+ */
+public final class KeyRing {
+
+    /**
+     * Id of the key loaded from {@code jhipster.security.authentication.jwt.base64-secret}, and of the key verifying
+     * the tokens without a {@code kid}.
+     */
+    public static final String DEFAULT_KEY_ID = "default";
+
+    private static final String ACTIVE_PROPERTY = "active";
+
+    private static final String KEY_PROPERTY_PREFIX = "keys.";
+
+    private static final String ALGORITHM_PROPERTY = "algorithm";
+
+    private static final String PUBLIC_KEY_PROPERTY = "public-key";
+
+    private static final String PRIVATE_KEY_PROPERTY = "private-key";
+
+    private final JwtKey activeKey;
+
+    private final Map<String, JwtKey> keys;
+
+    private final Map<String, JwtKey> keysByCompactHeader = new HashMap<>();
+
+    private KeyRing(String activeKeyId, Map<String, JwtKey> keys) {
+        this.activeKey = activeKeyId == null ? null : keys.get(activeKeyId);
+        this.keys = Collections.unmodifiableMap(keys);
+        for (JwtKey key : keys.values()) {
+            if (key.getCompactHeader() != null) {
+                keysByCompactHeader.put(key.getCompactHeader(), key);
+            }
+        }
+    }
+
+    /**
+     * Create a key ring with a single HMAC key.
+     *
+     * @param keyId the id of the key.
+     * @param key the HMAC key.
+     * @return the key ring.
+     */
+    public static KeyRing of(String keyId, Key key) {
+        Map<String, JwtKey> keys = new HashMap<>();
+        keys.put(keyId, new JwtKey(keyId, SignatureAlgorithm.HS512, key, key));
+        return new KeyRing(keyId, keys);
+    }
+
+    /**
+     * Read a key ring from properties.
+     * <p>
+     * {@code active} is the id of the signing key. Each {@code keys.<id>} is a Base64-encoded HMAC secret, or else
+     * {@code keys.<id>.algorithm} is an asymmetric algorithm such as {@code ES256}, with the Base64-encoded DER keys
+     * {@code keys.<id>.public-key} (X.509) and {@code keys.<id>.private-key} (PKCS#8).
+     *
+     * @param properties the properties.
+     * @param verifyOnly whether the ring only verifies tokens: the private keys are then ignored, and no active key is
+     * required.
+     * @return the key ring.
+     * @throws IllegalArgumentException if a key is invalid, or the active key can not sign.
+     */
+    public static KeyRing from(Properties properties, boolean verifyOnly) {
+        Map<String, JwtKey> keys = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(KEY_PROPERTY_PREFIX)) {
+                String keyId = name.substring(KEY_PROPERTY_PREFIX.length()).split("\\.", 2)[0];
+                keys.computeIfAbsent(keyId, id -> readKey(properties, id, verifyOnly));
+            }
+        }
+        String activeKeyId = StringUtils.hasText(properties.getProperty(ACTIVE_PROPERTY)) ?
+            properties.getProperty(ACTIVE_PROPERTY).trim() : null;
+        if (!verifyOnly && (activeKeyId == null || !keys.containsKey(activeKeyId) || keys.get(activeKeyId).getSigningKey() == null)) {
+            throw new IllegalArgumentException("The active key '" + activeKeyId + "' is not a signing key of the key ring " +
+                keys.keySet());
+        }
+        return new KeyRing(activeKeyId, keys);
+    }
+
+    private static JwtKey readKey(Properties properties, String keyId, boolean verifyOnly) {
+        String prefix = KEY_PROPERTY_PREFIX + keyId;
+        String algorithmName = properties.getProperty(prefix + "." + ALGORITHM_PROPERTY);
+        if (algorithmName == null) {
+            String secret = properties.getProperty(prefix);
+            if (secret == null) {
+                throw new IllegalArgumentException("The key '" + keyId + "' has neither a secret nor an algorithm");
+            }
+            Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret.trim()));
+            return new JwtKey(keyId, SignatureAlgorithm.HS512, key, key);
+        }
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(algorithmName.trim());
+        if (!algorithm.isEllipticCurve() && !algorithm.isRsa()) {
+            throw new IllegalArgumentException("The key '" + keyId + "' must be an elliptic curve or RSA key, not " + algorithm);
+        }
+        String keyFactoryAlgorithm = algorithm.isEllipticCurve() ? "EC" : "RSA";
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm);
+            Key publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decode(properties, prefix, PUBLIC_KEY_PROPERTY)));
+            String privateKey = properties.getProperty(prefix + "." + PRIVATE_KEY_PROPERTY);
+            Key signingKey = verifyOnly || privateKey == null ? null :
+                keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(privateKey.trim())));
+            return new JwtKey(keyId, algorithm, signingKey, publicKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("The key '" + keyId + "' is not a valid " + keyFactoryAlgorithm + " key", e);
+        }
+    }
+
+    private static byte[] decode(Properties properties, String prefix, String property) {
+        String value = properties.getProperty(prefix + "." + property);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + prefix + "." + property);
+        }
+        return Decoders.BASE64.decode(value.trim());
+    }
+
+    /**
+     * Get the key signing the new tokens.
+     *
+     * @return the active key, or {@code null} if the ring only verifies tokens.
+     */
+    public JwtKey getActiveKey() {
+        return activeKey;
+    }
+
+    /**
+     * Get the key verifying a token.
+     *
+     * @param keyId the {@code kid} of the token, may be {@code null}.
+     * @return the key, or {@code null} if it is not in the ring.
+     */
+    public JwtKey get(String keyId) {
+        return keys.get(keyId == null ? DEFAULT_KEY_ID : keyId);
+    }
+
+    /**
+     * Get the key of a compact token.
+     *
+     * @param compactHeader the encoded header of the token.
+     * @return the HMAC key, or {@code null} if the header is not the compact header of a key of the ring.
+     */
+    public JwtKey getByCompactHeader(String compactHeader) {
+        return keysByCompactHeader.get(compactHeader);
+    }
+
+    public Set<String> getKeyIds() {
+        return keys.keySet();
+    }
+
+    /**
+     * A key of the ring.
+     */
+    public static final class JwtKey {
+
+        private final String id;
+
+        private final SignatureAlgorithm algorithm;
+
+        private final Key signingKey;
+
+        private final Key verificationKey;
+
+        private final String compactHeader;
+
+        private JwtKey(String id, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+            this.id = id;
+            this.algorithm = algorithm;
+            this.signingKey = signingKey;
+            this.verificationKey = verificationKey;
+            this.compactHeader = algorithm == SignatureAlgorithm.HS512 && signingKey != null &&
+                signingKey.getEncoded().length * Byte.SIZE >= algorithm.getMinKeyLength() ? CompactTokenCodec.header(id) : null;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        /**
+         * @return the private key or HMAC secret, or {@code null} if this node can not sign with this key.
+         */
+        public Key getSigningKey() {
+            return signingKey;
+        }
+
+        public Key getVerificationKey() {
+            return verificationKey;
+        }
+
+        /**
+         * @return the encoded header of the compact tokens signed with this key, or {@code null} if they are not
+         * written in the layout of {@link CompactTokenCodec}.
+         */
+        public String getCompactHeader() {
+            return compactHeader;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.mycompany.myapp.security.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * The claims of a verified access token, whichever format it was issued in.
+ */
+public final class TokenClaims {
+
+    private final String subject;
+
+    private final List<GrantedAuthority> authorities;
+
+    private final Long sessionId;
+
+    TokenClaims(String subject, List<GrantedAuthority> authorities, Long sessionId) {
+        this.subject = subject;
+        this.authorities = authorities;
+        this.sessionId = sessionId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * @return the id of the refresh token the token was issued with, or {@code null} for the tokens issued before
+     * the refresh tokens, which can not be revoked.
+     */
+    public Long getSessionId() {
+        return sessionId;
+    }
+}
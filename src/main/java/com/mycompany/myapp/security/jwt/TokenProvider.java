@@ -1,25 +1,38 @@
 package com.mycompany.myapp.security.jwt;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.security.Key;
 import java.util.*;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.AuthenticatedUser;
+import com.mycompany.myapp.security.GrantedAuthorities;
 
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 
 @Component
 public class TokenProvider {
@@ -28,20 +41,64 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
-    private Key key;
+    /**
+     * Claim holding the id of the refresh token the access token was issued with.
+     */
+    private static final String SESSION_KEY = "sid";
+
+    private final SigningKeyResolver signingKeyResolver = new SigningKeyResolverAdapter() {
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            return resolveKey(header);
+        }
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, String plaintext) {
+            return resolveKey(header);
+        }
+    };
+
+    private volatile KeyRing keyRing;
+
+    private boolean verifyOnly;
+
+    private FileTime keyRingLastModified;
+
+    private Disposable keyRingReloads;
 
     private long tokenValidityInMilliseconds;
 
-    private long tokenValidityInMillisecondsForRememberMe;
+    private final boolean compactClaims;
+
+    private final AuthorityBits authorityBits;
 
     private final JHipsterProperties jHipsterProperties;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+        this.compactClaims = applicationProperties.getSecurity().getJwt().isCompactClaims();
+        this.authorityBits = new AuthorityBits(applicationProperties.getSecurity().getJwt().getAuthorityBits());
     }
 
     @PostConstruct
     public void init() {
+        this.tokenValidityInMilliseconds =
+            applicationProperties.getSecurity().getRefreshToken().getAccessTokenValidity().toMillis();
+        ApplicationProperties.Security.Jwt jwt = applicationProperties.getSecurity().getJwt();
+        this.verifyOnly = jwt.isVerifyOnly();
+        if (StringUtils.hasText(jwt.getKeyRingLocation())) {
+            Path location = Paths.get(jwt.getKeyRingLocation());
+            if (!reloadKeyRing(location)) {
+                throw new IllegalStateException("Could not load the JWT key ring from " + location);
+            }
+            keyRingReloads = Flux.interval(jwt.getKeyRingReloadPeriod(), Schedulers.elastic())
+                .subscribe(tick -> reloadKeyRing(location));
+            return;
+        }
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
         if (!StringUtils.isEmpty(secret)) {
@@ -52,59 +109,152 @@ public class TokenProvider {
             log.debug("Using a Base64-encoded JWT secret key");
             keyBytes = Decoders.BASE64.decode(jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret());
         }
-        this.key = Keys.hmacShaKeyFor(keyBytes);
-        this.tokenValidityInMilliseconds =
-            1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
-        this.tokenValidityInMillisecondsForRememberMe =
-            1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt()
-                .getTokenValidityInSecondsForRememberMe();
+        if (verifyOnly) {
+            log.warn("This node only verifies the JWT, but still holds the HMAC secret which can sign them. " +
+                "Use asymmetric keys in `application.security.jwt.key-ring-location` to keep the signing keys off it.");
+        }
+        this.keyRing = KeyRing.of(KeyRing.DEFAULT_KEY_ID, Keys.hmacShaKeyFor(keyBytes));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (keyRingReloads != null) {
+            keyRingReloads.dispose();
+        }
     }
 
-    public String createToken(Authentication authentication, boolean rememberMe) {
-        String authorities = authentication.getAuthorities().stream()
-            .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.joining(","));
+    /**
+     * Load the key ring file if it changed since the last load.
+     * <p>
+     * If the file can not be loaded, the current key ring is kept.
+     *
+     * @param location the key ring file.
+     * @return {@code true} if a key ring is loaded.
+     */
+    synchronized boolean reloadKeyRing(Path location) {
+        try {
+            FileTime lastModified = Files.getLastModifiedTime(location);
+            if (lastModified.equals(keyRingLastModified)) {
+                return true;
+            }
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(location, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            KeyRing loaded = KeyRing.from(properties, verifyOnly);
+            this.keyRing = loaded;
+            this.keyRingLastModified = lastModified;
+            log.info("Loaded the JWT key ring {}, signing with key '{}', verifying with keys {}", location,
+                loaded.getActiveKey() == null ? null : loaded.getActiveKey().getId(), loaded.getKeyIds());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load the JWT key ring {}, keeping the current keys: {}", location, e.toString());
+            return keyRing != null;
+        }
+    }
 
+    /**
+     * Create a short-lived access token.
+     * <p>
+     * With {@code application.security.jwt.compact-claims}, the authorities are written as a bitmask when they all have
+     * a bit, and the tokens signed with an HMAC key are written in the layout of {@link CompactTokenCodec}.
+     *
+     * @param authentication the authenticated user.
+     * @param sessionId the id of the refresh token of the session, checked against the revoked sessions.
+     * @return the signed access token.
+     * @throws IllegalStateException if this node only verifies tokens.
+     */
+    public String createToken(Authentication authentication, long sessionId) {
+        KeyRing.JwtKey signingKey = this.keyRing.getActiveKey();
+        if (verifyOnly || signingKey == null || signingKey.getSigningKey() == null) {
+            throw new IllegalStateException("This node only verifies the JWT, the tokens must be issued by another node");
+        }
         long now = (new Date()).getTime();
-        Date validity;
-        if (rememberMe) {
-            validity = new Date(now + this.tokenValidityInMillisecondsForRememberMe);
+        Date validity = new Date(now + this.tokenValidityInMilliseconds);
+
+        long authorityMask = compactClaims ? authorityBits.encode(authentication.getAuthorities()) : -1;
+        if (authorityMask >= 0 && signingKey.getCompactHeader() != null && CompactTokenCodec.isPlain(authentication.getName())) {
+            return CompactTokenCodec.encode(signingKey, authentication.getName(), authorityMask, sessionId,
+                validity.getTime() / 1000);
+        }
+        JwtBuilder builder = Jwts.builder()
+            .setHeaderParam(JwsHeader.KEY_ID, signingKey.getId())
+            .setSubject(authentication.getName());
+        if (authorityMask >= 0) {
+            builder.claim(CompactTokenCodec.AUTHORITY_MASK_KEY, authorityMask);
         } else {
-            validity = new Date(now + this.tokenValidityInMilliseconds);
+            builder.claim(AUTHORITIES_KEY, authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(",")));
         }
-
-        return Jwts.builder()
-            .setSubject(authentication.getName())
-            .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
+        return builder
+            .claim(SESSION_KEY, sessionId)
+            .signWith(signingKey.getSigningKey(), signingKey.getAlgorithm())
             .setExpiration(validity)
             .compact();
     }
 
+    /**
+     * Check the signature and expiry of a token, and get its claims.
+     * <p>
+     * Compact tokens signed with an HMAC key are read without a JSON parser, the others by jjwt. Both the bitmask and
+     * the comma-separated authorities are accepted, whatever {@code application.security.jwt.compact-claims} is.
+     *
+     * @param token the token.
+     * @return the claims of the token, or {@code null} if it is not valid.
+     */
+    public TokenClaims parseToken(String token) {
+        TokenClaims compact = CompactTokenCodec.decode(token, keyRing, authorityBits, System.currentTimeMillis());
+        if (compact != null) {
+            return compact;
+        }
+        try {
+            return toTokenClaims(Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+        }
+        return null;
+    }
+
     public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parser()
-            .setSigningKey(key)
+        return getAuthentication(token, toTokenClaims(Jwts.parser()
+            .setSigningKeyResolver(signingKeyResolver)
             .parseClaimsJws(token)
-            .getBody();
-
-        Collection<? extends GrantedAuthority> authorities =
-            Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+            .getBody()));
+    }
 
-        User principal = new User(claims.getSubject(), "", authorities);
+    public Authentication getAuthentication(String token, TokenClaims claims) {
+        AuthenticatedUser principal = new AuthenticatedUser(claims.getSubject(), claims.getAuthorities());
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        return new UsernamePasswordAuthenticationToken(principal, token, claims.getAuthorities());
     }
 
     public boolean validateToken(String authToken) {
-        try {
-            Jwts.parser().setSigningKey(key).parseClaimsJws(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.info("Invalid JWT token.");
-            log.trace("Invalid JWT token trace.", e);
+        return parseToken(authToken) != null;
+    }
+
+    private TokenClaims toTokenClaims(Claims claims) {
+        Long authorityMask = claims.get(CompactTokenCodec.AUTHORITY_MASK_KEY, Long.class);
+        List<GrantedAuthority> authorities;
+        if (authorityMask != null) {
+            authorities = authorityBits.decode(authorityMask);
+        } else {
+            String authorityNames = claims.get(AUTHORITIES_KEY, String.class);
+            authorities = authorityNames == null ? Collections.emptyList() : GrantedAuthorities.fromClaim(authorityNames);
+        }
+        return new TokenClaims(claims.getSubject(), authorities, claims.get(SESSION_KEY, Long.class));
+    }
+
+    private Key resolveKey(JwsHeader header) {
+        KeyRing.JwtKey key = keyRing.get(header.getKeyId());
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id '" + header.getKeyId() + "'");
+        }
+        // The algorithm is set by the token, it must not pick another verification than the key's
+        if (!key.getAlgorithm().getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("The JWT key '" + key.getId() + "' does not verify " + header.getAlgorithm());
         }
-        return false;
+        return key.getVerificationKey();
     }
 }
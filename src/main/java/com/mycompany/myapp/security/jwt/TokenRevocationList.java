@@ -0,0 +1,202 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RefreshToken;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the sessions revoked in the database, checked by {@link JWTFilter} on every request.
+ * <p>
+ * The revoked session ids are held in an immutable snapshot: a Bloom filter, which answers for almost all the valid
+ * sessions, and a sorted array, searched when the filter matches. A check reads a volatile field and a few words of
+ * memory, and allocates nothing.
+ * <p>
+ * The snapshot is rebuilt from the revocations made since the last sync, fetched periodically from
+ * {@code jhi_refresh_token}. A revocation is only kept as long as the access tokens issued before it, after which
+ * they have expired anyway.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final int BITS_PER_ENTRY = 16;
+
+    private static final int HASHES = 4;
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final Duration accessTokenValidity;
+
+    private final Duration syncPeriod;
+
+    private final Duration syncOverlap;
+
+    private final Clock clock;
+
+    /**
+     * Revoked session ids, with the time when their last access token expires. Only changed by the syncs.
+     */
+    private final Map<Long, Instant> revocations = new HashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0]);
+
+    private Instant lastSync;
+
+    private Disposable syncs;
+
+    @Autowired
+    public TokenRevocationList(RefreshTokenRepository refreshTokenRepository, ApplicationProperties applicationProperties) {
+        this(refreshTokenRepository, applicationProperties.getSecurity().getRefreshToken(), Clock.systemUTC());
+    }
+
+    TokenRevocationList(RefreshTokenRepository refreshTokenRepository, ApplicationProperties.Security.RefreshToken properties,
+                        Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.accessTokenValidity = properties.getAccessTokenValidity();
+        this.syncPeriod = properties.getRevocationSyncPeriod();
+        this.syncOverlap = properties.getRevocationSyncOverlap();
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        syncs = Flux.interval(Duration.ZERO, syncPeriod)
+            .onBackpressureDrop()
+            .concatMap(tick -> sync()
+                .onErrorResume(e -> {
+                    log.warn("Could not sync the revoked sessions: {}", e.toString());
+                    return Mono.empty();
+                }), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (syncs != null) {
+            syncs.dispose();
+        }
+    }
+
+    /**
+     * Check if a session is revoked.
+     *
+     * @param sessionId the id of the refresh token of the session.
+     * @return {@code true} if the session is revoked.
+     */
+    public boolean isRevoked(long sessionId) {
+        return snapshot.contains(sessionId);
+    }
+
+    /**
+     * Fetch the revocations made since the last sync.
+     *
+     * @return a {@link Mono} completing once the revocations are applied.
+     */
+    public Mono<Void> sync() {
+        return Mono.defer(() -> {
+            Instant now = clock.instant();
+            Instant since = since(now);
+            return refreshTokenRepository.findAllByRevokedDateSince(OffsetDateTime.ofInstant(since, ZoneId.systemDefault()))
+                .collectList()
+                .doOnNext(revoked -> apply(revoked, now))
+                .then();
+        });
+    }
+
+    private synchronized Instant since(Instant now) {
+        // The transactions committed after the last sync may have been stamped before it
+        Instant horizon = now.minus(accessTokenValidity);
+        return lastSync == null || lastSync.minus(syncOverlap).isBefore(horizon) ? horizon : lastSync.minus(syncOverlap);
+    }
+
+    synchronized void apply(List<RefreshToken> revoked, Instant now) {
+        boolean changed = revocations.values().removeIf(expiry -> !expiry.isAfter(now));
+        for (RefreshToken refreshToken : revoked) {
+            Instant expiry = refreshToken.getRevokedDate().plus(accessTokenValidity);
+            if (expiry.isAfter(now) && revocations.put(refreshToken.getId(), expiry) == null) {
+                changed = true;
+            }
+        }
+        if (lastSync == null || now.isAfter(lastSync)) {
+            lastSync = now;
+        }
+        if (changed) {
+            snapshot = new Snapshot(revocations.keySet().stream().mapToLong(Long::longValue).sorted().toArray());
+            log.debug("{} revoked sessions", revocations.size());
+        }
+    }
+
+    /**
+     * Immutable set of session ids.
+     */
+    private static final class Snapshot {
+
+        private final long[] bloom;
+
+        private final int mask;
+
+        private final long[] ids;
+
+        private Snapshot(long[] ids) {
+            this.ids = ids;
+            int bits = Math.max(Long.SIZE, Integer.highestOneBit(Math.max(1, ids.length * BITS_PER_ENTRY - 1)) << 1);
+            this.bloom = new long[bits / Long.SIZE];
+            this.mask = bits - 1;
+            for (long id : ids) {
+                long hash = mix(id);
+                for (int i = 0; i < HASHES; i++) {
+                    int bit = bit(hash, i);
+                    bloom[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        private boolean contains(long id) {
+            if (ids.length == 0) {
+                return false;
+            }
+            long hash = mix(id);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = bit(hash, i);
+                if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return Arrays.binarySearch(ids, id) >= 0;
+        }
+
+        /**
+         * Double hashing from the two halves of the hash.
+         */
+        private int bit(long hash, int i) {
+            return ((int) hash + i * (int) (hash >>> 32)) & mask;
+        }
+
+        private static long mix(long id) {
+            id = (id ^ (id >>> 33)) * 0xff51afd7ed558ccdL;
+            id = (id ^ (id >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return id ^ (id >>> 33);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mycompany.myapp.service;
 
 import io.github.jhipster.config.JHipsterProperties;
+import com.mycompany.myapp.config.AuditDatabaseConfiguration;
 import com.mycompany.myapp.config.audit.AuditEventConverter;
 import com.mycompany.myapp.domain.PersistentAuditEvent;
 import com.mycompany.myapp.repository.PersistenceAuditEventRepository;
@@ -32,6 +33,8 @@ import static org.springframework.boot.actuate.security.AuthenticationAuditListe
 @Service
 public class AuditEventService {
 
+    public static final String USER_BULK_OPERATION = "USER_BULK_OPERATION";
+
     /**
      * Should be the same as in Liquibase migration.
      */
@@ -66,7 +69,7 @@ public class AuditEventService {
             .block();
     }
 
-    @Transactional
+    @Transactional(AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER)
     public Mono<Void> removeOldAuditEventsReactively() {
         return persistenceAuditEventRepository
             .findByAuditEventDateBefore(OffsetDateTime.now().minus(jHipsterProperties.getAuditEvents().getRetentionPeriod(), ChronoUnit.DAYS))
@@ -77,35 +80,35 @@ public class AuditEventService {
             .then();
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(value = AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER, readOnly = true)
     public Flux<AuditEvent> findAll(Pageable pageable) {
         return persistenceAuditEventRepository.findAllBy(pageable)
             .map(auditEventConverter::convertToAuditEvent);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(value = AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER, readOnly = true)
     public Flux<AuditEvent> findByDates(Instant fromDate, Instant toDate, Pageable pageable) {
         return persistenceAuditEventRepository.findAllByAuditEventDateBetween(fromDate, toDate, pageable)
             .map(auditEventConverter::convertToAuditEvent);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(value = AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER, readOnly = true)
     public Mono<AuditEvent> find(Long id) {
         return persistenceAuditEventRepository.findById(id)
             .map(auditEventConverter::convertToAuditEvent);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(value = AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER, readOnly = true)
     public Mono<Long> count() {
         return persistenceAuditEventRepository.count();
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(value = AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER, readOnly = true)
     public Mono<Long> countByDates(Instant fromDate, Instant toDate) {
         return persistenceAuditEventRepository.countByAuditEventDateBetween(fromDate, toDate);
     }
 
-    @Transactional
+    @Transactional(AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER)
     public Mono<PersistentAuditEvent> saveAuthenticationSuccess(String login) {
         PersistentAuditEvent persistentAuditEvent = new PersistentAuditEvent();
         persistentAuditEvent.setPrincipal(login);
@@ -114,7 +117,7 @@ public class AuditEventService {
         return persistenceAuditEventRepository.save(persistentAuditEvent);
     }
 
-    @Transactional
+    @Transactional(AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER)
     public Mono<PersistentAuditEvent> saveAuthenticationError(String login, Throwable e) {
         PersistentAuditEvent persistentAuditEvent = new PersistentAuditEvent();
         persistentAuditEvent.setPrincipal(login);
@@ -127,6 +130,31 @@ public class AuditEventService {
         return persistenceAuditEventRepository.save(persistentAuditEvent);
     }
 
+    /**
+     * Record a bulk operation on users, once for the whole batch.
+     *
+     * @param login the login of the administrator.
+     * @param operation the operation, such as {@code deactivate}.
+     * @param selection the description of the selected users.
+     * @param count the number of users changed by the operation.
+     * @return the saved audit event.
+     */
+    @Transactional(AuditDatabaseConfiguration.AUDIT_TRANSACTION_MANAGER)
+    public Mono<PersistentAuditEvent> saveUserBulkOperation(String login, String operation, String selection, int count) {
+        PersistentAuditEvent persistentAuditEvent = new PersistentAuditEvent();
+        persistentAuditEvent.setPrincipal(login);
+        persistentAuditEvent.setAuditEventType(USER_BULK_OPERATION);
+        persistentAuditEvent.setAuditEventDate(Instant.now());
+        Map<String, String> eventData = new HashMap<>();
+        eventData.put("operation", operation);
+        eventData.put("selection", selection);
+        eventData.put("count", String.valueOf(count));
+        persistentAuditEvent.setData(truncate(eventData));
+        return persistenceAuditEventRepository.save(persistentAuditEvent)
+            .flatMap(saved -> persistenceAuditEventRepository.saveData(saved.getId(), persistentAuditEvent.getData())
+                .thenReturn(saved));
+    }
+
     /**
      * Truncate event data that might exceed column length.
      */
@@ -0,0 +1,213 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.RefreshToken;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.UserSelection;
+import com.mycompany.myapp.security.jwt.TokenProvider;
+import com.mycompany.myapp.security.jwt.TokenRevocationList;
+import com.mycompany.myapp.service.dto.AuthenticationTokensDTO;
+import io.github.jhipster.config.JHipsterProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Service for issuing, rotating and revoking refresh tokens.
+ * <p>
+ * A refresh token is valid for {@code jhipster.security.authentication.jwt.token-validity-in-seconds}, or
+ * {@code token-validity-in-seconds-for-remember-me}, while the access tokens issued with it only last
+ * {@code application.security.refresh-token.access-token-validity}. Each refresh replaces the refresh token, but keeps
+ * its session and expiry date.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final ReactiveUserDetailsService userDetailsService;
+
+    private final TokenProvider tokenProvider;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                               ReactiveUserDetailsService userDetailsService, TokenProvider tokenProvider,
+                               TokenRevocationList tokenRevocationList, JHipsterProperties jHipsterProperties) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
+        this.jHipsterProperties = jHipsterProperties;
+    }
+
+    /**
+     * Start a session for an authenticated user.
+     *
+     * @param authentication the authenticated user.
+     * @param rememberMe whether the session lasts for the remember-me validity.
+     * @return the access and refresh tokens of the new session.
+     */
+    @Transactional
+    public Mono<AuthenticationTokensDTO> createTokens(Authentication authentication, boolean rememberMe) {
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        long validityInSeconds = rememberMe ? jwt.getTokenValidityInSecondsForRememberMe() : jwt.getTokenValidityInSeconds();
+        String token = generateToken();
+        Instant now = Instant.now();
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setLogin(authentication.getName());
+        refreshToken.setCreatedDate(now);
+        refreshToken.setExpiryDate(now.plusSeconds(validityInSeconds));
+        return refreshTokenRepository.save(refreshToken)
+            .map(saved -> new AuthenticationTokensDTO(tokenProvider.createToken(authentication, saved.getId()), token));
+    }
+
+    /**
+     * Issue a new access token, and replace the refresh token.
+     * <p>
+     * The authorities are reloaded, so the new access token reflects the current state of the user.
+     *
+     * @param token the refresh token.
+     * @return the new access and refresh tokens, or empty if the refresh token is unknown, expired or revoked, or if
+     * the user can no longer authenticate.
+     */
+    @Transactional
+    public Mono<AuthenticationTokensDTO> refreshTokens(String token) {
+        String tokenHash = hash(token);
+        return refreshTokenRepository.findOneByTokenHash(tokenHash)
+            .filter(refreshToken -> refreshToken.getRevokedDate() == null && refreshToken.getExpiryDate().isAfter(Instant.now()))
+            .flatMap(refreshToken -> userDetailsService.findByUsername(refreshToken.getLogin())
+                .onErrorResume(AuthenticationException.class, e -> {
+                    log.debug("Refused to refresh the session of {}: {}", refreshToken.getLogin(), e.getMessage());
+                    return Mono.empty();
+                })
+                .flatMap(user -> {
+                    String newToken = generateToken();
+                    // Fails if the token was used concurrently
+                    return refreshTokenRepository.rotate(refreshToken.getId(), tokenHash, hash(newToken))
+                        .filter(updated -> updated == 1)
+                        .map(updated -> new AuthenticationTokensDTO(tokenProvider.createToken(
+                            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()), refreshToken.getId()), newToken));
+                }));
+    }
+
+    /**
+     * Revoke all the sessions of a user, and their access tokens.
+     * <p>
+     * The access tokens are refused by this node once the current transaction, if any, commits, and after the next
+     * revocation sync by the others.
+     *
+     * @param login the login of the user.
+     * @return a {@link Mono} completing once the sessions are revoked.
+     */
+    @Transactional
+    public Mono<Void> revokeTokens(String login) {
+        return refreshTokenRepository.revokeAllByLogin(login, OffsetDateTime.now())
+            .doOnNext(revoked -> log.debug("Revoked {} sessions of {}", revoked, login))
+            .then(syncAfterCommit());
+    }
+
+    /**
+     * Revoke all the sessions of the selected users, and their access tokens, in one statement.
+     *
+     * @param selection the users.
+     * @return a {@link Mono} completing once the sessions are revoked.
+     */
+    @Transactional
+    public Mono<Void> revokeTokens(UserSelection selection) {
+        return userRepository.revokeRefreshTokensBy(selection, OffsetDateTime.now())
+            .doOnNext(revoked -> log.debug("Revoked {} sessions of {}", revoked, selection))
+            .then(syncAfterCommit());
+    }
+
+    /**
+     * Expired refresh tokens should be automatically deleted, once the access tokens issued with them have expired too.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeExpiredTokens() {
+        removeExpiredTokensReactively()
+            .subscribeOn(Schedulers.elastic())
+            .block();
+    }
+
+    @Transactional
+    public Mono<Void> removeExpiredTokensReactively() {
+        return refreshTokenRepository.deleteAllByExpiryDateBefore(OffsetDateTime.now().minus(1, ChronoUnit.DAYS))
+            .doOnNext(deleted -> log.debug("Deleted {} expired refresh tokens", deleted))
+            .then();
+    }
+
+    /**
+     * Sync the revocation list once the current transaction, if any, commits: a sync in the transaction would read the
+     * revocations before they are committed, and keep them if it rolls back.
+     */
+    private Mono<Void> syncAfterCommit() {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .flatMap(synchronizationManager -> {
+                if (!synchronizationManager.isSynchronizationActive()) {
+                    return tokenRevocationList.sync();
+                }
+                synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return tokenRevocationList.sync();
+                    }
+                });
+                return Mono.<Void>empty();
+            })
+            .onErrorResume(NoTransactionException.class, e -> tokenRevocationList.sync());
+    }
+
+    private String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,27 +4,38 @@ import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.UserProjection;
 import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.UserSelection;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.security.UserDetailsCache;
 import com.mycompany.myapp.service.dto.UserDTO;
 import io.github.jhipster.security.RandomUtil;
+import io.r2dbc.spi.R2dbcException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
-import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing users.
@@ -32,6 +43,15 @@ import java.util.Set;
 @Service
 public class UserService {
 
+    /**
+     * Number of times an idempotent update is run again when a concurrent write changed the user in between.
+     */
+    private static final int CONFLICT_RETRIES = 3;
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
@@ -40,66 +60,87 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final UserDetailsCache userDetailsCache;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final AuditEventService auditEventService;
+
+    private final TransactionalOperator transactionalOperator;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository,
+                       UserDetailsCache userDetailsCache, RefreshTokenService refreshTokenService,
+                       AuditEventService auditEventService, ReactiveTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.refreshTokenService = refreshTokenService;
+        this.auditEventService = auditEventService;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
     }
 
-    @Transactional
     public Mono<User> activateRegistration(String key) {
         log.debug("Activating user for activation key {}", key);
-        return userRepository.findOneByActivationKey(key)
-            .flatMap(user -> {
+        return retryOnConflict(userRepository.findOneByActivationKey(key)
+            .flatMap(user -> updateUser(user, changedUser -> {
                 // activate given user for the registration key.
-                user.setActivated(true);
-                user.setActivationKey(null);
-                return updateUser(user);
-            })
+                changedUser.setActivated(true);
+                changedUser.setActivationKey(null);
+            })))
             .doOnNext(user -> log.debug("Activated user: {}", user));
     }
 
-    @Transactional
     public Mono<User> completePasswordReset(String newPassword, String key) {
         log.debug("Reset user password for reset key {}", key);
-        return userRepository.findOneByResetKey(key)
+        return retryOnConflict(userRepository.findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minusSeconds(86400)))
-            .flatMap(user -> {
-                user.setPassword(passwordEncoder.encode(newPassword));
-                user.setResetKey(null);
-                user.setResetDate(null);
-                return updateUser(user);
-            });
+            .flatMap(user -> updateUser(user, changedUser -> {
+                changedUser.setPassword(passwordEncoder.encode(newPassword));
+                changedUser.setResetKey(null);
+                changedUser.setResetDate(null);
+            })));
     }
 
     @Transactional
     public Mono<User> requestPasswordReset(String mail) {
+        // Not retried on conflict, as it generates a new reset key
         return userRepository.findOneByEmailIgnoreCase(mail)
             .filter(User::getActivated)
-            .flatMap(user -> {
-                user.setResetKey(RandomUtil.generateResetKey());
-                user.setResetDate(Instant.now());
-                return updateUser(user);
-            });
+            .flatMap(user -> updateUser(user, changedUser -> {
+                changedUser.setResetKey(RandomUtil.generateResetKey());
+                changedUser.setResetDate(Instant.now());
+            }));
     }
 
+    /**
+     * Register a user, replacing the non-activated users with the same login or email.
+     * <p>
+     * The users with the same login or email are found in one query. The unique constraints still guard the insert,
+     * if another registration takes the login or email in between.
+     *
+     * @param userDTO the user.
+     * @param password the clear text password.
+     * @return the registered user.
+     */
     @Transactional
     public Mono<User> registerUser(UserDTO userDTO, String password) {
-        return userRepository.findOneByLogin(userDTO.getLogin().toLowerCase())
-            .flatMap(existingUser -> {
-                if (!existingUser.getActivated()) {
-                    return deleteUser(existingUser);
-                } else {
-                    throw new UsernameAlreadyUsedException();
+        String login = userDTO.getLogin().toLowerCase();
+        String email = userDTO.getEmail() == null ? null : userDTO.getEmail().toLowerCase();
+        return userRepository.findAllByLoginOrEmail(login, email)
+            .collectList()
+            .flatMap(existingUsers -> {
+                for (User existingUser : existingUsers) {
+                    if (existingUser.getActivated() && existingUser.getLogin().equals(login)) {
+                        return Mono.error(new UsernameAlreadyUsedException());
+                    }
                 }
-            })
-            .then(userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()))
-            .flatMap(existingUser -> {
-                if (!existingUser.getActivated()) {
-                    return deleteUser(existingUser);
-                } else {
-                    throw new EmailAlreadyUsedException();
+                for (User existingUser : existingUsers) {
+                    if (existingUser.getActivated()) {
+                        return Mono.error(new EmailAlreadyUsedException());
+                    }
                 }
+                return Flux.fromIterable(existingUsers).concatMap(this::deleteUser).then();
             })
             .thenReturn(new User())
             .flatMap(newUser -> {
@@ -118,12 +159,11 @@ public class UserService {
                 newUser.setActivated(false);
                 // new user gets registration key
                 newUser.setActivationKey(RandomUtil.generateActivationKey());
-                Set<Authority> authorities = new HashSet<>();
-                return authorityRepository.findById(AuthoritiesConstants.USER)
-                    .map(authorities::add)
-                    .thenReturn(newUser)
-                    .doOnNext(user -> user.setAuthorities(authorities))
-                    .flatMap(this::createUser)
+                // the foreign key of jhi_user_authority checks that the authority exists
+                Authority authority = new Authority();
+                authority.setName(AuthoritiesConstants.USER);
+                newUser.getAuthorities().add(authority);
+                return createUser(newUser)
                     .doOnNext(user -> log.debug("Created Information for User: {}", user));
             });
     }
@@ -163,21 +203,23 @@ public class UserService {
      * @param email     email id of user.
      * @param langKey   language key.
      * @param imageUrl  image URL of user.
+     * @param version   version of user the changes were made to, or {@code null} for the current one.
+     * @return an {@link OptimisticLockingFailureException} if the user was updated since that version.
      */
-    @Transactional
-    public Mono<Void> updateUser(String firstName, String lastName, String email, String langKey, String imageUrl) {
-        return SecurityUtils.getCurrentUserLogin()
+    public Mono<Void> updateUser(String firstName, String lastName, String email, String langKey, String imageUrl,
+                                 Long version) {
+        return transactionalOperator.transactional(SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .flatMap(user -> {
-                user.setFirstName(firstName);
-                user.setLastName(lastName);
+            .flatMap(user -> checkVersion(user, version))
+            .flatMap(user -> updateUser(user, changedUser -> {
+                changedUser.setFirstName(firstName);
+                changedUser.setLastName(lastName);
                 if (email != null) {
-                    user.setEmail(email.toLowerCase());
+                    changedUser.setEmail(email.toLowerCase());
                 }
-                user.setLangKey(langKey);
-                user.setImageUrl(imageUrl);
-                return updateUser(user);
-            })
+                changedUser.setLangKey(langKey);
+                changedUser.setImageUrl(imageUrl);
+            })))
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .then();
     }
@@ -185,45 +227,53 @@ public class UserService {
     /**
      * Update all information for a specific user, and return the modified user.
      *
-     * @param userDTO user to update.
-     * @return updated user.
+     * @param userDTO user to update, with the version it was read with, or {@code null} for the current one.
+     * @return updated user, or an {@link OptimisticLockingFailureException} if the user was updated since that version.
      */
-    @Transactional
     public Mono<UserDTO> updateUser(UserDTO userDTO) {
-        return userRepository.findById(userDTO.getId())
-            .flatMap(user -> {
-                user.setLogin(userDTO.getLogin().toLowerCase());
-                user.setFirstName(userDTO.getFirstName());
-                user.setLastName(userDTO.getLastName());
-                if (userDTO.getEmail() != null) {
-                    user.setEmail(userDTO.getEmail().toLowerCase());
-                }
-                user.setImageUrl(userDTO.getImageUrl());
-                user.setActivated(userDTO.isActivated());
-                user.setLangKey(userDTO.getLangKey());
-                Set<Authority> managedAuthorities = user.getAuthorities();
-                managedAuthorities.clear();
-                return Flux.fromIterable(userDTO.getAuthorities())
-                    .flatMap(authorityRepository::findById)
-                    .map(managedAuthorities::add)
-                    .then(Mono.just(user));
-            })
-            .flatMap(this::updateUser)
+        return transactionalOperator.transactional(userRepository.findById(userDTO.getId())
+            .flatMap(user -> checkVersion(user, userDTO.getVersion()))
+            .flatMap(user -> userDetailsCache.evict(user.getLogin()).thenReturn(user))
+            .flatMap(user -> Flux.fromIterable(userDTO.getAuthorities())
+                .flatMap(authorityRepository::findById)
+                .collect(Collectors.toSet())
+                .flatMap(managedAuthorities -> updateUser(user, changedUser -> {
+                    changedUser.setLogin(userDTO.getLogin().toLowerCase());
+                    changedUser.setFirstName(userDTO.getFirstName());
+                    changedUser.setLastName(userDTO.getLastName());
+                    if (userDTO.getEmail() != null) {
+                        changedUser.setEmail(userDTO.getEmail().toLowerCase());
+                    }
+                    changedUser.setImageUrl(userDTO.getImageUrl());
+                    changedUser.setActivated(userDTO.isActivated());
+                    changedUser.setLangKey(userDTO.getLangKey());
+                    changedUser.setAuthorities(managedAuthorities);
+                }))))
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .map(UserDTO::new);
     }
 
-    @Transactional
-    Mono<User> updateUser(User user) {
+    /**
+     * Apply changes to a user, and update only the columns of {@code jhi_user} they changed. Fails with an
+     * {@link OptimisticLockingFailureException} if the user was updated since it was read. Runs in the transaction of
+     * the caller.
+     */
+    Mono<User> updateUser(User user, Consumer<User> changes) {
         return SecurityUtils.getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM_ACCOUNT))
-            .flatMap(login -> {
-                user.setLastModifiedBy(login);
-                return userRepository.save(user);
-            });
+            .flatMap(login -> userRepository.update(user, changedUser -> {
+                    changes.accept(changedUser);
+                    changedUser.setLastModifiedBy(login);
+                })
+                .onErrorResume(DataIntegrityViolationException.class, e -> translateUniqueViolation(e, user)))
+            .flatMap(savedUser -> userDetailsCache.evict(savedUser.getLogin()).thenReturn(savedUser))
+            .flatMap(savedUser -> savedUser.getActivated() ? Mono.just(savedUser) :
+                refreshTokenService.revokeTokens(savedUser.getLogin()).thenReturn(savedUser));
     }
 
-    @Transactional
+    /**
+     * Insert a user with its authorities, in the transaction of the caller.
+     */
     Mono<User> createUser(User user) {
         return SecurityUtils.getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM_ACCOUNT))
@@ -231,6 +281,7 @@ public class UserService {
                 user.setCreatedBy(login);
                 user.setLastModifiedBy(login);
                 return userRepository.save(user)
+                    .onErrorResume(DataIntegrityViolationException.class, e -> translateUniqueViolation(e, user))
                     .flatMap(savedUser ->
                        Flux.fromIterable(user.getAuthorities())
                            .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
@@ -239,6 +290,72 @@ public class UserService {
             });
     }
 
+    /**
+     * Fail with an {@link OptimisticLockingFailureException} if the user is no longer at the version the client read.
+     */
+    private Mono<User> checkVersion(User user, Long version) {
+        if (version != null && !version.equals(user.getVersion())) {
+            return Mono.error(new OptimisticLockingFailureException("The user " + user.getId() + " was updated since its " +
+                "version " + version + " was read"));
+        }
+        return Mono.just(user);
+    }
+
+    /**
+     * Run an idempotent read-modify-write of a user in a transaction, and run it again, reading the user again, when a
+     * concurrent write updated the user in between. Each attempt has its own transaction, as a repeatable read one
+     * would read the same version again. Only for the changes the server makes on its own: an edit the client made to
+     * a version of the user must not be applied to another one.
+     */
+    private <T> Mono<T> retryOnConflict(Mono<T> readModifyWrite) {
+        return transactionalOperator.transactional(readModifyWrite)
+            .retry(CONFLICT_RETRIES, OptimisticLockingFailureException.class::isInstance);
+    }
+
+    /**
+     * Translate the violations of the unique constraints of {@code jhi_user}, so that the writes do not need to look
+     * for the users with the same login or email first. The drivers report a unique violation by its SQLState, but not
+     * which constraint it violated, so the other users with the same login or email are queried to tell.
+     */
+    private <T> Mono<T> translateUniqueViolation(DataIntegrityViolationException e, User user) {
+        if (!isUniqueViolation(e)) {
+            return Mono.error(e);
+        }
+        return userRepository.findAllByLoginOrEmail(user.getLogin(), user.getEmail())
+            .filter(existingUser -> !existingUser.getId().equals(user.getId()))
+            .collectList()
+            .flatMap(existingUsers -> {
+                if (existingUsers.stream().anyMatch(existingUser -> existingUser.getLogin().equals(user.getLogin()))) {
+                    return Mono.error(new UsernameAlreadyUsedException());
+                }
+                if (!existingUsers.isEmpty()) {
+                    return Mono.error(new EmailAlreadyUsedException());
+                }
+                return Mono.error(e);
+            });
+    }
+
+    /**
+     * Whether an error is a unique violation: SQLState {@code 23505} on H2 and PostgreSQL, error {@code 1062} on MySQL.
+     */
+    static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String sqlState = null;
+            int errorCode = 0;
+            if (cause instanceof R2dbcException) {
+                sqlState = ((R2dbcException) cause).getSqlState();
+                errorCode = ((R2dbcException) cause).getErrorCode();
+            } else if (cause instanceof SQLException) {
+                sqlState = ((SQLException) cause).getSQLState();
+                errorCode = ((SQLException) cause).getErrorCode();
+            }
+            if (UNIQUE_VIOLATION.equals(sqlState) || MYSQL_DUPLICATE_ENTRY == errorCode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Transactional
     public Mono<Void> deleteUser(String login) {
         return userRepository.findOneByLogin(login)
@@ -253,12 +370,87 @@ public class UserService {
             return Mono.empty();
         }
         return userRepository.deleteUserAuthoritiesByUserId(user.getId())
-            .then(userRepository.delete(user));
+            .then(userRepository.delete(user))
+            .then(userDetailsCache.evict(user.getLogin()))
+            .then(refreshTokenService.revokeTokens(user.getLogin()));
     }
 
+    /**
+     * Activate the selected users.
+     *
+     * @param selection the users.
+     * @return the number of activated users.
+     */
     @Transactional
-    public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
+    public Mono<Integer> activateUsers(UserSelection selection) {
+        return bulkUpdate("activate", selection, false, (login, users) ->
+            userRepository.updateActivatedBy(users, true, login, OffsetDateTime.now()));
+    }
+
+    /**
+     * Deactivate the selected users, except the current user, and revoke their sessions.
+     *
+     * @param selection the users.
+     * @return the number of deactivated users.
+     */
+    @Transactional
+    public Mono<Integer> deactivateUsers(UserSelection selection) {
+        return bulkUpdate("deactivate", selection, true, (login, users) ->
+            userRepository.updateActivatedBy(users, false, login, OffsetDateTime.now())
+                .flatMap(deactivated -> refreshTokenService.revokeTokens(users).thenReturn(deactivated)));
+    }
+
+    /**
+     * Delete the selected users, except the current user, and revoke their sessions.
+     *
+     * @param selection the users.
+     * @return the number of deleted users.
+     */
+    @Transactional
+    public Mono<Integer> deleteUsers(UserSelection selection) {
+        return bulkUpdate("delete", selection, true, (login, users) ->
+            refreshTokenService.revokeTokens(users).then(userRepository.deleteAllBy(users)));
+    }
+
+    /**
+     * Grant an authority to the selected users.
+     *
+     * @param selection the users.
+     * @param authority the name of an existing authority.
+     * @return the number of users granted the authority.
+     */
+    @Transactional
+    public Mono<Integer> addAuthority(UserSelection selection, String authority) {
+        return bulkUpdate("add authority " + authority, selection, false, (login, users) ->
+            userRepository.addAuthorityBy(users, authority));
+    }
+
+    /**
+     * Run a bulk operation as set-based statements, in the transaction of the caller.
+     * <p>
+     * The anonymous user is never selected. The user cache is evicted as a whole, and a single audit event records the
+     * whole batch.
+     */
+    private Mono<Integer> bulkUpdate(String operation, UserSelection selection, boolean excludeCurrentUser,
+                                     BiFunction<String, UserSelection, Mono<Integer>> statements) {
+        if (selection.getLogins() != null && selection.getLogins().isEmpty()) {
+            return Mono.just(0);
+        }
         return SecurityUtils.getCurrentUserLogin()
+            .switchIfEmpty(Mono.just(Constants.SYSTEM_ACCOUNT))
+            .flatMap(login -> {
+                UserSelection users = excludeCurrentUser ? selection.excluding(Constants.ANONYMOUS_USER, login) :
+                    selection.excluding(Constants.ANONYMOUS_USER);
+                return statements.apply(login, users)
+                    .flatMap(count -> userDetailsCache.evictAll()
+                        .then(auditEventService.saveUserBulkOperation(login, operation, users.toString(), count))
+                        .doOnNext(event -> log.debug("Bulk {} of {} users: {}", operation, count, users))
+                        .thenReturn(count));
+            });
+    }
+
+    public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
+        return retryOnConflict(SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
             .flatMap(user -> {
                 String currentEncryptedPassword = user.getPassword();
@@ -266,9 +458,8 @@ public class UserService {
                     return Mono.error(new InvalidPasswordException());
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
-                user.setPassword(encryptedPassword);
-                return updateUser(user);
-            })
+                return updateUser(user, changedUser -> changedUser.setPassword(encryptedPassword));
+            }))
             .doOnNext(user -> log.debug("Changed password for User: {}", user))
             .then();
     }
@@ -282,11 +473,53 @@ public class UserService {
         return userRepository.countAllByLoginNot(Constants.ANONYMOUS_USER);
     }
 
+    /**
+     * Search the users, except the anonymous one.
+     *
+     * @param selection the filter.
+     * @param pageable the page.
+     * @return the users of the page, without their authorities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<UserDTO> getAllManagedUsers(UserSelection selection, Pageable pageable) {
+        return getAllManagedUsers(selection, pageable, UserProjection.profile());
+    }
+
+    /**
+     * Search the users, except the anonymous one, reading only some of their properties.
+     *
+     * @param selection the filter.
+     * @param pageable the page.
+     * @param projection the properties to read, the others are left empty.
+     * @return the users of the page, without their authorities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<UserDTO> getAllManagedUsers(UserSelection selection, Pageable pageable, UserProjection projection) {
+        return userRepository.findAllBy(selection.excluding(Constants.ANONYMOUS_USER), pageable, projection)
+            .map(UserDTO::new);
+    }
+
+    public Mono<Long> countManagedUsers(UserSelection selection) {
+        return userRepository.countAllBy(selection.excluding(Constants.ANONYMOUS_USER));
+    }
+
     @Transactional(readOnly = true)
     public Mono<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneWithAuthoritiesByLogin(login);
     }
 
+    /**
+     * Get a user with its authorities, reading only some of its properties.
+     *
+     * @param login the login of the user.
+     * @param projection the properties to read, usually {@link UserProjection#profile()}.
+     * @return the user, which must not be saved.
+     */
+    @Transactional(readOnly = true)
+    public Mono<User> getUserWithAuthoritiesByLogin(String login, UserProjection projection) {
+        return userRepository.findOneWithAuthoritiesByLogin(login, projection);
+    }
+
     @Transactional(readOnly = true)
     public Mono<User> getUserWithAuthorities(Long id) {
         return userRepository.findOneWithAuthoritiesById(id);
@@ -297,6 +530,17 @@ public class UserService {
         return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
     }
 
+    /**
+     * Get the current user with its authorities, reading only some of its properties.
+     *
+     * @param projection the properties to read, usually {@link UserProjection#profile()}.
+     * @return the user, which must not be saved.
+     */
+    @Transactional(readOnly = true)
+    public Mono<User> getUserWithAuthorities(UserProjection projection) {
+        return SecurityUtils.getCurrentUserLogin().flatMap(login -> userRepository.findOneWithAuthoritiesByLogin(login, projection));
+    }
+
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
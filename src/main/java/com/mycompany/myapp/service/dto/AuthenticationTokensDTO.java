@@ -0,0 +1,24 @@
+package com.mycompany.myapp.service.dto;
+
+/**
+ * A DTO representing the tokens issued to an authenticated user - a short-lived access token and a refresh token.
+ */
+public class AuthenticationTokensDTO {
+
+    private final String accessToken;
+
+    private final String refreshToken;
+
+    public AuthenticationTokensDTO(String accessToken, String refreshToken) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+}
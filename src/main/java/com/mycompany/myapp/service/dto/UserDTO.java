@@ -50,6 +50,8 @@ public class UserDTO {
 
     private Set<String> authorities;
 
+    private Long version;
+
     public UserDTO() {
         // Empty constructor needed for Jackson.
     }
@@ -70,6 +72,7 @@ public class UserDTO {
         this.authorities = user.getAuthorities().stream()
             .map(Authority::getName)
             .collect(Collectors.toSet());
+        this.version = user.getVersion();
     }
 
     public Long getId() {
@@ -176,6 +179,14 @@ public class UserDTO {
         this.authorities = authorities;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "UserDTO{" +
@@ -191,6 +202,7 @@ public class UserDTO {
             ", lastModifiedBy='" + lastModifiedBy + '\'' +
             ", lastModifiedDate=" + lastModifiedDate +
             ", authorities=" + authorities +
+            ", version=" + version +
             "}";
     }
 }
@@ -0,0 +1,25 @@
+package com.mycompany.myapp.web.filter;
+
+import com.mycompany.myapp.aop.identity.IdentityMap;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives each request its own {@link IdentityMap}, in the Reactor context of the filter chain.
+ */
+public class IdentityMapWebFilter implements WebFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return chain.filter(exchange).subscriberContext(IdentityMap.withIdentityMap());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mycompany.myapp.web.filter;
+
+import com.mycompany.myapp.aop.tracing.TraceContext;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Starts the trace of each request, or continues the trace of the caller if it sent B3 headers, and puts it in the
+ * Reactor context of the filter chain.
+ */
+public class TracingWebFilter implements WebFilter, Ordered {
+
+    public static final String TRACE_ID_HEADER = "X-B3-TraceId";
+
+    public static final String SPAN_ID_HEADER = "X-B3-SpanId";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        TraceContext trace = TraceContext.continueFrom(headers.getFirst(TRACE_ID_HEADER), headers.getFirst(SPAN_ID_HEADER));
+        exchange.getResponse().getHeaders().set(TRACE_ID_HEADER, trace.getTraceId());
+        return chain.filter(exchange).subscriberContext(c -> c.put(TraceContext.KEY, trace));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
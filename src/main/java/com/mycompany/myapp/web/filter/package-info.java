@@ -0,0 +1,4 @@
+/**
+ * Web filters.
+ */
+package com.mycompany.myapp.web.filter;
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.repository.UserProjection;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.SecurityUtils;
 import com.mycompany.myapp.service.MailService;
@@ -13,6 +14,7 @@ import com.mycompany.myapp.web.rest.vm.ManagedUserVM;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ServerWebExchange;
@@ -102,7 +104,7 @@ public class AccountResource {
      */
     @GetMapping("/account")
     public Mono<UserDTO> getAccount() {
-        return userService.getUserWithAuthorities()
+        return userService.getUserWithAuthorities(UserProjection.profile())
             .map(UserDTO::new)
             .switchIfEmpty(Mono.error(new AccountResourceException("User could not be found")));
     }
@@ -112,6 +114,7 @@ public class AccountResource {
      *
      * @param userDTO the current user information.
      * @throws EmailAlreadyUsedException {@code 400 (Bad Request)} if the email is already used.
+     * @throws OptimisticLockingFailureException {@code 409 (Conflict)} if the user was updated since its version was read.
      * @throws RuntimeException {@code 500 (Internal Server Error)} if the user login wasn't found.
      */
     @PostMapping("/account")
@@ -129,7 +132,7 @@ public class AccountResource {
                 }))
                 .switchIfEmpty(Mono.error(new AccountResourceException("User could not be found")))
                 .flatMap(user -> userService.updateUser(userDTO.getFirstName(), userDTO.getLastName(), userDTO.getEmail(),
-                    userDTO.getLangKey(), userDTO.getImageUrl()));
+                    userDTO.getLangKey(), userDTO.getImageUrl(), userDTO.getVersion()));
     }
 
     /**
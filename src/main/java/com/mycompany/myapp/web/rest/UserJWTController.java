@@ -1,16 +1,21 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.security.LoginRateLimiter;
 import com.mycompany.myapp.security.jwt.JWTFilter;
-import com.mycompany.myapp.security.jwt.TokenProvider;
 import com.mycompany.myapp.service.AuditEventService;
+import com.mycompany.myapp.service.RefreshTokenService;
+import com.mycompany.myapp.service.dto.AuthenticationTokensDTO;
 import com.mycompany.myapp.web.rest.vm.LoginVM;
+import com.mycompany.myapp.web.rest.vm.RefreshTokenVM;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -18,6 +23,8 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 
 /**
  * Controller to authenticate users.
@@ -26,32 +33,66 @@ import javax.validation.Valid;
 @RequestMapping("/api")
 public class UserJWTController {
 
-    private final TokenProvider tokenProvider;
+    private final RefreshTokenService refreshTokenService;
 
     private final ReactiveAuthenticationManager authenticationManager;
 
     private final AuditEventService auditEventService;
 
-    public UserJWTController(TokenProvider tokenProvider, ReactiveAuthenticationManager authenticationManager, AuditEventService auditEventService) {
-        this.tokenProvider = tokenProvider;
+    private final LoginRateLimiter loginRateLimiter;
+
+    public UserJWTController(RefreshTokenService refreshTokenService, ReactiveAuthenticationManager authenticationManager,
+                             AuditEventService auditEventService, LoginRateLimiter loginRateLimiter) {
+        this.refreshTokenService = refreshTokenService;
         this.authenticationManager = authenticationManager;
         this.auditEventService = auditEventService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @PostMapping("/authenticate")
-    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM) {
-        return loginVM
-            .flatMap(login -> authenticationManager
-                .authenticate(new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()))
-                .onErrorResume(throwable -> onAuthenticationError(login, throwable))
-                .flatMap(auth -> onAuthenticationSuccess(login, auth))
-                .map(auth -> tokenProvider.createToken(auth, Boolean.TRUE.equals(login.isRememberMe())))
-            )
-            .map(jwt -> {
-                HttpHeaders httpHeaders = new HttpHeaders();
-                httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-                return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
-            });
+    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM, ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        InetAddress address = remoteAddress == null ? null : remoteAddress.getAddress();
+        return loginVM.flatMap(login -> loginRateLimiter.tryAcquire(login.getUsername(), address)
+            .flatMap(allowed -> allowed ? authenticate(login) : tooManyRequests()));
+    }
+
+    private Mono<ResponseEntity<JWTToken>> authenticate(LoginVM login) {
+        return authenticationManager
+            .authenticate(new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()))
+            .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Invalid Credentials")))
+            .onErrorResume(throwable -> onAuthenticationError(login, throwable))
+            .flatMap(auth -> onAuthenticationSuccess(login, auth))
+            .flatMap(auth -> refreshTokenService.createTokens(auth, Boolean.TRUE.equals(login.isRememberMe())))
+            .switchIfEmpty(Mono.error(() -> new IllegalStateException("No token created for " + login.getUsername())))
+            .map(this::toResponse);
+    }
+
+    private Mono<ResponseEntity<JWTToken>> tooManyRequests() {
+        return Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, loginRateLimiter.getRetryAfter().getSeconds())))
+            .build());
+    }
+
+    /**
+     * {@code POST  /authenticate/refresh} : exchange a refresh token for a new access token and refresh token.
+     *
+     * @param refreshTokenVM the refresh token.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the new tokens in body, or with status
+     * {@code 401 (Unauthorized)} if the refresh token is unknown, expired or revoked.
+     */
+    @PostMapping("/authenticate/refresh")
+    public Mono<ResponseEntity<JWTToken>> refresh(@Valid @RequestBody Mono<RefreshTokenVM> refreshTokenVM) {
+        return refreshTokenVM
+            .flatMap(vm -> refreshTokenService.refreshTokens(vm.getRefreshToken()))
+            .map(this::toResponse)
+            .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()));
+    }
+
+    private ResponseEntity<JWTToken> toResponse(AuthenticationTokensDTO tokens) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + tokens.getAccessToken());
+        return new ResponseEntity<>(new JWTToken(tokens.getAccessToken(), tokens.getRefreshToken()), httpHeaders, HttpStatus.OK);
     }
 
     private Mono<? extends Authentication> onAuthenticationSuccess(LoginVM login, Authentication auth) {
@@ -77,8 +118,11 @@ public class UserJWTController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -89,5 +133,14 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
@@ -2,7 +2,8 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.User;
-import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.UserProjection;
+import com.mycompany.myapp.repository.UserSelection;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.MailService;
 import com.mycompany.myapp.service.UserService;
@@ -10,6 +11,9 @@ import com.mycompany.myapp.service.dto.UserDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import com.mycompany.myapp.web.rest.errors.EmailAlreadyUsedException;
 import com.mycompany.myapp.web.rest.errors.LoginAlreadyUsedException;
+import com.mycompany.myapp.web.rest.vm.UserSelectionVM;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.PaginationUtil;
@@ -17,6 +21,7 @@ import io.github.jhipster.web.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -32,8 +37,15 @@ import reactor.core.publisher.Mono;
 import javax.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * REST controller for managing users.
@@ -63,6 +75,26 @@ import java.util.List;
 @RequestMapping("/api")
 public class UserResource {
 
+    /**
+     * The fields of a {@link UserDTO} which a sparse fieldset can select, as many as its {@link UserProjection#profile()}.
+     */
+    private static final Map<String, Function<UserDTO, Object>> DTO_FIELDS = new LinkedHashMap<>();
+
+    static {
+        DTO_FIELDS.put("id", UserDTO::getId);
+        DTO_FIELDS.put("login", UserDTO::getLogin);
+        DTO_FIELDS.put("firstName", UserDTO::getFirstName);
+        DTO_FIELDS.put("lastName", UserDTO::getLastName);
+        DTO_FIELDS.put("email", UserDTO::getEmail);
+        DTO_FIELDS.put("imageUrl", UserDTO::getImageUrl);
+        DTO_FIELDS.put("activated", UserDTO::isActivated);
+        DTO_FIELDS.put("langKey", UserDTO::getLangKey);
+        DTO_FIELDS.put("createdBy", UserDTO::getCreatedBy);
+        DTO_FIELDS.put("createdDate", UserDTO::getCreatedDate);
+        DTO_FIELDS.put("lastModifiedBy", UserDTO::getLastModifiedBy);
+        DTO_FIELDS.put("lastModifiedDate", UserDTO::getLastModifiedDate);
+    }
+
     private final Logger log = LoggerFactory.getLogger(UserResource.class);
 
     @Value("${jhipster.clientApp.name}")
@@ -70,13 +102,10 @@ public class UserResource {
 
     private final UserService userService;
 
-    private final UserRepository userRepository;
-
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    public UserResource(UserService userService, MailService mailService) {
         this.userService = userService;
-        this.userRepository = userRepository;
         this.mailService = mailService;
     }
 
@@ -84,7 +113,7 @@ public class UserResource {
      * {@code POST  /users}  : Creates a new user.
      * <p>
      * Creates a new user if the login and email are not already used, and sends an
-     * mail with an activation link.
+     * mail with an activation link. The unique constraints of the login and the email are checked by the insert itself.
      * The user needs to be activated on creation.
      *
      * @param userDTO the user to create.
@@ -98,23 +127,8 @@ public class UserResource {
 
         if (userDTO.getId() != null) {
             throw new BadRequestAlertException("A new user cannot already have an ID", "userManagement", "idexists");
-            // Lowercase the user login before comparing with database
         }
-        return userRepository.findOneByLogin(userDTO.getLogin().toLowerCase())
-            .hasElement()
-            .flatMap(loginExists -> {
-                if (Boolean.TRUE.equals(loginExists)) {
-                    return Mono.error(new LoginAlreadyUsedException());
-                }
-                return userRepository.findOneByEmailIgnoreCase(userDTO.getEmail());
-            })
-            .hasElement()
-            .flatMap(emailExists -> {
-                if (Boolean.TRUE.equals(emailExists)) {
-                    return Mono.error(new EmailAlreadyUsedException());
-                }
-                return userService.createUser(userDTO);
-            })
+        return userService.createUser(userDTO)
             .doOnSuccess(mailService::sendCreationEmail)
             .map(user -> {
                 try {
@@ -129,33 +143,20 @@ public class UserResource {
 
     /**
      * {@code PUT /users} : Updates an existing User.
+     * <p>
+     * The unique constraints of the login and the email are checked by the update itself.
      *
-     * @param userDTO the user to update.
+     * @param userDTO the user to update, with the version it was read with.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated user.
      * @throws EmailAlreadyUsedException {@code 400 (Bad Request)} if the email is already in use.
      * @throws LoginAlreadyUsedException {@code 400 (Bad Request)} if the login is already in use.
+     * @throws OptimisticLockingFailureException {@code 409 (Conflict)} if the user was updated since its version was read.
      */
     @PutMapping("/users")
     @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
     public Mono<ResponseEntity<UserDTO>> updateUser(@Valid @RequestBody UserDTO userDTO) {
         log.debug("REST request to update User : {}", userDTO);
-        return userRepository.findOneByEmailIgnoreCase(userDTO.getEmail())
-            .filter(user -> !user.getId().equals(userDTO.getId()))
-            .hasElement()
-            .flatMap(emailExists -> {
-                if (Boolean.TRUE.equals(emailExists)) {
-                    return Mono.error(new EmailAlreadyUsedException());
-                }
-                return userRepository.findOneByLogin(userDTO.getLogin().toLowerCase());
-            })
-            .filter(user -> !user.getId().equals(userDTO.getId()))
-            .hasElement()
-            .flatMap(loginExists -> {
-                if (Boolean.TRUE.equals(loginExists)) {
-                    return Mono.error(new LoginAlreadyUsedException());
-                }
-                return userService.updateUser(userDTO);
-            })
+        return userService.updateUser(userDTO)
             .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
             .map(user -> ResponseEntity.ok()
                 .headers(HeaderUtil.createAlert(applicationName, "userManagement.updated", userDTO.getLogin()))
@@ -164,18 +165,67 @@ public class UserResource {
     }
 
     /**
-     * {@code GET /users} : get all users.
+     * {@code GET /users} : get all users, or the users matching the filter.
      *
      * @param request a {@link ServerHttpRequest} request.
+     * @param loginPrefix the beginning of the login of the users.
+     * @param emailPrefix the beginning of the email of the users.
+     * @param activated whether the users are activated.
+     * @param authority an authority of the users.
+     * @param createdFrom the first day of creation of the users.
+     * @param createdTo the last day of creation of the users.
+     * @param fields the properties of the users to return, such as {@code login,email}, or all of them.
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users, or with status
+     * {@code 400 (Bad Request)} if a field is unknown.
      */
     @GetMapping("/users")
-    public Mono<ResponseEntity<Flux<UserDTO>>> getAllUsers(ServerHttpRequest request, Pageable pageable) {
-        return userService.countManagedUsers()
+    public Mono<ResponseEntity<Flux<?>>> getAllUsers(ServerHttpRequest request,
+                                                     @RequestParam(value = "loginPrefix", required = false) String loginPrefix,
+                                                     @RequestParam(value = "emailPrefix", required = false) String emailPrefix,
+                                                     @RequestParam(value = "activated", required = false) Boolean activated,
+                                                     @RequestParam(value = "authority", required = false) String authority,
+                                                     @RequestParam(value = "createdFrom", required = false) LocalDate createdFrom,
+                                                     @RequestParam(value = "createdTo", required = false) LocalDate createdTo,
+                                                     @RequestParam(value = "fields", required = false) List<String> fields,
+                                                     Pageable pageable) {
+        UserProjection projection = toUserProjection(fields);
+        UserSelection selection = UserSelection.all()
+            .withLoginPrefix(loginPrefix)
+            .withEmailPrefix(emailPrefix)
+            .withActivated(activated)
+            .withAuthority(authority)
+            .withCreatedDate(
+                createdFrom == null ? null : createdFrom.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                createdTo == null ? null : createdTo.atStartOfDay(ZoneId.systemDefault()).plusDays(1).toInstant());
+        return userService.countManagedUsers(selection)
             .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
             .map(page -> PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
-            .map(headers -> ResponseEntity.ok().headers(headers).body(userService.getAllManagedUsers(pageable)));
+            .map(headers -> {
+                Flux<UserDTO> users = userService.getAllManagedUsers(selection, pageable, projection);
+                return ResponseEntity.ok().headers(headers).body(fields == null ? users : users.map(user -> toFields(user, fields)));
+            });
+    }
+
+    /**
+     * The columns to read for a sparse fieldset: all those of the {@link UserDTO} without one.
+     */
+    private static UserProjection toUserProjection(List<String> fields) {
+        if (fields == null) {
+            return UserProjection.profile();
+        }
+        if (fields.isEmpty() || !DTO_FIELDS.keySet().containsAll(fields)) {
+            throw new BadRequestAlertException("The fields must be among " + DTO_FIELDS.keySet(), "userManagement", "unknownfield");
+        }
+        return UserProjection.profile(fields);
+    }
+
+    private static Map<String, Object> toFields(UserDTO user, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, DTO_FIELDS.get(field).apply(user));
+        }
+        return values;
     }
 
     /**
@@ -197,7 +247,7 @@ public class UserResource {
     @GetMapping("/users/{login:" + Constants.LOGIN_REGEX + "}")
     public Mono<UserDTO> getUser(@PathVariable String login) {
         log.debug("REST request to get User : {}", login);
-        return userService.getUserWithAuthoritiesByLogin(login)
+        return userService.getUserWithAuthoritiesByLogin(login, UserProjection.profile())
             .map(UserDTO::new)
             .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
     }
@@ -216,4 +266,106 @@ public class UserResource {
         return userService.deleteUser(login)
             .map(it -> ResponseEntity.noContent().headers(HeaderUtil.createAlert( applicationName, "userManagement.deleted", login)).build());
     }
+
+    /**
+     * {@code POST /users/bulk/activate} : activate the selected users.
+     *
+     * @param selection the logins of the users, or a filter.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of activated users.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the selection has both or neither logins and a filter.
+     */
+    @PostMapping("/users/bulk/activate")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<BulkResult>> activateUsers(@Valid @RequestBody UserSelectionVM selection) {
+        log.debug("REST request to activate Users: {}", selection);
+        return toBulkResult(userService.activateUsers(toUserSelection(selection)));
+    }
+
+    /**
+     * {@code POST /users/bulk/deactivate} : deactivate the selected users, except the current one, and revoke their sessions.
+     *
+     * @param selection the logins of the users, or a filter.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of deactivated users.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the selection has both or neither logins and a filter.
+     */
+    @PostMapping("/users/bulk/deactivate")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<BulkResult>> deactivateUsers(@Valid @RequestBody UserSelectionVM selection) {
+        log.debug("REST request to deactivate Users: {}", selection);
+        return toBulkResult(userService.deactivateUsers(toUserSelection(selection)));
+    }
+
+    /**
+     * {@code POST /users/bulk/delete} : delete the selected users, except the current one.
+     *
+     * @param selection the logins of the users, or a filter.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of deleted users.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the selection has both or neither logins and a filter.
+     */
+    @PostMapping("/users/bulk/delete")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<BulkResult>> deleteUsers(@Valid @RequestBody UserSelectionVM selection) {
+        log.debug("REST request to delete Users: {}", selection);
+        return toBulkResult(userService.deleteUsers(toUserSelection(selection)));
+    }
+
+    /**
+     * {@code POST /users/bulk/authorities/:authority} : grant an authority to the selected users.
+     *
+     * @param authority the name of the authority.
+     * @param selection the logins of the users, or a filter.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of users granted the authority.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the authority does not exist, or if the selection
+     * has both or neither logins and a filter.
+     */
+    @PostMapping("/users/bulk/authorities/{authority}")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<BulkResult>> addAuthority(@PathVariable String authority,
+                                                         @Valid @RequestBody UserSelectionVM selection) {
+        log.debug("REST request to add authority {} to Users: {}", authority, selection);
+        UserSelection users = toUserSelection(selection);
+        return userService.getAuthorities()
+            .any(authority::equals)
+            .flatMap(exists -> {
+                if (!Boolean.TRUE.equals(exists)) {
+                    return Mono.error(new BadRequestAlertException("Unknown authority", "userManagement", "authoritynotfound"));
+                }
+                return toBulkResult(userService.addAuthority(users, authority));
+            });
+    }
+
+    private static UserSelection toUserSelection(UserSelectionVM selection) {
+        boolean filtered = selection.getActivated() != null || selection.getAuthority() != null ||
+            selection.getEmailDomain() != null;
+        if (selection.getLogins() != null && !filtered) {
+            return UserSelection.ofLogins(selection.getLogins().stream()
+                .map(login -> login.toLowerCase(Locale.ENGLISH))
+                .collect(Collectors.toList()));
+        }
+        if (selection.getLogins() == null && filtered) {
+            return UserSelection.matching(selection.getActivated(), selection.getAuthority(), selection.getEmailDomain());
+        }
+        throw new BadRequestAlertException("A bulk operation needs either logins or a filter", "userManagement", "invalidselection");
+    }
+
+    private static Mono<ResponseEntity<BulkResult>> toBulkResult(Mono<Integer> count) {
+        return count.map(it -> ResponseEntity.ok(new BulkResult(it)));
+    }
+
+    /**
+     * Object to return as body in the bulk operation responses.
+     */
+    static class BulkResult {
+
+        private final int count;
+
+        BulkResult(int count) {
+            this.count = count;
+        }
+
+        @JsonProperty("count")
+        int getCount() {
+            return count;
+        }
+    }
 }
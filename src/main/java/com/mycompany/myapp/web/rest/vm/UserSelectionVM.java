@@ -0,0 +1,69 @@
+package com.mycompany.myapp.web.rest.vm;
+
+import com.mycompany.myapp.config.Constants;
+
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.Set;
+
+/**
+ * View Model object for selecting the users of a bulk operation: either a list of logins, or a filter.
+ */
+public class UserSelectionVM {
+
+    public static final int MAX_LOGINS = 10000;
+
+    @Size(max = MAX_LOGINS)
+    private Set<@Pattern(regexp = Constants.LOGIN_REGEX) @Size(min = 1, max = 50) String> logins;
+
+    private Boolean activated;
+
+    @Size(max = 50)
+    private String authority;
+
+    @Pattern(regexp = "^[A-Za-z0-9.-]+$")
+    @Size(max = 191)
+    private String emailDomain;
+
+    public Set<String> getLogins() {
+        return logins;
+    }
+
+    public void setLogins(Set<String> logins) {
+        this.logins = logins;
+    }
+
+    public Boolean getActivated() {
+        return activated;
+    }
+
+    public void setActivated(Boolean activated) {
+        this.activated = activated;
+    }
+
+    public String getAuthority() {
+        return authority;
+    }
+
+    public void setAuthority(String authority) {
+        this.authority = authority;
+    }
+
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+
+    public void setEmailDomain(String emailDomain) {
+        this.emailDomain = emailDomain;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSelectionVM{" +
+            "logins=" + (logins == null ? null : logins.size()) +
+            ", activated=" + activated +
+            ", authority='" + authority + "'" +
+            ", emailDomain='" + emailDomain + "'" +
+            "}";
+    }
+}
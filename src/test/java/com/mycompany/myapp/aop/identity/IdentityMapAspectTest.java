@@ -0,0 +1,138 @@
+package com.mycompany.myapp.aop.identity;
+
+import com.mycompany.myapp.domain.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link IdentityMapAspect}.
+ */
+public class IdentityMapAspectTest {
+
+    private final TestUserRepository target = new TestUserRepository();
+
+    private TestRepository repository;
+
+    @BeforeEach
+    public void setup() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new IdentityMapAspect());
+        repository = factory.getProxy();
+    }
+
+    @Test
+    public void testMemoizesTheLoadsOfAUnitOfWork() {
+        User[] users = Mono.zip(repository.findOneByLogin("john"), repository.findOneByLogin("john"),
+            repository.findById(1L), repository.findById(1L), repository.findOneByLogin("jane"))
+            .map(loaded -> new User[] { loaded.getT1(), loaded.getT2(), loaded.getT3(), loaded.getT4(), loaded.getT5() })
+            .subscriberContext(IdentityMap.withIdentityMap())
+            .block();
+
+        assertThat(users[1]).isSameAs(users[0]);
+        assertThat(users[3]).isSameAs(users[2]);
+        assertThat(users[4].getLogin()).isEqualTo("jane");
+        assertThat(target.loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testDoesNotMemoizeTheOtherFinders() {
+        repository.findAllByLogin("john")
+            .thenMany(repository.findAllByLogin("john"))
+            .subscriberContext(IdentityMap.withIdentityMap())
+            .blockLast();
+
+        assertThat(target.loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testClearsTheLoadsOnWrites() {
+        User[] users = repository.findOneByLogin("john")
+            .flatMap(user -> repository.save(user).then(repository.findOneByLogin("john"))
+                .map(reloaded -> new User[] { user, reloaded }))
+            .subscriberContext(IdentityMap.withIdentityMap())
+            .block();
+
+        assertThat(users[1]).isNotSameAs(users[0]);
+        assertThat(target.loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDoesNotMemoizeTheFailedLoads() {
+        target.failures.set(1);
+
+        User user = repository.findOneByLogin("john")
+            .onErrorResume(e -> repository.findOneByLogin("john"))
+            .subscriberContext(IdentityMap.withIdentityMap())
+            .block();
+
+        assertThat(user.getLogin()).isEqualTo("john");
+        assertThat(target.loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLoadsEachTimeWithoutIdentityMap() {
+        repository.findOneByLogin("john").then(repository.findOneByLogin("john")).block();
+
+        assertThat(target.loads.get()).isEqualTo(2);
+    }
+
+    public interface TestRepository extends Repository<User, Long> {
+
+        Mono<User> findById(Long id);
+
+        Mono<User> findOneByLogin(String login);
+
+        Flux<User> findAllByLogin(String login);
+
+        Mono<User> save(User user);
+    }
+
+    private static class TestUserRepository implements TestRepository {
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public Mono<User> findById(Long id) {
+            return load(id, "john");
+        }
+
+        @Override
+        public Mono<User> findOneByLogin(String login) {
+            return load(1L, login);
+        }
+
+        @Override
+        public Flux<User> findAllByLogin(String login) {
+            return load(1L, login).flux();
+        }
+
+        @Override
+        public Mono<User> save(User user) {
+            return Mono.just(user);
+        }
+
+        private Mono<User> load(Long id, String login) {
+            return Mono.fromCallable(() -> {
+                loads.incrementAndGet();
+                if (failures.getAndUpdate(failures -> Math.max(failures - 1, 0)) > 0) {
+                    throw new IllegalStateException("Connection lost");
+                }
+                User user = new User();
+                user.setId(id);
+                user.setLogin(login);
+                return user;
+            });
+        }
+    }
+}
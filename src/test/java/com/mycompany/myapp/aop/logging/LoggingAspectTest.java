@@ -0,0 +1,159 @@
+package com.mycompany.myapp.aop.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the {@link LoggingAspect}.
+ */
+public class LoggingAspectTest {
+
+    private static final String SIGNATURE = TestService.class.getName() + ".update()";
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(TestService.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private Level level;
+
+    @BeforeEach
+    public void setup() {
+        level = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(level);
+    }
+
+    @Test
+    public void testLogsNoCallAtSampleRateZero() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), 0.0);
+
+        for (int i = 0; i < 100; i++) {
+            aspect.logAround(joinPoint("result", "john", "secret", "12345"));
+        }
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    public void testLogsEveryCallAtSampleRateOne() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), 1.0);
+
+        for (int i = 0; i < 100; i++) {
+            aspect.logAround(joinPoint("result", "john", "secret", "12345"));
+        }
+
+        assertThat(messages()).hasSize(200);
+    }
+
+    @Test
+    public void testLogsNothingBelowDebugLevel() throws Throwable {
+        logger.setLevel(Level.INFO);
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), 1.0);
+
+        aspect.logAround(joinPoint("result", "john", "secret", "12345"));
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    public void testRedactsTheSensitiveParameters() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), 1.0);
+
+        aspect.logAround(joinPoint("result", "john", "secret", "12345"));
+
+        assertThat(messages()).containsExactly(
+            "Enter: " + SIGNATURE + " with argument[s] = [john, ****, ****]",
+            "Exit: " + SIGNATURE + " with result = result");
+    }
+
+    @Test
+    public void testLogsTheValueOfAMonoWhenItIsEmitted() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), 1.0);
+
+        Mono<?> result = (Mono<?>) aspect.logAround(joinPoint(Mono.just("result"), "john", "secret", "12345"));
+
+        assertThat(messages()).hasSize(1);
+        result.block();
+        assertThat(messages()).endsWith("Exit: " + SIGNATURE + " with result = result");
+    }
+
+    @Test
+    public void testLogsTheValuesOfAFluxWhenTheyAreEmitted() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), 1.0);
+
+        Flux<?> result = (Flux<?>) aspect.logAround(joinPoint(Flux.just("first", "second"), "john", "secret", "12345"));
+
+        assertThat(messages()).hasSize(1);
+        result.blockLast();
+        assertThat(messages()).endsWith(
+            "Next: " + SIGNATURE + " with result = first",
+            "Next: " + SIGNATURE + " with result = second",
+            "Exit: " + SIGNATURE);
+    }
+
+    @Test
+    public void testRedactsSensitiveFields() {
+        String rendered = LoggingAspect.redact(
+            "User{login='john', langKey='en', activationKey='12345', resetKey=67890, password=\"secret\"}");
+
+        assertThat(rendered).isEqualTo(
+            "User{login='john', langKey='en', activationKey=****, resetKey=****, password=****}");
+    }
+
+    @Test
+    public void testKeepsOtherValues() {
+        String rendered = LoggingAspect.redact("UserDTO{login='john', email='john@localhost'}");
+
+        assertThat(rendered).isEqualTo("UserDTO{login='john', email='john@localhost'}");
+    }
+
+    private List<String> messages() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    }
+
+    private static ProceedingJoinPoint joinPoint(Object result, Object... args) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(TestService.class.getMethod("update", String.class, String.class, String.class));
+        when(signature.getDeclaringTypeName()).thenReturn(TestService.class.getName());
+        when(signature.getName()).thenReturn("update");
+        when(signature.getParameterNames()).thenReturn(new String[] { "login", "newPassword", "key" });
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { String.class, String.class, String.class });
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(joinPoint.proceed()).thenReturn(result);
+        return joinPoint;
+    }
+
+    public static class TestService {
+
+        public Object update(String login, String newPassword, String key) {
+            return null;
+        }
+    }
+}
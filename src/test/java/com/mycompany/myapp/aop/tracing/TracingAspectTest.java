@@ -0,0 +1,159 @@
+package com.mycompany.myapp.aop.tracing;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the {@link TracingAspect}.
+ */
+public class TracingAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TestTracedRepository target = new TestTracedRepository();
+
+    private TestRepository repository;
+
+    @BeforeEach
+    public void setup() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new TracingAspect(meterRegistry));
+        repository = factory.getProxy();
+        target.self = repository;
+    }
+
+    @Test
+    public void testTimesAMonoFromSubscriptionToCompletion() throws Exception {
+        Mono<String> delayed = repository.findDelayed(Duration.ofMillis(100));
+        Thread.sleep(500);
+
+        assertThat(delayed.block()).isEqualTo("done");
+
+        Timer timer = timer("findDelayed", "none");
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isBetween(100.0, 500.0);
+    }
+
+    @Test
+    public void testTimesAFluxFromSubscriptionToCompletion() throws Exception {
+        Flux<Long> ticks = repository.findAllTicks(Duration.ofMillis(50), 3);
+        Thread.sleep(500);
+
+        assertThat(ticks.collectList().block()).hasSize(3);
+
+        Timer timer = timer("findAllTicks", "none");
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isBetween(150.0, 500.0);
+    }
+
+    @Test
+    public void testTagsTheErrors() {
+        assertThatThrownBy(() -> repository.findFailing().block()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(timer("findFailing", "IllegalStateException").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTagsTheCancellations() {
+        assertThatThrownBy(() -> repository.findNever().timeout(Duration.ofMillis(50)).block())
+            .hasCauseInstanceOf(TimeoutException.class);
+
+        assertThat(timer("findNever", "cancelled").count()).isEqualTo(1);
+        assertThat(timer("findNever", "none").count()).isEqualTo(0);
+    }
+
+    @Test
+    public void testMakesTheNestedCallsChildSpans() {
+        TraceContext root = TraceContext.root();
+
+        TraceContext[] spans = repository.findSpans()
+            .subscriberContext(context -> context.put(TraceContext.KEY, root))
+            .block();
+
+        TraceContext caller = spans[0];
+        TraceContext nested = spans[1];
+        assertThat(caller.getTraceId()).isEqualTo(root.getTraceId());
+        assertThat(caller.getParentSpanId()).isEqualTo(root.getSpanId());
+        assertThat(nested.getTraceId()).isEqualTo(root.getTraceId());
+        assertThat(nested.getParentSpanId()).isEqualTo(caller.getSpanId());
+    }
+
+    @Test
+    public void testStartsATraceWithoutTraceContext() {
+        TraceContext span = repository.findSpan().block();
+
+        assertThat(span).isNotNull();
+        assertThat(span.getParentSpanId()).isNull();
+    }
+
+    private Timer timer(String method, String exception) {
+        return meterRegistry.get("method.timed")
+            .tag("class", "TestRepository")
+            .tag("method", method)
+            .tag("exception", exception)
+            .timer();
+    }
+
+    public interface TestRepository extends Repository<Object, Long> {
+
+        Mono<String> findDelayed(Duration delay);
+
+        Flux<Long> findAllTicks(Duration period, int count);
+
+        Mono<String> findFailing();
+
+        Mono<String> findNever();
+
+        Mono<TraceContext[]> findSpans();
+
+        Mono<TraceContext> findSpan();
+    }
+
+    private static class TestTracedRepository implements TestRepository {
+
+        private TestRepository self;
+
+        @Override
+        public Mono<String> findDelayed(Duration delay) {
+            return Mono.delay(delay).thenReturn("done");
+        }
+
+        @Override
+        public Flux<Long> findAllTicks(Duration period, int count) {
+            return Flux.interval(period).take(count);
+        }
+
+        @Override
+        public Mono<String> findFailing() {
+            return Mono.error(new IllegalStateException("Connection lost"));
+        }
+
+        @Override
+        public Mono<String> findNever() {
+            return Mono.never();
+        }
+
+        @Override
+        public Mono<TraceContext[]> findSpans() {
+            return findSpan().zipWith(self.findSpan(), (caller, nested) -> new TraceContext[] { caller, nested });
+        }
+
+        @Override
+        public Mono<TraceContext> findSpan() {
+            return Mono.subscriberContext().map(TraceContext::current);
+        }
+    }
+}
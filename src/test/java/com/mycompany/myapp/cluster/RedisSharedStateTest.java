@@ -0,0 +1,101 @@
+package com.mycompany.myapp.cluster;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the {@link RedisSharedState}, against an embedded stand-in of a Redis server, with one
+ * {@link RedisSharedState} per simulated node. The stand-in cannot run scripts, so the counters are tested against a
+ * mocked template.
+ */
+public class RedisSharedStateTest {
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private RedisSharedState node1;
+
+    private RedisSharedState node2;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        node1 = new RedisSharedState(new ReactiveStringRedisTemplate(connectionFactory), "test:");
+        node2 = new RedisSharedState(new ReactiveStringRedisTemplate(connectionFactory), "test:");
+        // The stand-in creates its database on the first command, which is not thread-safe
+        new ReactiveStringRedisTemplate(connectionFactory).hasKey("warm-up").block();
+    }
+
+    @AfterEach
+    public void teardown() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    public void testIncrementsAndSetsTheExpiryInOneCommand() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.listenToChannel(anyString())).thenReturn(Flux.never());
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+        RedisSharedState sharedState = new RedisSharedState(redisTemplate, "test:");
+
+        assertThat(sharedState.increment("counter", Duration.ofMinutes(1)).block()).isEqualTo(1);
+
+        verify(redisTemplate).execute(RedisSharedState.INCREMENT_SCRIPT, Collections.singletonList("test:counter"),
+            Collections.singletonList("60000"));
+        verify(redisTemplate, never()).opsForValue();
+        verify(redisTemplate, never()).expire(anyString(), any());
+    }
+
+    @Test
+    public void testSetsTheExpiryOfTheCountersLeftWithoutOne() {
+        String script = RedisSharedState.INCREMENT_SCRIPT.getScriptAsString();
+
+        assertThat(script).contains("redis.call('INCR', KEYS[1])")
+            .contains("if value == 1 or redis.call('PTTL', KEYS[1]) == -1 then")
+            .contains("redis.call('PEXPIRE', KEYS[1], ARGV[1])");
+        assertThat(RedisSharedState.INCREMENT_SCRIPT.getResultType()).isEqualTo(Long.class);
+    }
+
+    @Test
+    public void testBroadcastsInvalidations() {
+        CacheInvalidation invalidation = new CacheInvalidation("users", "admin");
+        Mono<CacheInvalidation> received = node2.invalidations().next().cache();
+        received.subscribe();
+
+        // Publish until the subscription of node2 is established
+        Flux.interval(Duration.ofMillis(50))
+            .onBackpressureDrop()
+            .concatMap(i -> node1.publishInvalidation(invalidation))
+            .takeUntilOther(received)
+            .blockLast(Duration.ofSeconds(5));
+
+        assertThat(received.block(Duration.ofSeconds(1))).isEqualTo(invalidation);
+    }
+}
@@ -0,0 +1,110 @@
+package com.mycompany.myapp.config.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.mycompany.myapp.web.rest.LoadTestReport;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the time logging threads are stalled by a slow log output, with and without the asynchronous
+ * appenders of {@link AsyncLoggingUtils}.
+ * <p>
+ * Each thread stands for a Netty event loop logging a burst of events to a console which takes
+ * {@code load-test.logging.write-micros} per write, as a console piped to a busy log collector would. The stall
+ * percentiles of both modes are written to {@code target/load-test/logging-report.json}.
+ * <p>
+ * Run with {@code ./mvnw -Pload-test verify}.
+ */
+public class AsyncLoggingLoadIT {
+
+    private final org.slf4j.Logger log = LoggerFactory.getLogger(AsyncLoggingLoadIT.class);
+
+    private final int threads = Integer.getInteger("load-test.logging.threads", Runtime.getRuntime().availableProcessors());
+    private final int events = Integer.getInteger("load-test.logging.events", 2000);
+    private final long writeMicros = Long.getLong("load-test.logging.write-micros", 50);
+    private final int ringBufferSize = Integer.getInteger("load-test.logging.ring-buffer-size", 8192);
+
+    @Test
+    public void testEventLoopStallTime() throws Exception {
+        LoadTestReport report = new LoadTestReport();
+        LoadTestReport.ScenarioResult sync = run(report, "synchronous", false);
+        LoadTestReport.ScenarioResult async = run(report, "asynchronous", true);
+
+        log.info("Logging stall time results:{}", report);
+        report.write(Paths.get("target", "load-test", "logging-report.json"));
+
+        assertThat(async.getP99()).isLessThan(sync.getP99());
+    }
+
+    private LoadTestReport.ScenarioResult run(LoadTestReport report, String scenario, boolean asynchronous) throws Exception {
+        LoggerContext context = new LoggerContext();
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.addAppender(slowConsoleAppender(context));
+        DroppedLogEventsListener listener = new DroppedLogEventsListener();
+        if (asynchronous) {
+            AsyncLoggingUtils.addAsyncAppenders(context, ringBufferSize, listener);
+        }
+
+        long[] stalls = new long[threads * events];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * events;
+            executor.execute(() -> {
+                Logger logger = context.getLogger("reactor-http-nio-" + offset);
+                for (int i = 0; i < events; i++) {
+                    long eventStart = System.nanoTime();
+                    logger.info("Request {} served with status {}", i, 200);
+                    stalls[offset + i] = System.nanoTime() - eventStart;
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        context.stop();
+
+        return report.add(scenario, threads, stalls, listener.getDroppedEvents("ASYNC_CONSOLE"), elapsed);
+    }
+
+    private OutputStreamAppender<ch.qos.logback.classic.spi.ILoggingEvent> slowConsoleAppender(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %-5level [%thread] %logger{0}: %msg%n");
+        encoder.start();
+        OutputStreamAppender<ch.qos.logback.classic.spi.ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setName("CONSOLE");
+        appender.setEncoder(encoder);
+        appender.setOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                // Discarded
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(writeMicros));
+            }
+        });
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,139 @@
+package com.mycompany.myapp.config.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.composite.loggingevent.LoggingEventJsonProviders;
+import net.logstash.logback.composite.loggingevent.MessageJsonProvider;
+import net.logstash.logback.encoder.LoggingEventCompositeJsonEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link AsyncLoggingUtils}.
+ */
+public class AsyncLoggingUtilsTest {
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private LoggerContext context;
+
+    private DroppedLogEventsListener listener;
+
+    @BeforeEach
+    public void setup() {
+        context = new LoggerContext();
+        AppenderBase<ILoggingEvent> blockedAppender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blockedAppender.setContext(context);
+        blockedAppender.setName("BLOCKED");
+        blockedAppender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(blockedAppender);
+        listener = new DroppedLogEventsListener();
+    }
+
+    @AfterEach
+    public void teardown() {
+        released.countDown();
+        context.stop();
+    }
+
+    @Test
+    public void testDropsEventsInsteadOfBlocking() {
+        AsyncLoggingUtils.addAsyncAppenders(context, 16, listener);
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+
+        assertThat(rootLogger.getAppender("BLOCKED")).isNull();
+        assertThat(rootLogger.getAppender("ASYNC_BLOCKED")).isNotNull();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            rootLogger.info("Event {}", i);
+        }
+
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(listener.getDroppedEvents("ASYNC_BLOCKED")).isGreaterThanOrEqualTo(100 - 16 - 1);
+    }
+
+    @Test
+    public void testPublishesDroppedEventsMetric() {
+        AsyncLoggingUtils.addAsyncAppenders(context, 16, listener);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        listener.bindTo(meterRegistry);
+        for (int i = 0; i < 100; i++) {
+            context.getLogger("test").info("Event {}", i);
+        }
+
+        assertThat(meterRegistry.get("logback.events.dropped").tag("appender", "ASYNC_BLOCKED").functionCounter().count())
+            .isEqualTo(listener.getDroppedEvents("ASYNC_BLOCKED"))
+            .isGreaterThan(0);
+    }
+
+    @Test
+    public void testWritesJsonConsoleThroughReusedBuffer() {
+        LoggingEventJsonProviders providers = new LoggingEventJsonProviders();
+        providers.addMessage(new MessageJsonProvider());
+        LoggingEventCompositeJsonEncoder encoder = new LoggingEventCompositeJsonEncoder();
+        encoder.setContext(context);
+        encoder.setProviders(providers);
+        encoder.start();
+        ConsoleAppender<ILoggingEvent> consoleAppender = new ConsoleAppender<>();
+        consoleAppender.setContext(context);
+        consoleAppender.setName("CONSOLE");
+        consoleAppender.setEncoder(encoder);
+        consoleAppender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(consoleAppender);
+
+        AsyncLoggingUtils.addAsyncAppenders(context, 16, listener);
+
+        LoggingEventAsyncDisruptorAppender asyncAppender = (LoggingEventAsyncDisruptorAppender) context
+            .getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC_CONSOLE");
+        assertThat(asyncAppender.getAppender("CONSOLE")).isInstanceOf(JsonStreamAppender.class);
+        assertThat(asyncAppender.getAppender("CONSOLE").isStarted()).isTrue();
+        assertThat(consoleAppender.isStarted()).isFalse();
+    }
+
+    @Test
+    public void testWrapsTheAppendersOfTheReloadedConfiguration() {
+        AsyncLoggingUtils.addAsyncAppenders(context, 16, listener);
+        AsyncLoggingUtils.addContextListener(context, 16, listener);
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+
+        context.reset();
+        // As the configuration does once the context is reset
+        ListAppender<ILoggingEvent> configuredAppender = new ListAppender<>();
+        configuredAppender.setContext(context);
+        configuredAppender.setName("CONFIGURED");
+        configuredAppender.start();
+        rootLogger.addAppender(configuredAppender);
+        rootLogger.info("First event after the configuration");
+
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        rootLogger.iteratorForAppenders().forEachRemaining(appenders::add);
+        assertThat(appenders).extracting(Appender::getName).containsExactly("ASYNC_CONFIGURED");
+        assertThat(appenders).allMatch(appender -> appender instanceof LoggingEventAsyncDisruptorAppender);
+        assertThat(context.getTurboFilterList()).isEmpty();
+    }
+}
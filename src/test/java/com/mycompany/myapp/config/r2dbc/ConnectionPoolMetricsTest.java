@@ -0,0 +1,68 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link ConnectionPoolMetrics}.
+ */
+public class ConnectionPoolMetricsTest {
+
+    private ConnectionPool pool;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+            ConnectionFactories.get("r2dbc:h2:mem:///pool-metrics?options=DB_CLOSE_DELAY=-1"))
+            .initialSize(1)
+            .maxSize(3)
+            .build());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.dispose();
+    }
+
+    @Test
+    public void testRecordsTheConnectionsOfThePoolBehindDecorators() {
+        ConnectionFactory metered = new MeteredConnectionFactory(pool, meterRegistry, Duration.ofSeconds(1));
+        new ConnectionPoolMetrics("audit", metered).bindTo(meterRegistry);
+
+        Connection connection = Mono.from(metered.create()).block();
+
+        assertThat(gauge("r2dbc.pool.acquired")).isEqualTo(1);
+        assertThat(gauge("r2dbc.pool.max.allocated")).isEqualTo(3);
+
+        Mono.from(connection.close()).block();
+
+        assertThat(gauge("r2dbc.pool.acquired")).isEqualTo(0);
+        assertThat(gauge("r2dbc.pool.idle")).isEqualTo(gauge("r2dbc.pool.allocated")).isGreaterThan(0);
+    }
+
+    @Test
+    public void testRecordsNothingWithoutPool() {
+        new ConnectionPoolMetrics("primary", pool.unwrap()).bindTo(meterRegistry);
+
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("pool", "audit").gauge().value();
+    }
+}
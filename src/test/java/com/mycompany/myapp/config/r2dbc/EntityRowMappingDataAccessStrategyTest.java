@@ -0,0 +1,160 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import com.mycompany.myapp.config.DatabaseConfiguration;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.PersistentAuditEvent;
+import com.mycompany.myapp.domain.User;
+
+import io.r2dbc.spi.ConnectionFactories;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.DefaultReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.SettableValue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link EntityRowMappingDataAccessStrategy}, comparing the generated mappings to the
+ * reflection-based ones of Spring Data.
+ */
+public class EntityRowMappingDataAccessStrategyTest {
+
+    private static final R2dbcDialect[] DIALECTS = { H2Dialect.INSTANCE, MySqlDialect.INSTANCE };
+
+    private String url;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        String name = "row-mapping-" + UUID.randomUUID();
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;MODE=MySQL")) {
+            new Liquibase("config/liquibase/master.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                .update("test");
+        }
+        url = "r2dbc:h2:mem:///" + name + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL";
+    }
+
+    @Test
+    public void testMapsTheEntitiesWithTheGeneratedMappings() {
+        ReactiveDataAccessStrategy strategy = strategy(H2Dialect.INSTANCE);
+
+        assertThat(strategy.getRowMapper(User.class)).isInstanceOf(EntityRowMapping.class);
+        assertThat(strategy.getRowMapper(Authority.class)).isInstanceOf(EntityRowMapping.class);
+        assertThat(strategy.getRowMapper(PersistentAuditEvent.class)).isInstanceOf(EntityRowMapping.class);
+        assertThat(strategy.getRowMapper(Instant.class)).isNotInstanceOf(EntityRowMapping.class);
+    }
+
+    @Test
+    public void testReadsTheSameEntitiesAsTheReflectionBasedMapping() {
+        User user = new User();
+        user.setLogin("row-mapping");
+        user.setPassword("$2a$10$VEjxo0jq2YG9Rbk2HmX9S.k1uZBGYUHdUcid3g/vfiEl7lwWgOH/K");
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        user.setResetDate(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setPrincipal("row-mapping");
+        event.setAuditEventType("AUTHENTICATION_SUCCESS");
+        event.setAuditEventDate(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        DatabaseClient writer = client(strategy(H2Dialect.INSTANCE));
+        writer.insert().into(User.class).using(user).then().block();
+        writer.insert().into(PersistentAuditEvent.class).using(event).then().block();
+        // Otherwise the dates of the users loaded from the CSV files are left to their initial value, the current time
+        writer.execute("UPDATE jhi_user SET created_date = COALESCE(created_date, CURRENT_TIMESTAMP), " +
+            "last_modified_date = COALESCE(last_modified_date, CURRENT_TIMESTAMP)").then().block();
+
+        for (R2dbcDialect dialect : DIALECTS) {
+            DatabaseClient generated = client(strategy(dialect));
+            DatabaseClient reflective = client(new DefaultReactiveDataAccessStrategy(dialect,
+                DatabaseConfiguration.temporalConverters(dialect)));
+
+            List<User> users = select(generated, "jhi_user", User.class);
+            assertThat(users).hasSizeGreaterThan(4);
+            assertThat(users).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(select(reflective, "jhi_user", User.class));
+            assertThat(select(generated, "jhi_authority", Authority.class))
+                .containsExactlyElementsOf(select(reflective, "jhi_authority", Authority.class));
+            assertThat(select(generated, "jhi_persistent_audit_event", PersistentAuditEvent.class))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(select(reflective, "jhi_persistent_audit_event", PersistentAuditEvent.class));
+        }
+        assertThat(select(client(strategy(H2Dialect.INSTANCE)), "jhi_user WHERE login = 'row-mapping'", User.class))
+            .extracting(User::getResetDate)
+            .containsExactly(user.getResetDate());
+    }
+
+    @Test
+    public void testReadsTheColumnsOfJoinedTables() {
+        List<User> users = client(strategy(H2Dialect.INSTANCE))
+            .execute("SELECT ua.authority_name, u.* FROM jhi_user u JOIN jhi_user_authority ua ON u.id = ua.user_id " +
+                "WHERE u.login = 'admin'")
+            .as(User.class)
+            .fetch()
+            .all()
+            .collectList()
+            .block();
+
+        assertThat(users).hasSize(2).allSatisfy(user -> {
+            assertThat(user.getId()).isEqualTo(3L);
+            assertThat(user.getLogin()).isEqualTo("admin");
+            assertThat(user.getActivated()).isTrue();
+        });
+    }
+
+    @Test
+    public void testBindsTheSameValuesAsTheReflectionBasedMapping() {
+        User user = new User();
+        user.setId(42L);
+        user.setLogin("row-mapping");
+        user.setActivated(true);
+        user.setResetDate(Instant.now());
+
+        OutboundRow generated = strategy(H2Dialect.INSTANCE).getOutboundRow(user);
+        OutboundRow reflective = new DefaultReactiveDataAccessStrategy(H2Dialect.INSTANCE,
+            DatabaseConfiguration.temporalConverters(H2Dialect.INSTANCE)).getOutboundRow(user);
+
+        assertThat(generated).isEqualTo(reflective);
+    }
+
+    @Test
+    public void testBindsTheInstantsForTheMySqlDriver() {
+        User user = new User();
+        user.setResetDate(Instant.now());
+
+        OutboundRow row = strategy(MySqlDialect.INSTANCE).getOutboundRow(user);
+
+        assertThat(row.get("reset_date")).isEqualTo(SettableValue.from(user.getResetDate()));
+        assertThat(row.get("last_modified_by")).isEqualTo(SettableValue.empty(String.class));
+    }
+
+    private ReactiveDataAccessStrategy strategy(R2dbcDialect dialect) {
+        return new EntityRowMappingDataAccessStrategy(new DefaultReactiveDataAccessStrategy(dialect,
+            DatabaseConfiguration.temporalConverters(dialect)), dialect);
+    }
+
+    private DatabaseClient client(ReactiveDataAccessStrategy strategy) {
+        return DatabaseClient.builder()
+            .connectionFactory(ConnectionFactories.get(url))
+            .dataAccessStrategy(strategy)
+            .build();
+    }
+
+    private static <T> List<T> select(DatabaseClient db, String from, Class<T> type) {
+        return db.execute("SELECT * FROM " + from + " ORDER BY 1").as(type).fetch().all().collectList().block();
+    }
+}
@@ -0,0 +1,243 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.r2dbc.spi.Connection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.connectionfactory.R2dbcTransactionManager;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the {@link JdbcConnectionFactory}, on an H2 database.
+ */
+public class JdbcConnectionFactoryTest {
+
+    private JdbcConnectionFactory connectionFactory;
+
+    private DatabaseClient db;
+
+    private final List<java.sql.Connection> opened = new CopyOnWriteArrayList<>();
+
+    private volatile CountDownLatch connecting = new CountDownLatch(0);
+
+    private volatile CountDownLatch connected = new CountDownLatch(0);
+
+    @BeforeEach
+    public void setup() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        connectionFactory = new JdbcConnectionFactory(dataSource, 2, "test");
+        db = DatabaseClient.create(connectionFactory);
+        db.execute("CREATE TABLE item (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) UNIQUE, " +
+            "created TIMESTAMP, active BOOLEAN)")
+            .then()
+            .block();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionFactory.dispose();
+    }
+
+    @Test
+    public void testResolvesTheDialectOfTheDatabase() {
+        assertThat(DialectResolver.getDialect(connectionFactory)).isInstanceOf(H2Dialect.class);
+    }
+
+    @Test
+    public void testBindsNamedParametersAndReadsTheRows() {
+        LocalDateTime created = LocalDateTime.of(2026, 10, 18, 12, 30);
+        db.execute("INSERT INTO item (name, created, active) VALUES (:name, :created, :active)")
+            .bind("name", "first")
+            .bind("created", created)
+            .bind("active", true)
+            .then()
+            .block();
+        db.execute("INSERT INTO item (name, created, active) VALUES (:name, :created, :active)")
+            .bind("name", "second")
+            .bindNull("created", LocalDateTime.class)
+            .bind("active", false)
+            .then()
+            .block();
+
+        Map<String, Object> first = db.execute("SELECT * FROM item WHERE name IN (:names) AND active = :active")
+            .bind("names", Arrays.asList("first", "second"))
+            .bind("active", true)
+            .fetch()
+            .one()
+            .block();
+
+        assertThat(first).containsEntry("NAME", "first").containsEntry("CREATED", created).containsEntry("ACTIVE", true);
+        assertThat(db.execute("SELECT COUNT(*) FROM item WHERE created IS NULL AND name <> '$1 ?'")
+            .map((row, metadata) -> row.get(0, Integer.class))
+            .one()
+            .block()).isEqualTo(1);
+    }
+
+    @Test
+    public void testReturnsTheGeneratedKeys() {
+        Map<String, Object> keys = db.insert().into("item")
+            .value("name", "first")
+            .fetch()
+            .one()
+            .block();
+
+        assertThat(keys).containsEntry("ID", 1L);
+    }
+
+    @Test
+    public void testRollsBackTheTransactions() {
+        TransactionalOperator transaction = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+
+        transaction.transactional(db.execute("INSERT INTO item (name) VALUES ('first')").then()
+            .then(Mono.error(new IllegalStateException("Rolled back"))))
+            .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+            .block();
+        transaction.transactional(db.execute("INSERT INTO item (name) VALUES ('second')").then()).block();
+
+        assertThat(db.execute("SELECT name FROM item").map((row, metadata) -> row.get("name", String.class)).all()
+            .collectList().block()).containsExactly("second");
+    }
+
+    @Test
+    public void testTranslatesTheConstraintViolations() {
+        db.execute("INSERT INTO item (name) VALUES ('first')").then().block();
+
+        assertThatThrownBy(() -> db.execute("INSERT INTO item (name) VALUES ('first')").then().block())
+            .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    public void testRunsTheCallsOnTheJdbcThreads() {
+        String thread = Flux.usingWhen(connectionFactory.create(),
+            connection -> Flux.from(connection.createStatement("SELECT 1").execute())
+                .flatMap(result -> result.map((row, metadata) -> Thread.currentThread().getName())),
+            Connection::close)
+            .blockFirst();
+
+        assertThat(thread).startsWith("jdbc-test");
+    }
+
+    @Test
+    public void testReleasesThePermitOfACreationCancelledWhileConnecting() throws Exception {
+        JdbcConnectionFactory factory = new JdbcConnectionFactory(slowDataSource(), 1, "slow");
+        try {
+            factory.getMetadata().getName();
+            connecting = new CountDownLatch(1);
+            connected = new CountDownLatch(1);
+
+            Disposable cancelled = Mono.from(factory.create()).subscribe();
+            assertThat(connecting.await(5, TimeUnit.SECONDS)).isTrue();
+            cancelled.dispose();
+            connected.countDown();
+
+            Connection connection = Mono.from(factory.create()).block(Duration.ofSeconds(5));
+            assertThat(connection).isNotNull();
+            Mono.from(connection.close()).block();
+            assertThat(opened).hasSize(3).allMatch(this::isClosed);
+        } finally {
+            factory.dispose();
+        }
+    }
+
+    @Test
+    public void testReleasesThePermitOfACreationCancelledWhileWaiting() {
+        JdbcConnectionFactory factory = new JdbcConnectionFactory(slowDataSource(), 1, "slow");
+        try {
+            Connection held = Mono.from(factory.create()).block();
+
+            assertThatThrownBy(() -> Mono.from(factory.create()).timeout(Duration.ofMillis(100)).block())
+                .hasCauseInstanceOf(TimeoutException.class);
+            Mono.from(held.close()).block();
+
+            Connection connection = Mono.from(factory.create()).block(Duration.ofSeconds(5));
+            assertThat(connection).isNotNull();
+            Mono.from(connection.close()).block();
+        } finally {
+            factory.dispose();
+        }
+    }
+
+    @Test
+    public void testReadsTheMetadataWithAPermit() throws Exception {
+        JdbcConnectionFactory factory = new JdbcConnectionFactory(slowDataSource(), 1, "slow");
+        try {
+            Connection held = Mono.from(factory.create()).block();
+            CompletableFuture<String> name = CompletableFuture.supplyAsync(() -> factory.getMetadata().getName());
+
+            Thread.sleep(100);
+            assertThat(name).isNotDone();
+            Mono.from(held.close()).block();
+
+            assertThat(name.get(5, TimeUnit.SECONDS)).isEqualTo("H2");
+            assertThat(opened).hasSize(2).allMatch(this::isClosed);
+        } finally {
+            factory.dispose();
+        }
+    }
+
+    /**
+     * H2 data source which records the connections it opens, and can be held while it opens them. Like a driver
+     * blocked on a socket, it ignores the interruptions of the cancelled subscribers.
+     */
+    private DataSource slowDataSource() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+            (proxy, method, args) -> {
+                if (!method.getName().equals("getConnection")) {
+                    return method.invoke(dataSource, args);
+                }
+                connecting.countDown();
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        connected.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                java.sql.Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                return connection;
+            });
+    }
+
+    private boolean isClosed(java.sql.Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
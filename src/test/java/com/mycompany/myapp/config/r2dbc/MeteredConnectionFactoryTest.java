@@ -0,0 +1,104 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for the {@link MeteredConnectionFactory}.
+ */
+public class MeteredConnectionFactoryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private Statement statement;
+
+    private MeteredConnectionFactory connectionFactory;
+
+    @BeforeEach
+    public void setup() {
+        Result result = mock(Result.class);
+        doReturn(Flux.just("row1", "row2")).when(result).map(any());
+        statement = mock(Statement.class);
+        doReturn(Flux.just(result)).when(statement).execute();
+        Connection connection = mock(Connection.class);
+        doReturn(statement).when(connection).createStatement(anyString());
+        ConnectionFactory delegate = mock(ConnectionFactory.class);
+        doReturn(Mono.just(connection)).when(delegate).create();
+
+        meterRegistry = new SimpleMeterRegistry();
+        connectionFactory = new MeteredConnectionFactory(delegate, meterRegistry, Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testRecordsLatencyAndRowsByQueryName() {
+        Long rows = Mono.from(connectionFactory.create())
+            .flatMapMany(connection -> connection.createStatement("SELECT * FROM jhi_user WHERE login = $1")
+                .bind("$1", "admin")
+                .execute())
+            .flatMap(result -> result.map((row, metadata) -> row))
+            .count()
+            .subscriberContext(MeteredConnectionFactory.withQueryName("UserRepository.findOneByLogin"))
+            .block();
+
+        assertThat(rows).isEqualTo(2);
+        verify(statement).bind("$1", "admin");
+        assertThat(meterRegistry.get("r2dbc.query").tag("query", "UserRepository.findOneByLogin").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("r2dbc.query.rows").tag("query", "UserRepository.findOneByLogin").summary().totalAmount())
+            .isEqualTo(2);
+    }
+
+    @Test
+    public void testRecordsAllTheResultsOfAStatement() {
+        Result inserted = mock(Result.class);
+        doReturn(Flux.just(3)).when(inserted).getRowsUpdated();
+        Result generated = mock(Result.class);
+        doReturn(Flux.just(1L, 2L, 3L)).when(generated).map(any());
+        doReturn(Flux.just(inserted, generated)).when(statement).execute();
+
+        List<? extends Result> results = Mono.from(connectionFactory.create())
+            .flatMapMany(connection -> connection.createStatement("INSERT INTO jhi_authority (name) VALUES ($1)")
+                .returnGeneratedValues("name")
+                .execute())
+            .collectList()
+            .subscriberContext(MeteredConnectionFactory.withQueryName("AuthorityRepository.saveAll"))
+            .block();
+        Flux.from(results.get(0).getRowsUpdated()).blockLast();
+
+        assertThat(meterRegistry.find("r2dbc.query").timer()).isNull();
+
+        Flux.from(results.get(1).map((row, metadata) -> row)).blockLast();
+
+        assertThat(meterRegistry.get("r2dbc.query").tag("query", "AuthorityRepository.saveAll").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("r2dbc.query.rows").tag("query", "AuthorityRepository.saveAll").summary().totalAmount())
+            .isEqualTo(6);
+    }
+
+    @Test
+    public void testUnnamedQuery() {
+        Mono.from(connectionFactory.create())
+            .flatMapMany(connection -> connection.createStatement("SELECT 1").execute())
+            .flatMap(result -> result.map((row, metadata) -> row))
+            .blockLast();
+
+        assertThat(meterRegistry.get("r2dbc.query").tag("query", "unnamed").timer().count()).isEqualTo(1);
+    }
+}
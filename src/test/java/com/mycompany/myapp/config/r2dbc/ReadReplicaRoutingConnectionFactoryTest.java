@@ -0,0 +1,148 @@
+package com.mycompany.myapp.config.r2dbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for the {@link ReadReplicaRoutingConnectionFactory}, with H2 databases standing for the primary and the
+ * replicas.
+ */
+public class ReadReplicaRoutingConnectionFactoryTest {
+
+    private static final Duration STICKINESS = Duration.ofSeconds(5);
+
+    private static final Duration RETRY_PERIOD = Duration.ofSeconds(10);
+
+    private final ConnectionFactory primary = h2("primary");
+
+    private final ConnectionFactory replica1 = h2("replica1");
+
+    private final ConnectionFactory replica2 = h2("replica2");
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    private ConnectionFactory unavailable;
+
+    @BeforeEach
+    public void setup() {
+        unavailable = mock(ConnectionFactory.class);
+        doReturn(Mono.error(new IllegalStateException("Connection refused"))).when(unavailable).create();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseTheReplicasInTurn() {
+        ReadReplicaRoutingConnectionFactory router = router(replica1, replica2);
+
+        assertThat(database(router, true)).isEqualTo("REPLICA1");
+        assertThat(database(router, true)).isEqualTo("REPLICA2");
+        assertThat(database(router, true)).isEqualTo("REPLICA1");
+        assertThat(database(router, false)).isEqualTo("PRIMARY");
+        assertThat(Mono.usingWhen(router.create(), ReadReplicaRoutingConnectionFactoryTest::database, Connection::close)
+            .block()).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    public void testSkipsAnUnavailableReplicaForTheRetryPeriod() {
+        ReadReplicaRoutingConnectionFactory router = router(unavailable, replica2);
+
+        assertThat(database(router, true)).isEqualTo("REPLICA2");
+        assertThat(database(router, true)).isEqualTo("REPLICA2");
+        assertThat(database(router, true)).isEqualTo("REPLICA2");
+        verify(unavailable).create();
+
+        now.addAndGet(RETRY_PERIOD.toMillis());
+        assertThat(database(router, true)).isEqualTo("REPLICA2");
+        assertThat(database(router, true)).isEqualTo("REPLICA2");
+        verify(unavailable, times(2)).create();
+    }
+
+    @Test
+    public void testFallsBackToThePrimary() {
+        ReadReplicaRoutingConnectionFactory router = router(unavailable);
+
+        assertThat(database(router, true)).isEqualTo("PRIMARY");
+        assertThat(database(router, true)).isEqualTo("PRIMARY");
+        verify(unavailable).create();
+    }
+
+    @Test
+    public void testReadsItsOwnWritesFromThePrimary() {
+        ReadReplicaRoutingConnectionFactory router = router(replica1);
+        ReadReplicaTransactionManager transactionManager = new ReadReplicaTransactionManager(router);
+        DefaultTransactionDefinition readOnly = new DefaultTransactionDefinition();
+        readOnly.setReadOnly(true);
+        TransactionalOperator readOnlyTransaction = TransactionalOperator.create(transactionManager, readOnly);
+        TransactionalOperator readWriteTransaction = TransactionalOperator.create(transactionManager);
+        Mono<String> database = DatabaseClient.create(router).execute("SELECT DATABASE()")
+            .map((row, metadata) -> row.get(0, String.class))
+            .one();
+
+        assertThat(readOnlyTransaction.transactional(database).subscriberContext(session("user")).block())
+            .isEqualTo("REPLICA1");
+        assertThat(readWriteTransaction.transactional(database).subscriberContext(session("user")).block())
+            .isEqualTo("PRIMARY");
+        assertThat(readOnlyTransaction.transactional(database).subscriberContext(session("user")).block())
+            .isEqualTo("PRIMARY");
+        assertThat(readOnlyTransaction.transactional(database).subscriberContext(session("other")).block())
+            .isEqualTo("REPLICA1");
+
+        now.addAndGet(STICKINESS.toMillis());
+        assertThat(readOnlyTransaction.transactional(database).subscriberContext(session("user")).block())
+            .isEqualTo("REPLICA1");
+    }
+
+    @Test
+    public void testFindsTheRouterBehindDecorators() {
+        ReadReplicaRoutingConnectionFactory router = router(replica1);
+        MeteredConnectionFactory metered = new MeteredConnectionFactory(router, mock(MeterRegistry.class), Duration.ofSeconds(1));
+
+        assertThat(ReadReplicaRoutingConnectionFactory.find(router)).isSameAs(router);
+        assertThat(ReadReplicaRoutingConnectionFactory.find(metered)).isSameAs(router);
+        assertThat(ReadReplicaRoutingConnectionFactory.find(primary)).isNull();
+    }
+
+    private ReadReplicaRoutingConnectionFactory router(ConnectionFactory... replicas) {
+        return new ReadReplicaRoutingConnectionFactory(primary, Arrays.asList(replicas), STICKINESS, RETRY_PERIOD,
+            context -> context.getOrEmpty("login"), now::get);
+    }
+
+    private static Context session(String login) {
+        return Context.of("login", login);
+    }
+
+    private static String database(ConnectionFactory connectionFactory, boolean readOnly) {
+        return Mono.usingWhen(connectionFactory.create(), ReadReplicaRoutingConnectionFactoryTest::database, Connection::close)
+            .subscriberContext(ReadReplicaRoutingConnectionFactory.withReadOnly(readOnly))
+            .block();
+    }
+
+    private static Mono<String> database(Connection connection) {
+        return Flux.from(connection.createStatement("SELECT DATABASE()").execute())
+            .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))
+            .next();
+    }
+
+    private static ConnectionFactory h2(String name) {
+        return ConnectionFactories.get("r2dbc:h2:mem:///" + name + "?options=DB_CLOSE_DELAY=-1");
+    }
+}
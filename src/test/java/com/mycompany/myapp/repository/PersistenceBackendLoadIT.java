@@ -0,0 +1,225 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.config.DatabaseConfiguration;
+import com.mycompany.myapp.config.r2dbc.EntityRowMappingDataAccessStrategy;
+import com.mycompany.myapp.config.r2dbc.JdbcConnectionFactory;
+import com.mycompany.myapp.domain.PersistentAuditEvent;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.web.rest.LoadTestReport;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.security.AuthenticationAuditListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.connectionfactory.R2dbcTransactionManager;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.DefaultReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the R2DBC and JDBC backends of the repositories, on the queries of the login, the user listing and the
+ * audit writes.
+ * <p>
+ * Both backends run on the same database, with pools of the same size, and without the web layer. It is excluded
+ * from the default build, run it with {@code ./mvnw -Pload-test verify -Dit.test=PersistenceBackendLoadIT}. It takes
+ * the {@code load-test.concurrency}, {@code load-test.requests}, {@code load-test.warmup-requests} and
+ * {@code load-test.users} system properties of the {@code ApiLoadIT}, and:
+ * <ul>
+ * <li>{@code load-test.r2dbc-url}: database of the R2DBC backend, defaults to an in-memory H2 database.</li>
+ * <li>{@code load-test.jdbc-url}: the same database for the JDBC backend and the migrations.</li>
+ * <li>{@code load-test.pool-size}: connections of each backend, defaults to 10.</li>
+ * </ul>
+ * The results are written to {@code target/load-test/persistence-backends.json}.
+ */
+public class PersistenceBackendLoadIT {
+
+    private static final String GENERATED_LOGIN_PREFIX = "load-test-user-";
+
+    private final Logger log = LoggerFactory.getLogger(PersistenceBackendLoadIT.class);
+
+    private final int concurrency = Integer.getInteger("load-test.concurrency", 16);
+    private final int requests = Integer.getInteger("load-test.requests", 500);
+    private final int warmupRequests = Integer.getInteger("load-test.warmup-requests", 100);
+    private final int users = Integer.getInteger("load-test.users", 100);
+    private final int poolSize = Integer.getInteger("load-test.pool-size", 10);
+    private final String r2dbcUrl = System.getProperty("load-test.r2dbc-url", "r2dbc:h2:mem:///backends?options=DB_CLOSE_DELAY=-1");
+    private final String jdbcUrl = System.getProperty("load-test.jdbc-url", "jdbc:h2:mem:backends;DB_CLOSE_DELAY=-1");
+
+    private Backend r2dbc;
+
+    private Backend jdbc;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl)) {
+            new Liquibase("config/liquibase/master.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                .update("test");
+        }
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(r2dbcUrl))
+            .initialSize(poolSize)
+            .maxSize(poolSize)
+            .build());
+        r2dbc = new Backend(pool, pool);
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setMaximumPoolSize(poolSize);
+        JdbcConnectionFactory jdbcConnectionFactory = new JdbcConnectionFactory(new HikariDataSource(config), poolSize, "load-test");
+        jdbc = new Backend(jdbcConnectionFactory, jdbcConnectionFactory);
+
+        String password = "$2a$10$VEjxo0jq2YG9Rbk2HmX9S.k1uZBGYUHdUcid3g/vfiEl7lwWgOH/K";
+        Flux.range(0, users)
+            .concatMap(i -> {
+                User user = new User();
+                user.setLogin(GENERATED_LOGIN_PREFIX + i);
+                user.setEmail(GENERATED_LOGIN_PREFIX + i + "@localhost");
+                user.setActivated(true);
+                user.setPassword(password);
+                user.setLangKey(Constants.DEFAULT_LANGUAGE);
+                user.setCreatedBy(Constants.SYSTEM_ACCOUNT);
+                return r2dbc.userRepository.save(user);
+            })
+            .blockLast();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        r2dbc.userRepository.deleteAllBy(UserSelection.all().withLoginPrefix(GENERATED_LOGIN_PREFIX))
+            .then(r2dbc.db.execute("DELETE FROM jhi_persistent_audit_event WHERE principal LIKE 'load-test-%'").then())
+            .block();
+        r2dbc.dispose();
+        jdbc.dispose();
+    }
+
+    @Test
+    public void loadTest() throws Exception {
+        LoadTestReport report = new LoadTestReport();
+        for (String backend : new String[] { "r2dbc", "jdbc" }) {
+            Backend repositories = "r2dbc".equals(backend) ? r2dbc : jdbc;
+            AtomicInteger user = new AtomicInteger();
+            run(report, backend + ".login", () -> repositories.userRepository
+                .findOneWithAuthoritiesByLogin(GENERATED_LOGIN_PREFIX + user.getAndIncrement() % users));
+            AtomicInteger page = new AtomicInteger();
+            run(report, backend + ".users", () -> {
+                UserSelection selection = UserSelection.all().excluding(Constants.ANONYMOUS_USER);
+                PageRequest pageRequest = PageRequest.of(page.getAndIncrement() % 5, 20, Sort.by("id"));
+                return repositories.userRepository.findAllBy(selection, pageRequest, UserProjection.profile())
+                    .collectList()
+                    .zipWith(repositories.userRepository.countAllBy(selection));
+            });
+            run(report, backend + ".audit-write", () -> {
+                PersistentAuditEvent event = new PersistentAuditEvent();
+                event.setPrincipal("load-test-" + backend);
+                event.setAuditEventType(AuthenticationAuditListener.AUTHENTICATION_SUCCESS);
+                event.setAuditEventDate(Instant.now());
+                return repositories.auditTransaction.transactional(repositories.auditRepository.save(event));
+            });
+        }
+
+        log.info("Persistence backend results:{}", report);
+        for (String scenario : new String[] { "login", "users", "audit-write" }) {
+            LoadTestReport.ScenarioResult r2dbcResult = report.getScenarios().get("r2dbc." + scenario);
+            LoadTestReport.ScenarioResult jdbcResult = report.getScenarios().get("jdbc." + scenario);
+            log.info("{}: JDBC throughput is {}% of R2DBC, p99 {} ms against {} ms", scenario,
+                Math.round(100 * jdbcResult.getThroughput() / r2dbcResult.getThroughput()),
+                jdbcResult.getP99(), r2dbcResult.getP99());
+        }
+        report.write(Paths.get("target", "load-test", "persistence-backends.json"));
+
+        report.getScenarios().forEach((name, result) ->
+            assertThat(result.getErrors()).as("errors in scenario %s", name).isZero());
+    }
+
+    private void run(LoadTestReport report, String scenario, Supplier<Mono<?>> request) {
+        execute(request, warmupRequests, new long[warmupRequests], new AtomicLong());
+
+        long[] latencies = new long[requests];
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        execute(request, requests, latencies, errors);
+        report.add(scenario, concurrency, latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    private void execute(Supplier<Mono<?>> request, int count, long[] latencies, AtomicLong errors) {
+        Flux.range(0, count)
+            .flatMap(i -> Mono.defer(() -> {
+                long start = System.nanoTime();
+                return request.get()
+                    .doOnError(e -> {
+                        errors.incrementAndGet();
+                        log.warn("Request failed", e);
+                    })
+                    .onErrorResume(e -> Mono.empty())
+                    .doFinally(signal -> latencies[i] = System.nanoTime() - start);
+            }), concurrency)
+            .blockLast();
+    }
+
+    /**
+     * The repositories of one backend, created as Spring Data creates them.
+     */
+    private static final class Backend {
+
+        private final Disposable pool;
+
+        private final DatabaseClient db;
+
+        private final UserRepository userRepository;
+
+        private final PersistenceAuditEventRepository auditRepository;
+
+        private final TransactionalOperator auditTransaction;
+
+        private Backend(ConnectionFactory connectionFactory, Disposable pool) {
+            this.pool = pool;
+            R2dbcDialect dialect = DialectResolver.getDialect(connectionFactory);
+            ReactiveDataAccessStrategy dataAccessStrategy = new EntityRowMappingDataAccessStrategy(
+                new DefaultReactiveDataAccessStrategy(dialect, DatabaseConfiguration.temporalConverters(dialect)), dialect);
+            db = DatabaseClient.builder()
+                .connectionFactory(connectionFactory)
+                .dataAccessStrategy(dataAccessStrategy)
+                .build();
+            R2dbcRepositoryFactory factory = new R2dbcRepositoryFactory(db, dataAccessStrategy);
+            userRepository = factory.getRepository(UserRepository.class,
+                RepositoryFragments.just(new UserRepositoryInternalImpl(db, dataAccessStrategy, dialect)));
+            auditRepository = factory.getRepository(PersistenceAuditEventRepository.class,
+                RepositoryFragments.just(new PersistenceAuditEventRepositoryInternalImpl(db)));
+            auditTransaction = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+        }
+
+        private void dispose() {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.config.DatabaseConfiguration;
+import com.mycompany.myapp.config.r2dbc.EntityRowMappingDataAccessStrategy;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+
+import io.r2dbc.spi.ConnectionFactories;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.DefaultReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the {@link UserRepositoryInternalImpl}, with H2 in MySQL mode standing for the production database.
+ */
+public class UserRepositoryInternalImplTest {
+
+    private DatabaseClient db;
+
+    private ReactiveDataAccessStrategy dataAccessStrategy;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        String name = "user-repository-" + UUID.randomUUID();
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;MODE=MySQL")) {
+            new Liquibase("config/liquibase/master.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                .update("test");
+        }
+        dataAccessStrategy = new EntityRowMappingDataAccessStrategy(new DefaultReactiveDataAccessStrategy(H2Dialect.INSTANCE,
+            DatabaseConfiguration.temporalConverters(H2Dialect.INSTANCE)), H2Dialect.INSTANCE);
+        db = DatabaseClient.builder()
+            .connectionFactory(ConnectionFactories.get("r2dbc:h2:mem:///" + name + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL"))
+            .dataAccessStrategy(dataAccessStrategy)
+            .build();
+    }
+
+    @Test
+    public void testGrantsAnAuthorityWithTheMySqlSubqueries() {
+        UserRepositoryInternalImpl repository = repository(MySqlDialect.INSTANCE);
+
+        assertThat(repository.addAuthorityBy(UserSelection.matching(null, "ROLE_USER", null), "ROLE_ADMIN").block())
+            .isEqualTo(1);
+        assertThat(repository.addAuthorityBy(UserSelection.matching(null, "ROLE_USER", null), "ROLE_ADMIN").block())
+            .isEqualTo(0);
+        assertThat(repository.findOneWithAuthoritiesByLogin("user").block().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    public void testDeletesTheUsersSelectedByAuthorityWithTheirAuthorities() {
+        UserRepositoryInternalImpl repository = repository(H2Dialect.INSTANCE);
+        repository.addAuthorityBy(UserSelection.ofLogins(Collections.singletonList("anonymoususer")), "ROLE_ADMIN")
+            .block();
+
+        assertThat(repository.deleteAllBy(UserSelection.matching(null, "ROLE_ADMIN", null).excluding("admin", "system")).block())
+            .isEqualTo(1);
+        assertThat(repository.findOneWithAuthoritiesByLogin("anonymoususer").block()).isNull();
+        assertThat(db.execute("SELECT COUNT(*) FROM jhi_user_authority WHERE user_id = 2")
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one()
+            .block()).isEqualTo(0);
+        assertThat(repository.findOneWithAuthoritiesByLogin("admin").block().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    public void testDeletesTheUsersSelectedByAuthorityWithTheMySqlSubqueries() {
+        UserRepositoryInternalImpl repository = repository(MySqlDialect.INSTANCE);
+
+        assertThat(repository.deleteAllBy(UserSelection.matching(null, "ROLE_USER", null).excluding("admin", "system")).block())
+            .isEqualTo(1);
+        assertThat(repository.findOneWithAuthoritiesByLogin("user").block()).isNull();
+        assertThat(db.execute("SELECT COUNT(*) FROM jhi_user_authority WHERE user_id = 4")
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one()
+            .block()).isEqualTo(0);
+        assertThat(db.execute("SELECT COUNT(*) FROM jhi_user_authority")
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one()
+            .block()).isEqualTo(4);
+    }
+
+    @Test
+    public void testFindsTheSameUsersWhateverTheDialect() {
+        UserSelection selection = UserSelection.all()
+            .withAuthority("ROLE_USER")
+            .withActivated(true)
+            .withLoginPrefix("a");
+        PageRequest page = PageRequest.of(0, 10, Sort.by("login"));
+
+        for (R2dbcDialect dialect : new R2dbcDialect[] { H2Dialect.INSTANCE, MySqlDialect.INSTANCE }) {
+            UserRepositoryInternalImpl repository = repository(dialect);
+            assertThat(repository.findAllBy(selection, page, UserProjection.profile()).map(User::getLogin).collect(Collectors.toList()).block())
+                .containsExactly("admin");
+            assertThat(repository.countAllBy(selection).block()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testMatchesTheEmailDomainLiterally() {
+        UserRepositoryInternalImpl repository = repository(H2Dialect.INSTANCE);
+
+        assertThat(repository.countAllBy(UserSelection.matching(null, null, "localhost")).block()).isEqualTo(4);
+        assertThat(repository.countAllBy(UserSelection.matching(null, null, "%")).block()).isEqualTo(0);
+        assertThat(repository.countAllBy(UserSelection.matching(null, null, "_ocalhost")).block()).isEqualTo(0);
+        assertThat(repository.countAllBy(UserSelection.all().withLoginPrefix("_")).block()).isEqualTo(0);
+    }
+
+    @Test
+    public void testReadsOnlyTheProjectedColumns() {
+        UserRepositoryInternalImpl repository = repository(H2Dialect.INSTANCE);
+
+        User user = repository.findAllBy(UserSelection.ofLogins(Collections.singletonList("admin")), PageRequest.of(0, 1),
+            UserProjection.profile(Arrays.asList("login", "email"))).blockFirst();
+        assertThat(user.getLogin()).isEqualTo("admin");
+        assertThat(user.getEmail()).isEqualTo("admin@localhost");
+        assertThat(user.getId()).isNull();
+        assertThat(user.getPassword()).isNull();
+
+        User profile = repository.findOneWithAuthoritiesByLogin("admin", UserProjection.profile()).block();
+        assertThat(profile.getId()).isEqualTo(3L);
+        assertThat(profile.getPassword()).isNull();
+        assertThat(profile.getAuthorities()).extracting(Authority::getName).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        assertThat(repository.findOneWithAuthoritiesByLogin("admin").block().getPassword()).isNotNull();
+    }
+
+    @Test
+    public void testUpdatesOnlyTheChangedColumns() {
+        UserRepositoryInternalImpl repository = repository(H2Dialect.INSTANCE);
+        User user = repository.findOneWithAuthoritiesByLogin("user").block();
+        // Changed behind the loaded user, so that writing all the columns would revert it
+        db.execute("UPDATE jhi_user SET password_hash = 'changed', first_name = 'changed' WHERE login = 'user'").then().block();
+
+        repository.update(user, changedUser -> {
+            changedUser.setLangKey("fr");
+            changedUser.setResetDate(Instant.parse("2020-02-01T10:00:00Z"));
+            changedUser.setFirstName(changedUser.getFirstName());
+        }).block();
+        repository.update(user, changedUser -> changedUser.setLastName(changedUser.getLastName())).block();
+
+        User updated = repository.findOneWithAuthoritiesByLogin("user").block();
+        assertThat(updated.getLangKey()).isEqualTo("fr");
+        assertThat(updated.getResetDate()).isEqualTo(Instant.parse("2020-02-01T10:00:00Z"));
+        assertThat(updated.getPassword()).isEqualTo("changed");
+        assertThat(updated.getFirstName()).isEqualTo("changed");
+    }
+
+    @Test
+    public void testUpdatesTheColumnsSetToNull() {
+        UserRepositoryInternalImpl repository = repository(H2Dialect.INSTANCE);
+        User user = repository.findOneWithAuthoritiesByLogin("user").block();
+
+        repository.update(user, changedUser -> changedUser.setEmail(null)).block();
+
+        assertThat(repository.findOneWithAuthoritiesByLogin("user").block().getEmail()).isNull();
+    }
+
+    @Test
+    public void testFailsToUpdateAUserUpdatedSinceItWasRead() {
+        UserRepositoryInternalImpl repository = repository(H2Dialect.INSTANCE);
+        User user = repository.findOneWithAuthoritiesByLogin("user").block();
+        User concurrentUser = repository.findOneWithAuthoritiesByLogin("user").block();
+
+        assertThat(repository.update(user, changedUser -> changedUser.setLangKey("fr")).block().getVersion())
+            .isEqualTo(concurrentUser.getVersion() + 1);
+        assertThatThrownBy(() -> repository.update(concurrentUser, changedUser -> changedUser.setFirstName("Jane")).block())
+            .isInstanceOf(OptimisticLockingFailureException.class);
+
+        User updated = repository.findOneWithAuthoritiesByLogin("user").block();
+        assertThat(updated.getLangKey()).isEqualTo("fr");
+        assertThat(updated.getFirstName()).isEqualTo(user.getFirstName());
+        assertThat(updated.getVersion()).isEqualTo(user.getVersion());
+    }
+
+    @Test
+    public void testIncrementsTheVersionOfTheUsersActivatedInBulk() {
+        UserRepositoryInternalImpl repository = repository(H2Dialect.INSTANCE);
+        User user = repository.findOneWithAuthoritiesByLogin("user").block();
+
+        assertThat(repository.updateActivatedBy(UserSelection.ofLogins(Collections.singletonList("user")), false, "admin",
+            OffsetDateTime.now()).block()).isEqualTo(1);
+
+        assertThat(repository.findOneWithAuthoritiesByLogin("user").block().getVersion()).isEqualTo(user.getVersion() + 1);
+        assertThatThrownBy(() -> repository.update(user, changedUser -> changedUser.setLangKey("fr")).block())
+            .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    private UserRepositoryInternalImpl repository(R2dbcDialect dialect) {
+        return new UserRepositoryInternalImpl(db, dataAccessStrategy, dialect);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mycompany.myapp.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for the {@link AuthenticatedUserExpressionHandler}.
+ */
+public class AuthenticatedUserExpressionHandlerTest {
+
+    private final AuthenticatedUserExpressionHandler handler = new AuthenticatedUserExpressionHandler();
+
+    @Test
+    public void testChecksAuthenticatedUserRoles() {
+        AuthenticatedUser user = new AuthenticatedUser("admin", Arrays.asList(GrantedAuthorities.ADMIN, GrantedAuthorities.USER));
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, "token", user.getAuthorities());
+
+        assertThat(evaluate(authentication, "hasRole('" + AuthoritiesConstants.ADMIN + "')")).isTrue();
+        assertThat(evaluate(authentication, "hasRole('ADMIN')")).isTrue();
+        assertThat(evaluate(authentication, "hasAnyAuthority('OTHER', '" + AuthoritiesConstants.USER + "')")).isTrue();
+        assertThat(evaluate(authentication, "hasAuthority('" + AuthoritiesConstants.ANONYMOUS + "')")).isFalse();
+        assertThat(evaluate(authentication, "isAuthenticated() and principal.login == 'admin'")).isTrue();
+    }
+
+    @Test
+    public void testChecksOtherAuthentications() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", "user",
+            Collections.singletonList(GrantedAuthorities.USER));
+
+        assertThat(evaluate(authentication, "hasRole('" + AuthoritiesConstants.USER + "')")).isTrue();
+        assertThat(evaluate(authentication, "hasRole('" + AuthoritiesConstants.ADMIN + "')")).isFalse();
+    }
+
+    private boolean evaluate(Authentication authentication, String expression) {
+        EvaluationContext context = handler.createEvaluationContext(authentication, mock(MethodInvocation.class));
+        return new SpelExpressionParser().parseExpression(expression).getValue(context, Boolean.class);
+    }
+}
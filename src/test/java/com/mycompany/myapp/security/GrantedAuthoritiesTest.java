@@ -0,0 +1,49 @@
+package com.mycompany.myapp.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the {@link GrantedAuthorities} registry.
+ */
+public class GrantedAuthoritiesTest {
+
+    @Test
+    public void testSharesAuthorityInstances() {
+        assertThat(GrantedAuthorities.of(AuthoritiesConstants.ADMIN)).isSameAs(GrantedAuthorities.ADMIN);
+        assertThat(GrantedAuthorities.of("ROLE_CUSTOM")).isSameAs(GrantedAuthorities.of("ROLE_CUSTOM"));
+        assertThat(GrantedAuthorities.USER.getAuthority()).isEqualTo(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    public void testSharesAuthorityListsByClaim() {
+        List<GrantedAuthority> authorities = GrantedAuthorities.fromClaim("ROLE_ADMIN,ROLE_USER");
+
+        assertThat(authorities).containsExactly(GrantedAuthorities.ADMIN, GrantedAuthorities.USER);
+        assertThat(GrantedAuthorities.fromClaim("ROLE_ADMIN,ROLE_USER")).isSameAs(authorities);
+        assertThatThrownBy(() -> authorities.add(GrantedAuthorities.ANONYMOUS))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testIgnoresEmptyNamesInClaim() {
+        assertThat(GrantedAuthorities.fromClaim("")).isEmpty();
+        assertThat(GrantedAuthorities.fromClaim(",ROLE_USER,")).containsExactly(GrantedAuthorities.USER);
+    }
+
+    @Test
+    public void testSortsNames() {
+        List<GrantedAuthority> authorities = GrantedAuthorities.fromNames(
+            Arrays.asList(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+
+        assertThat(authorities).isSameAs(GrantedAuthorities.fromClaim("ROLE_ADMIN,ROLE_USER"));
+        assertThat(GrantedAuthorities.fromNames(Collections.emptyList())).isEmpty();
+    }
+}
@@ -0,0 +1,106 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.cluster.InMemorySharedState;
+import com.mycompany.myapp.config.ApplicationProperties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link LoginRateLimiter}.
+ */
+public class LoginRateLimiterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private ApplicationProperties.Security.LoginRateLimit properties;
+
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ApplicationProperties().getSecurity().getLoginRateLimit();
+        properties.setLoginCapacity(3);
+        properties.setLoginRefillPeriod(Duration.ofSeconds(10));
+        properties.setIpCapacity(5);
+        properties.setIpRefillPeriod(Duration.ofSeconds(1));
+        loginRateLimiter = new LoginRateLimiter(properties, new InMemorySharedState(), nanoTime::get);
+    }
+
+    @Test
+    public void testThrottlesLogin() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(loginRateLimiter.tryAcquire("admin", InetAddress.getByName("10.0.0." + i)).block()).isTrue();
+        }
+        assertThat(loginRateLimiter.tryAcquire("ADMIN", InetAddress.getByName("10.0.0.3")).block()).isFalse();
+        assertThat(loginRateLimiter.tryAcquire("user", InetAddress.getByName("10.0.0.3")).block()).isTrue();
+
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(loginRateLimiter.tryAcquire("admin", InetAddress.getByName("10.0.0.4")).block()).isTrue();
+        assertThat(loginRateLimiter.tryAcquire("admin", InetAddress.getByName("10.0.0.4")).block()).isFalse();
+    }
+
+    @Test
+    public void testThrottlesAddress() throws Exception {
+        InetAddress address = InetAddress.getByName("10.0.0.1");
+        for (int i = 0; i < 5; i++) {
+            assertThat(loginRateLimiter.tryAcquire("user" + i, address).block()).isTrue();
+        }
+        assertThat(loginRateLimiter.tryAcquire("user5", address).block()).isFalse();
+        assertThat(loginRateLimiter.tryAcquire("user5", InetAddress.getByName("10.0.0.2")).block()).isTrue();
+    }
+
+    @Test
+    public void testThrottlesLoginAcrossNodes() throws Exception {
+        properties.setSharedLoginLimit(4);
+        InMemorySharedState sharedState = new InMemorySharedState();
+        LoginRateLimiter node1 = new LoginRateLimiter(properties, sharedState, nanoTime::get);
+        LoginRateLimiter node2 = new LoginRateLimiter(properties, sharedState, nanoTime::get);
+        InetAddress address = InetAddress.getByName("10.0.0.1");
+        for (int i = 0; i < 3; i++) {
+            assertThat(node1.tryAcquire("admin", address).block()).isTrue();
+        }
+
+        assertThat(node2.tryAcquire("admin", address).block()).isTrue();
+        assertThat(node2.tryAcquire("admin", address).block()).isFalse();
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        properties.setEnabled(false);
+        loginRateLimiter = new LoginRateLimiter(properties, new InMemorySharedState(), nanoTime::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(loginRateLimiter.tryAcquire("admin", InetAddress.getByName("10.0.0.1")).block()).isTrue();
+        }
+    }
+
+    @Test
+    public void testMemoryIsBounded() {
+        LoginRateLimiter.TokenBuckets buckets = new LoginRateLimiter.TokenBuckets(1024, 1, Duration.ofMinutes(1), nanoTime::get);
+        for (int i = 0; i < 100_000; i++) {
+            buckets.tryAcquire(buckets.hash("login" + i));
+        }
+
+        assertThat(buckets.size()).isEqualTo(1024);
+    }
+
+    @Test
+    public void testEvictsFullestBucket() {
+        LoginRateLimiter.TokenBuckets buckets = new LoginRateLimiter.TokenBuckets(512, 2, Duration.ofMinutes(1), nanoTime::get);
+        long throttled = buckets.hash("throttled");
+        assertThat(buckets.tryAcquire(throttled)).isTrue();
+        assertThat(buckets.tryAcquire(throttled)).isTrue();
+        for (int i = 0; i < 100_000; i++) {
+            buckets.tryAcquire(buckets.hash("login" + i));
+        }
+
+        assertThat(buckets.tryAcquire(throttled)).isFalse();
+    }
+}
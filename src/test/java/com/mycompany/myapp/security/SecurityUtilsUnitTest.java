@@ -9,6 +9,7 @@ import reactor.util.context.Context;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -85,4 +86,26 @@ public class SecurityUtilsUnitTest {
         assertThat(isCurrentUserInRole).isFalse();
     }
 
+    @Test
+    public void testReadsAuthenticatedUserFromContext() {
+        AuthenticatedUser user = new AuthenticatedUser("user", Collections.singletonList(GrantedAuthorities.USER));
+        Context context = ReactiveSecurityContextHolder.withAuthentication(
+            new UsernamePasswordAuthenticationToken("admin", "admin")
+        ).putAll(SecurityUtils.withAuthenticatedUser(user));
+
+        assertThat(SecurityUtils.getCurrentUserLogin().subscriberContext(context).block()).isEqualTo("user");
+        assertThat(SecurityUtils.isAuthenticated().subscriberContext(context).block()).isTrue();
+        assertThat(SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.USER).subscriberContext(context).block()).isTrue();
+        assertThat(SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN).subscriberContext(context).block()).isFalse();
+    }
+
+    @Test
+    public void testAnonymousAuthenticatedUserIsNotAuthenticated() {
+        AuthenticatedUser user = new AuthenticatedUser("anonymous", Collections.singletonList(GrantedAuthorities.ANONYMOUS));
+
+        Boolean isAuthenticated = SecurityUtils.isAuthenticated()
+            .subscriberContext(SecurityUtils.withAuthenticatedUser(user))
+            .block();
+        assertThat(isAuthenticated).isFalse();
+    }
 }
@@ -0,0 +1,169 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.cluster.InMemorySharedState;
+import com.mycompany.myapp.config.ApplicationProperties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link UserDetailsCache}.
+ */
+public class UserDetailsCacheTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Supplier<Mono<UserDetails>> loader = () -> Mono.fromSupplier(() -> {
+        loads.incrementAndGet();
+        return User.withUsername("user").password("hash").authorities(AuthoritiesConstants.USER).build();
+    });
+
+    private ApplicationProperties.Security.UserCache properties;
+
+    private InMemorySharedState sharedState;
+
+    private UserDetailsCache node1;
+
+    private UserDetailsCache node2;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ApplicationProperties().getSecurity().getUserCache();
+        properties.setTimeToLive(Duration.ofMinutes(1));
+        sharedState = new InMemorySharedState();
+        node1 = new UserDetailsCache(sharedState, properties, nanoTime::get);
+        node2 = new UserDetailsCache(sharedState, properties, nanoTime::get);
+    }
+
+    @AfterEach
+    public void teardown() {
+        node1.destroy();
+        node2.destroy();
+    }
+
+    @Test
+    public void testCachesUntilExpiry() {
+        assertThat(node1.get("user", loader).block().getPassword()).isEqualTo("hash");
+        assertThat(node1.get("user", loader).block().getPassword()).isEqualTo("hash");
+        assertThat(loads.get()).isEqualTo(1);
+
+        nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+        node1.get("user", loader).block();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEvictsAllOnEveryNode() {
+        node1.get("user", loader).block();
+        node2.get("user", loader).block();
+
+        node2.evictAll().block();
+
+        node1.get("user", loader).block();
+        node2.get("user", loader).block();
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testEvictsOnEveryNode() {
+        node1.get("user", loader).block();
+        node2.get("user", loader).block();
+        assertThat(loads.get()).isEqualTo(2);
+
+        node1.evict("user").block();
+
+        node1.get("user", loader).block();
+        node2.get("user", loader).block();
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testEvictsOnceTheTransactionCommits() {
+        node1.get("user", loader).block();
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(new TestTransactionManager());
+
+        transactionalOperator.transactional(node1.evict("user")
+            .then(Mono.fromRunnable(() -> {
+                // A concurrent login, before the commit, reads and caches the old row
+                node1.get("user", loader).block();
+                node2.get("user", loader).block();
+            })))
+            .block();
+        assertThat(loads.get()).isEqualTo(2);
+
+        node1.get("user", loader).block();
+        node2.get("user", loader).block();
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testDoesNotEvictWhenTheTransactionRollsBack() {
+        node1.get("user", loader).block();
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(new TestTransactionManager());
+
+        transactionalOperator.transactional(node1.evictAll().then(Mono.error(new IllegalStateException("Rollback"))))
+            .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+            .block();
+
+        node1.get("user", loader).block();
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDisabled() {
+        properties.setTimeToLive(Duration.ZERO);
+        UserDetailsCache disabled = new UserDetailsCache(sharedState, properties, nanoTime::get);
+        disabled.get("user", loader).block();
+        disabled.get("user", loader).block();
+        disabled.destroy();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    /**
+     * Transaction manager without a resource, which only runs the synchronizations.
+     */
+    private static class TestTransactionManager extends AbstractReactiveTransactionManager {
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+                                     TransactionDefinition definition) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                      GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                        GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+}
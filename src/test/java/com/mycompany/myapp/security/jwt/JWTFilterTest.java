@@ -1,6 +1,9 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RefreshToken;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.SecurityUtils;
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -16,6 +19,8 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Mono;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,18 +29,22 @@ public class JWTFilterTest {
 
     private TokenProvider tokenProvider;
 
+    private TokenRevocationList tokenRevocationList;
+
     private JWTFilter jwtFilter;
 
     @BeforeEach
     public void setup() {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
-        tokenProvider = new TokenProvider(jHipsterProperties);
-        ReflectionTestUtils.setField(tokenProvider, "key",
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties);
+        ReflectionTestUtils.setField(tokenProvider, "keyRing", KeyRing.of(KeyRing.DEFAULT_KEY_ID,
             Keys.hmacShaKeyFor(Decoders.BASE64
-                .decode("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8")));
+                .decode("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8"))));
 
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
-        jwtFilter = new JWTFilter(tokenProvider);
+        tokenRevocationList = new TokenRevocationList(null, applicationProperties.getSecurity().getRefreshToken(), Clock.systemUTC());
+        jwtFilter = new JWTFilter(tokenProvider, tokenRevocationList);
     }
 
     @Test
@@ -45,7 +54,7 @@ public class JWTFilterTest {
             "test-password",
             Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
         );
-        String jwt = tokenProvider.createToken(authentication, false);
+        String jwt = tokenProvider.createToken(authentication, 1L);
         MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest
             .get("/api/test")
             .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
@@ -57,6 +66,35 @@ public class JWTFilterTest {
                 .map(SecurityContext::getAuthentication)
                 .doOnSuccess(auth -> assertThat(auth.getName()).isEqualTo("test-user"))
                 .doOnSuccess(auth -> assertThat(auth.getCredentials().toString()).isEqualTo(jwt))
+                .then(SecurityUtils.getAuthenticatedUser())
+                .switchIfEmpty(Mono.error(new AssertionError("No authenticated user in the context")))
+                .doOnSuccess(user -> assertThat(user.hasAuthority(AuthoritiesConstants.USER)).isTrue())
+                .then()
+        ).block();
+    }
+
+    @Test
+    public void testJWTFilterRevokedSession() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, 1L);
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setId(1L);
+        refreshToken.setRevokedDate(Instant.now());
+        tokenRevocationList.apply(Collections.singletonList(refreshToken), Instant.now());
+        MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest
+            .get("/api/test")
+            .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        jwtFilter.filter(
+            exchange,
+            it -> Mono.subscriberContext()
+                .flatMap(c -> ReactiveSecurityContextHolder.getContext())
+                .map(SecurityContext::getAuthentication)
+                .doOnSuccess(auth -> assertThat(auth).isNull())
                 .then()
         ).block();
     }
@@ -116,7 +154,7 @@ public class JWTFilterTest {
             "test-password",
             Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
         );
-        String jwt = tokenProvider.createToken(authentication, false);
+        String jwt = tokenProvider.createToken(authentication, 1L);
         MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest
             .get("/api/test")
             .header(JWTFilter.AUTHORIZATION_HEADER, "Basic " + jwt);
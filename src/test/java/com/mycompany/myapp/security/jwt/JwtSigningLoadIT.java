@@ -0,0 +1,135 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.web.rest.LoadTestReport;
+
+import io.github.jhipster.config.JHipsterProperties;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the cost of creating and verifying tokens with each signing algorithm of the {@link KeyRing}.
+ * <p>
+ * Each thread creates, then verifies, {@code load-test.jwt.operations} tokens with {@link TokenProvider}, after a
+ * warm-up of the same size. The latency percentiles of each algorithm and operation are written to
+ * {@code target/load-test/jwt-report.json}: a node serving mostly API calls verifies a token per request, while it
+ * only creates one per login or refresh. The HMAC key is also measured with {@code application.security.jwt.compact-claims}.
+ * <p>
+ * EdDSA is not compared, as it is not supported by jjwt 0.10 nor by the Java 11 runtime.
+ * <p>
+ * Run with {@code ./mvnw -Pload-test verify}.
+ */
+public class JwtSigningLoadIT {
+
+    private final Logger log = LoggerFactory.getLogger(JwtSigningLoadIT.class);
+
+    private final int threads = Integer.getInteger("load-test.jwt.threads", Runtime.getRuntime().availableProcessors());
+    private final int operations = Integer.getInteger("load-test.jwt.operations", 2000);
+
+    @TempDir
+    Path keyRingDirectory;
+
+    @Test
+    public void testSigningAlgorithms() throws Exception {
+        LoadTestReport report = new LoadTestReport();
+        String hmacKeyRing = "active=hs\nkeys.hs=" + Base64.getEncoder().encodeToString(
+            Keys.secretKeyFor(SignatureAlgorithm.HS512).getEncoded()) + "\n";
+        run(report, "HS512", hmacKeyRing, false);
+        run(report, "HS512 compact", hmacKeyRing, true);
+        for (SignatureAlgorithm algorithm : Arrays.asList(SignatureAlgorithm.ES256, SignatureAlgorithm.RS256)) {
+            KeyPair keyPair = Keys.keyPairFor(algorithm);
+            run(report, algorithm.getValue(), "active=asymmetric\n" +
+                "keys.asymmetric.algorithm=" + algorithm.getValue() + "\n" +
+                "keys.asymmetric.public-key=" + Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()) + "\n" +
+                "keys.asymmetric.private-key=" + Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()) + "\n",
+                false);
+        }
+
+        log.info("JWT signing results:{}", report);
+        report.write(Paths.get("target", "load-test", "jwt-report.json"));
+
+        assertThat(report.getScenarios().values()).allSatisfy(result -> assertThat(result.getErrors()).isZero());
+    }
+
+    private void run(LoadTestReport report, String algorithm, String keyRing, boolean compactClaims) throws Exception {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getJwt().setCompactClaims(compactClaims);
+        TokenProvider tokenProvider = new TokenProvider(new JHipsterProperties(), applicationProperties);
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
+        Path location = Files.write(keyRingDirectory.resolve(algorithm.replace(' ', '-') + ".properties"),
+            keyRing.getBytes(StandardCharsets.UTF_8));
+        assertThat(tokenProvider.reloadKeyRing(location)).isTrue();
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", null,
+            Arrays.asList(new SimpleGrantedAuthority(AuthoritiesConstants.USER), new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN)));
+
+        String[] tokens = new String[threads * operations];
+        measure(report, null, i -> tokens[i] = tokenProvider.createToken(authentication, i));
+        measure(report, null, i -> tokenProvider.parseToken(tokens[i]));
+        measure(report, algorithm + " create", i -> tokens[i] = tokenProvider.createToken(authentication, i));
+        measure(report, algorithm + " verify", i -> {
+            if (tokenProvider.parseToken(tokens[i]) == null) {
+                throw new IllegalStateException("Invalid token");
+            }
+        });
+    }
+
+    private void measure(LoadTestReport report, String scenario, Operation operation) throws Exception {
+        long[] latencies = new long[threads * operations];
+        AtomicLong errors = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * operations;
+            executor.execute(() -> {
+                for (int i = offset; i < offset + operations; i++) {
+                    long operationStart = System.nanoTime();
+                    try {
+                        operation.run(i);
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - operationStart;
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        if (scenario != null) {
+            report.add(scenario, threads, latencies, errors.get(), elapsed);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+
+        void run(int i);
+    }
+}
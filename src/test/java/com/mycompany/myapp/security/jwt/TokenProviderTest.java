@@ -1,12 +1,20 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.security.Key;
+import java.security.KeyPair;
 import java.util.*;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,27 +22,39 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import io.github.jhipster.config.JHipsterProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class TokenProviderTest {
 
     private static final long ONE_MINUTE = 60000;
 
+    private static final String OLD_SECRET =
+        "ZmQ1NGE0NXM2NWZkczczN2I5YWFmY2IzNDEyZTA3ZWQ5OWIyNjdmMzM0MTMyNzQ3MjBkZGJiN2Y2YzVlNjRlOWYxNDA3NWYyZDdlZDA0MTU5MmYwYjc2NTdiYWY4";
+
+    private static final String NEW_SECRET =
+        "bmV3LXNlY3JldC1iYXNlNjQtZW5jb2RlZC1hbmQtbG9uZy1lbm91Z2gtZm9yLXRoZS1oczUxMi1hbGdvcml0aG0tNjQtYnl0ZXMtbWluaW11bS0xMjM0NTY3ODkw";
+
+    @TempDir
+    Path keyRingDirectory;
+
     private Key key;
     private TokenProvider tokenProvider;
 
     @BeforeEach
     public void setup() {
-        tokenProvider = new TokenProvider( new JHipsterProperties());
+        tokenProvider = new TokenProvider(new JHipsterProperties(), new ApplicationProperties());
         key = Keys.hmacShaKeyFor(Decoders.BASE64
             .decode("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8"));
 
-        ReflectionTestUtils.setField(tokenProvider, "key", key);
+        ReflectionTestUtils.setField(tokenProvider, "keyRing", KeyRing.of(KeyRing.DEFAULT_KEY_ID, key));
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
     }
 
@@ -48,7 +68,7 @@ public class TokenProviderTest {
     @Test
     public void testReturnFalseWhenJWTisMalformed() {
         Authentication authentication = createAuthentication();
-        String token = tokenProvider.createToken(authentication, false);
+        String token = tokenProvider.createToken(authentication, 1L);
         String invalidToken = token.substring(1);
         boolean isTokenValid = tokenProvider.validateToken(invalidToken);
 
@@ -60,7 +80,7 @@ public class TokenProviderTest {
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
 
         Authentication authentication = createAuthentication();
-        String token = tokenProvider.createToken(authentication, false);
+        String token = tokenProvider.createToken(authentication, 1L);
 
         boolean isTokenValid = tokenProvider.validateToken(token);
 
@@ -76,6 +96,154 @@ public class TokenProviderTest {
         assertThat(isTokenValid).isEqualTo(false);
     }
 
+    @Test
+    public void testParseSessionId() {
+        String token = tokenProvider.createToken(createAuthentication(), 42L);
+
+        TokenClaims claims = tokenProvider.parseToken(token);
+
+        assertThat(claims.getSessionId()).isEqualTo(42L);
+        assertThat(tokenProvider.getAuthentication(token, claims).getName()).isEqualTo("anonymous");
+    }
+
+    @Test
+    public void testCompactClaims() {
+        TokenProvider compactTokenProvider = compactTokenProvider();
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", "user", Arrays.asList(
+            new SimpleGrantedAuthority(AuthoritiesConstants.USER), new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN)));
+
+        String token = compactTokenProvider.createToken(authentication, 42L);
+
+        Claims claims = Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody();
+        assertThat(claims.get("am", Long.class)).isEqualTo(3L);
+        assertThat(claims).doesNotContainKey("auth");
+        for (TokenProvider provider : Arrays.asList(compactTokenProvider, tokenProvider)) {
+            TokenClaims tokenClaims = provider.parseToken(token);
+            assertThat(tokenClaims.getSubject()).isEqualTo("user");
+            assertThat(tokenClaims.getSessionId()).isEqualTo(42L);
+            assertThat(tokenClaims.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        }
+    }
+
+    @Test
+    public void testCompactClaimsAcceptsCommaSeparatedAuthorities() {
+        String token = tokenProvider.createToken(createAuthentication(), 1L);
+
+        TokenClaims claims = compactTokenProvider().parseToken(token);
+
+        assertThat(claims.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    @Test
+    public void testCompactClaimsWithAuthorityWithoutBit() {
+        String token = compactTokenProvider().createToken(createAuthentication(), 1L);
+
+        Claims claims = Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody();
+        assertThat(claims.get("auth")).isEqualTo(AuthoritiesConstants.ANONYMOUS);
+        assertThat(tokenProvider.validateToken(token)).isTrue();
+    }
+
+    @Test
+    public void testReturnFalseWhenCompactJWTisTamperedOrExpired() {
+        TokenProvider compactTokenProvider = compactTokenProvider();
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", "user",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+        String token = compactTokenProvider.createToken(authentication, 1L);
+        String[] parts = token.split("\\.");
+        String admin = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8).replace("\"am\":2", "\"am\":3")
+                .getBytes(StandardCharsets.UTF_8));
+
+        assertThat(compactTokenProvider.validateToken(parts[0] + "." + admin + "." + parts[2])).isFalse();
+
+        ReflectionTestUtils.setField(compactTokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        assertThat(compactTokenProvider.validateToken(compactTokenProvider.createToken(authentication, 1L))).isFalse();
+    }
+
+    @Test
+    public void testVerifiesWithRetiringKey() throws IOException {
+        Path location = writeKeyRing("active=old\nkeys.old=" + OLD_SECRET + "\n");
+        assertThat(tokenProvider.reloadKeyRing(location)).isTrue();
+        String oldToken = tokenProvider.createToken(createAuthentication(), 1L);
+
+        writeKeyRing("active=new\nkeys.old=" + OLD_SECRET + "\nkeys.new=" + NEW_SECRET + "\n");
+        Files.setLastModifiedTime(location, FileTime.fromMillis(System.currentTimeMillis() + ONE_MINUTE));
+        assertThat(tokenProvider.reloadKeyRing(location)).isTrue();
+        String newToken = tokenProvider.createToken(createAuthentication(), 1L);
+
+        assertThat(Jwts.parser().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(NEW_SECRET)))
+            .parseClaimsJws(newToken).getHeader().getKeyId()).isEqualTo("new");
+        assertThat(tokenProvider.validateToken(oldToken)).isTrue();
+        assertThat(tokenProvider.validateToken(newToken)).isTrue();
+
+        writeKeyRing("active=new\nkeys.new=" + NEW_SECRET + "\n");
+        Files.setLastModifiedTime(location, FileTime.fromMillis(System.currentTimeMillis() + 2 * ONE_MINUTE));
+        assertThat(tokenProvider.reloadKeyRing(location)).isTrue();
+
+        assertThat(tokenProvider.validateToken(oldToken)).isFalse();
+        assertThat(tokenProvider.validateToken(newToken)).isTrue();
+    }
+
+    @Test
+    public void testKeepsKeyRingWhenReloadFails() throws IOException {
+        Path location = writeKeyRing("active=old\nkeys.old=" + OLD_SECRET + "\n");
+        assertThat(tokenProvider.reloadKeyRing(location)).isTrue();
+        String token = tokenProvider.createToken(createAuthentication(), 1L);
+
+        writeKeyRing("active=missing\nkeys.old=" + OLD_SECRET + "\n");
+        Files.setLastModifiedTime(location, FileTime.fromMillis(System.currentTimeMillis() + ONE_MINUTE));
+        assertThat(tokenProvider.reloadKeyRing(location)).isTrue();
+
+        assertThat(tokenProvider.validateToken(token)).isTrue();
+    }
+
+    @Test
+    public void testSignsWithEllipticCurveKey() throws IOException {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        Path location = writeKeyRing(ellipticCurveKeyRing(keyPair, true));
+        assertThat(tokenProvider.reloadKeyRing(location)).isTrue();
+
+        String token = tokenProvider.createToken(createAuthentication(), 1L);
+
+        assertThat(Jwts.parser().setSigningKey(keyPair.getPublic()).parseClaimsJws(token).getHeader().getAlgorithm())
+            .isEqualTo(SignatureAlgorithm.ES256.getValue());
+        assertThat(tokenProvider.validateToken(token)).isTrue();
+    }
+
+    @Test
+    public void testVerifyOnlyNode() throws IOException {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        assertThat(tokenProvider.reloadKeyRing(writeKeyRing(ellipticCurveKeyRing(keyPair, true)))).isTrue();
+        String token = tokenProvider.createToken(createAuthentication(), 1L);
+
+        TokenProvider verifyOnlyTokenProvider = new TokenProvider(new JHipsterProperties(), new ApplicationProperties());
+        ReflectionTestUtils.setField(verifyOnlyTokenProvider, "verifyOnly", true);
+        Path location = Files.write(keyRingDirectory.resolve("public-key-ring.properties"),
+            ellipticCurveKeyRing(keyPair, false).getBytes(StandardCharsets.UTF_8));
+        assertThat(verifyOnlyTokenProvider.reloadKeyRing(location)).isTrue();
+
+        assertThat(verifyOnlyTokenProvider.validateToken(token)).isTrue();
+        assertThatThrownBy(() -> verifyOnlyTokenProvider.createToken(createAuthentication(), 1L))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testReturnFalseWhenJWTAlgorithmDoesNotMatchKey() throws IOException {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        assertThat(tokenProvider.reloadKeyRing(writeKeyRing(ellipticCurveKeyRing(keyPair, true)))).isTrue();
+
+        String token = Jwts.builder()
+            .setHeaderParam(JwsHeader.KEY_ID, "ec")
+            .setSubject("anonymous")
+            .signWith(key, SignatureAlgorithm.HS512)
+            .setExpiration(new Date(new Date().getTime() + ONE_MINUTE))
+            .compact();
+
+        assertThat(tokenProvider.validateToken(token)).isFalse();
+    }
+
     @Test
     public void testReturnFalseWhenJWTisInvalid() {
         boolean isTokenValid = tokenProvider.validateToken("");
@@ -83,6 +251,27 @@ public class TokenProviderTest {
         assertThat(isTokenValid).isEqualTo(false);
     }
 
+    private static String ellipticCurveKeyRing(KeyPair keyPair, boolean withPrivateKey) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return "active=ec\n" +
+            "keys.ec.algorithm=ES256\n" +
+            "keys.ec.public-key=" + encoder.encodeToString(keyPair.getPublic().getEncoded()) + "\n" +
+            (withPrivateKey ? "keys.ec.private-key=" + encoder.encodeToString(keyPair.getPrivate().getEncoded()) + "\n" : "");
+    }
+
+    private Path writeKeyRing(String content) throws IOException {
+        return Files.write(keyRingDirectory.resolve("key-ring.properties"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private TokenProvider compactTokenProvider() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getJwt().setCompactClaims(true);
+        TokenProvider compactTokenProvider = new TokenProvider(new JHipsterProperties(), applicationProperties);
+        ReflectionTestUtils.setField(compactTokenProvider, "keyRing", KeyRing.of(KeyRing.DEFAULT_KEY_ID, key));
+        ReflectionTestUtils.setField(compactTokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
+        return compactTokenProvider;
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
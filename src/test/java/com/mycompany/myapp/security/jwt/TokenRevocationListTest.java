@@ -0,0 +1,98 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RefreshToken;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the {@link TokenRevocationList}.
+ */
+public class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2020-01-01T00:00:00Z");
+
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private ApplicationProperties.Security.RefreshToken properties;
+
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    public void setup() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        properties = new ApplicationProperties.Security.RefreshToken();
+        properties.setAccessTokenValidity(Duration.ofMinutes(15));
+        properties.setRevocationSyncOverlap(Duration.ofSeconds(10));
+        tokenRevocationList = new TokenRevocationList(refreshTokenRepository, properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testRevokesSessions() {
+        List<RefreshToken> revoked = new ArrayList<>();
+        for (long id = 1; id <= 1000; id += 2) {
+            revoked.add(revoked(id, NOW));
+        }
+
+        tokenRevocationList.apply(revoked, NOW);
+
+        for (long id = 1; id <= 1000; id++) {
+            assertThat(tokenRevocationList.isRevoked(id)).as("session %s", id).isEqualTo(id % 2 == 1);
+        }
+    }
+
+    @Test
+    public void testForgetsRevocationsOnceAccessTokensExpired() {
+        tokenRevocationList.apply(Collections.singletonList(revoked(1L, NOW)), NOW);
+        tokenRevocationList.apply(Collections.singletonList(revoked(2L, NOW.minus(Duration.ofMinutes(20)))), NOW);
+
+        assertThat(tokenRevocationList.isRevoked(1L)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(2L)).isFalse();
+
+        tokenRevocationList.apply(Collections.emptyList(), NOW.plus(Duration.ofMinutes(15)));
+
+        assertThat(tokenRevocationList.isRevoked(1L)).isFalse();
+    }
+
+    @Test
+    public void testSyncsIncrementally() {
+        when(refreshTokenRepository.findAllByRevokedDateSince(any()))
+            .thenReturn(Flux.just(revoked(1L, NOW)));
+
+        tokenRevocationList.sync().block();
+        tokenRevocationList.sync().block();
+
+        ArgumentCaptor<OffsetDateTime> since = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(refreshTokenRepository, times(2)).findAllByRevokedDateSince(since.capture());
+        assertThat(since.getAllValues().get(0).toInstant()).isEqualTo(NOW.minus(Duration.ofMinutes(15)));
+        assertThat(since.getAllValues().get(1).toInstant()).isEqualTo(NOW.minus(Duration.ofSeconds(10)));
+        assertThat(tokenRevocationList.isRevoked(1L)).isTrue();
+    }
+
+    private static RefreshToken revoked(long id, Instant revokedDate) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setId(id);
+        refreshToken.setRevokedDate(revokedDate);
+        return refreshToken;
+    }
+}
@@ -0,0 +1,111 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RefreshToken;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.jwt.TokenProvider;
+import com.mycompany.myapp.security.jwt.TokenRevocationList;
+import io.github.jhipster.config.JHipsterProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the {@link RefreshTokenService} revoking the sessions in the transaction of its caller.
+ */
+public class RefreshTokenServiceTest {
+
+    private static final long SESSION_ID = 42L;
+
+    private TokenRevocationList tokenRevocationList;
+
+    private RefreshTokenService refreshTokenService;
+
+    private TransactionalOperator transactionalOperator;
+
+    @BeforeEach
+    public void setup() {
+        RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+        RefreshToken revoked = new RefreshToken();
+        revoked.setId(SESSION_ID);
+        revoked.setRevokedDate(Instant.now());
+        when(refreshTokenRepository.revokeAllByLogin(anyString(), any())).thenReturn(Mono.just(1));
+        // As read on the connection of the transaction, whether it commits or not
+        when(refreshTokenRepository.findAllByRevokedDateSince(any())).thenReturn(Flux.just(revoked));
+        tokenRevocationList = new TokenRevocationList(refreshTokenRepository, new ApplicationProperties());
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, mock(UserRepository.class),
+            mock(ReactiveUserDetailsService.class), mock(TokenProvider.class), tokenRevocationList, new JHipsterProperties());
+        transactionalOperator = TransactionalOperator.create(new TestTransactionManager());
+    }
+
+    @Test
+    public void testRevokesTheSessionsOnceTheTransactionCommits() {
+        transactionalOperator.transactional(refreshTokenService.revokeTokens("user")
+            .then(Mono.fromRunnable(() -> assertThat(tokenRevocationList.isRevoked(SESSION_ID)).isFalse())))
+            .block();
+
+        assertThat(tokenRevocationList.isRevoked(SESSION_ID)).isTrue();
+    }
+
+    @Test
+    public void testKeepsTheSessionsWhenTheTransactionRollsBack() {
+        transactionalOperator.transactional(refreshTokenService.revokeTokens("user")
+            .then(Mono.error(new IllegalStateException("Rollback"))))
+            .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+            .block();
+
+        assertThat(tokenRevocationList.isRevoked(SESSION_ID)).isFalse();
+    }
+
+    @Test
+    public void testRevokesTheSessionsAtOnceWithoutTransaction() {
+        refreshTokenService.revokeTokens("user").block();
+
+        assertThat(tokenRevocationList.isRevoked(SESSION_ID)).isTrue();
+    }
+
+    /**
+     * Transaction manager without a resource, which only runs the synchronizations.
+     */
+    private static class TestTransactionManager extends AbstractReactiveTransactionManager {
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+                                     TransactionDefinition definition) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                      GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                        GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+}
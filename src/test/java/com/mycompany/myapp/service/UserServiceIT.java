@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Integration tests for {@link UserService}.
@@ -179,4 +180,46 @@ public class UserServiceIT {
             .isTrue();
     }
 
+    @Test
+    public void assertThatCreatingAUserWithAnExistingLoginOrEmailFails() {
+        userRepository.save(user).block();
+        UserDTO userDTO = new UserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN.toUpperCase());
+        userDTO.setEmail("anotherjohndoe@localhost");
+        userDTO.setLangKey(DEFAULT_LANGKEY);
+
+        assertThatThrownBy(() -> userService.createUser(userDTO).block())
+            .isInstanceOf(UsernameAlreadyUsedException.class);
+
+        userDTO.setLogin("anotherjohndoe");
+        userDTO.setEmail(DEFAULT_EMAIL);
+
+        assertThatThrownBy(() -> userService.createUser(userDTO).block())
+            .isInstanceOf(EmailAlreadyUsedException.class);
+    }
+
+    @Test
+    public void assertThatUpdatingAUserWithAnExistingLoginOrEmailFails() {
+        userRepository.save(user).block();
+        User anotherUser = new User();
+        anotherUser.setLogin("anotherjohndoe");
+        anotherUser.setPassword(RandomStringUtils.random(60));
+        anotherUser.setActivated(true);
+        anotherUser.setEmail("anotherjohndoe@localhost");
+        anotherUser.setLangKey(DEFAULT_LANGKEY);
+        anotherUser.setCreatedBy(Constants.SYSTEM_ACCOUNT);
+        userRepository.save(anotherUser).block();
+
+        UserDTO userDTO = new UserDTO(userRepository.findOneByLogin("anotherjohndoe").block());
+        userDTO.setLogin(DEFAULT_LOGIN);
+
+        assertThatThrownBy(() -> userService.updateUser(userDTO).block())
+            .isInstanceOf(UsernameAlreadyUsedException.class);
+
+        userDTO.setLogin("anotherjohndoe");
+        userDTO.setEmail(DEFAULT_EMAIL.toUpperCase());
+
+        assertThatThrownBy(() -> userService.updateUser(userDTO).block())
+            .isInstanceOf(EmailAlreadyUsedException.class);
+    }
 }
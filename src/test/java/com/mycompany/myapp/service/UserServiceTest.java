@@ -0,0 +1,73 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.r2dbc.JdbcConnectionFactory;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test class for the {@link UserService} recognizing the unique violations of each database it runs on.
+ */
+public class UserServiceTest {
+
+    @Test
+    public void testRecognizesTheUniqueViolationsOfH2() {
+        assertRecognizesTheUniqueViolations(ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() +
+            "?options=DB_CLOSE_DELAY=-1"));
+    }
+
+    @Test
+    public void testRecognizesTheUniqueViolationsOfH2InMySqlMode() {
+        assertRecognizesTheUniqueViolations(ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() +
+            "?options=DB_CLOSE_DELAY=-1;MODE=MySQL"));
+    }
+
+    @Test
+    public void testRecognizesTheUniqueViolationsOfJdbc() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL");
+        JdbcConnectionFactory connectionFactory = new JdbcConnectionFactory(dataSource, 2, "test");
+        try {
+            assertRecognizesTheUniqueViolations(connectionFactory);
+        } finally {
+            connectionFactory.dispose();
+        }
+    }
+
+    @Test
+    public void testRecognizesTheUniqueViolationsOfMySql() {
+        // As reported by the R2DBC driver of MySQL, which is not available to the tests
+        R2dbcDataIntegrityViolationException duplicateEntry = new R2dbcDataIntegrityViolationException(
+            "Duplicate entry 'admin' for key 'ux_user_login'", "23000", 1062);
+        R2dbcDataIntegrityViolationException notNull = new R2dbcDataIntegrityViolationException(
+            "Column 'login' cannot be null", "23000", 1048);
+
+        assertThat(UserService.isUniqueViolation(new DataIntegrityViolationException("Insert", duplicateEntry))).isTrue();
+        assertThat(UserService.isUniqueViolation(new DataIntegrityViolationException("Insert", notNull))).isFalse();
+    }
+
+    private void assertRecognizesTheUniqueViolations(ConnectionFactory connectionFactory) {
+        DatabaseClient db = DatabaseClient.create(connectionFactory);
+        db.execute("CREATE TABLE jhi_user (id BIGINT AUTO_INCREMENT PRIMARY KEY, login VARCHAR(50) NOT NULL)").then().block();
+        db.execute("CREATE UNIQUE INDEX ux_user_login ON jhi_user (login)").then().block();
+        db.execute("INSERT INTO jhi_user (login) VALUES ('admin')").then().block();
+
+        Throwable duplicateLogin = catchThrowable(() -> db.execute("INSERT INTO jhi_user (login) VALUES ('admin')").then().block());
+        Throwable nullLogin = catchThrowable(() -> db.execute("INSERT INTO jhi_user (login) VALUES (NULL)").then().block());
+
+        assertThat(duplicateLogin).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(UserService.isUniqueViolation(duplicateLogin)).isTrue();
+        assertThat(nullLogin).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(UserService.isUniqueViolation(nullLogin)).isFalse();
+    }
+}
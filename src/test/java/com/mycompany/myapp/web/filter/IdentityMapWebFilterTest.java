@@ -0,0 +1,32 @@
+package com.mycompany.myapp.web.filter;
+
+import com.mycompany.myapp.aop.identity.IdentityMap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdentityMapWebFilterTest {
+
+    private final IdentityMapWebFilter identityMapWebFilter = new IdentityMapWebFilter();
+
+    @Test
+    public void testGivesEachRequestItsOwnIdentityMap() {
+        List<IdentityMap> identityMaps = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            identityMapWebFilter.filter(
+                MockServerWebExchange.from(MockServerHttpRequest.get("/api/account")),
+                it -> Mono.subscriberContext().doOnNext(c -> identityMaps.add(c.get(IdentityMap.KEY))).then()
+            ).block();
+        }
+
+        assertThat(identityMaps).hasSize(2).doesNotContainNull();
+        assertThat(identityMaps.get(1)).isNotSameAs(identityMaps.get(0));
+    }
+}
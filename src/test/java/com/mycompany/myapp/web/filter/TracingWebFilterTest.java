@@ -0,0 +1,55 @@
+package com.mycompany.myapp.web.filter;
+
+import com.mycompany.myapp.aop.tracing.TraceContext;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracingWebFilterTest {
+
+    private final TracingWebFilter tracingWebFilter = new TracingWebFilter();
+
+    @Test
+    public void testContinuesTraceOfCaller() {
+        MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest
+            .get("/api/test")
+            .header(TracingWebFilter.TRACE_ID_HEADER, "463ac35c9f6413ad48485a3953bb6124")
+            .header(TracingWebFilter.SPAN_ID_HEADER, "a2fb4a1d1a96d312");
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        AtomicReference<TraceContext> trace = new AtomicReference<>();
+        tracingWebFilter.filter(
+            exchange,
+            it -> Mono.subscriberContext().doOnNext(c -> trace.set(TraceContext.current(c))).then()
+        ).block();
+
+        assertThat(trace.get().getTraceId()).isEqualTo("463ac35c9f6413ad48485a3953bb6124");
+        assertThat(trace.get().getParentSpanId()).isEqualTo("a2fb4a1d1a96d312");
+        assertThat(trace.get().getSpanId()).hasSize(16).isNotEqualTo("a2fb4a1d1a96d312");
+        assertThat(exchange.getResponse().getHeaders().getFirst(TracingWebFilter.TRACE_ID_HEADER))
+            .isEqualTo("463ac35c9f6413ad48485a3953bb6124");
+    }
+
+    @Test
+    public void testStartsNewTraceOnInvalidHeader() {
+        MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest
+            .get("/api/test")
+            .header(TracingWebFilter.TRACE_ID_HEADER, "not-a-trace-id");
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        AtomicReference<TraceContext> trace = new AtomicReference<>();
+        tracingWebFilter.filter(
+            exchange,
+            it -> Mono.subscriberContext().doOnNext(c -> trace.set(TraceContext.current(c))).then()
+        ).block();
+
+        assertThat(trace.get().getTraceId()).hasSize(16).isEqualTo(trace.get().getSpanId());
+        assertThat(trace.get().getParentSpanId()).isNull();
+        assertThat(exchange.getResponse().getHeaders().getFirst(TracingWebFilter.TRACE_ID_HEADER))
+            .isEqualTo(trace.get().getTraceId());
+    }
+}
@@ -455,6 +455,34 @@ public class AccountResourceIT {
         assertThat(updatedUser.getAuthorities()).isEmpty();
     }
 
+    @Test
+    @WithMockUser("save-account-stale")
+    public void testSaveAccountWithAStaleVersion() throws Exception {
+        User user = new User();
+        user.setLogin("save-account-stale");
+        user.setEmail("save-account-stale@example.com");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setCreatedBy(Constants.SYSTEM_ACCOUNT);
+
+        userRepository.save(user).block();
+
+        UserDTO userDTO = new UserDTO(userRepository.findOneByLogin(user.getLogin()).block());
+        userDTO.setFirstName("firstname");
+        userRepository.update(userRepository.findOneByLogin(user.getLogin()).block(), concurrentUser -> concurrentUser.setLastName("lastname"))
+            .block();
+
+        accountWebTestClient.post().uri("/api/account")
+            .contentType(TestUtil.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(userDTO))
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        User updatedUser = userRepository.findOneByLogin(user.getLogin()).block();
+        assertThat(updatedUser.getFirstName()).isNull();
+        assertThat(updatedUser.getLastName()).isEqualTo("lastname");
+    }
+
     @Test
     @WithMockUser("save-invalid-email")
     public void testSaveInvalidEmail() throws Exception {
@@ -0,0 +1,191 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.R2DbcApp;
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.jwt.JWTFilter;
+import com.mycompany.myapp.web.rest.vm.LoginVM;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the main REST endpoints, run against the application on H2.
+ * <p>
+ * It is excluded from the default build, run it with {@code ./mvnw -Pload-test verify}. The following system
+ * properties can be set on the command line:
+ * <ul>
+ * <li>{@code load-test.concurrency}: number of in-flight requests, defaults to 16.</li>
+ * <li>{@code load-test.requests}: number of measured requests per scenario, defaults to 500.</li>
+ * <li>{@code load-test.warmup-requests}: number of unmeasured requests per scenario, defaults to 100.</li>
+ * <li>{@code load-test.users}: number of users created before the run, defaults to 100.</li>
+ * <li>{@code load-test.threshold}: tolerated regression against the baseline, defaults to 0.2 (20%).</li>
+ * <li>{@code load-test.baseline}: baseline file, defaults to {@code src/test/resources/config/load-test-baseline.json}.</li>
+ * <li>{@code load-test.update-baseline}: if {@code true}, the baseline file is overwritten with the results of the run.</li>
+ * </ul>
+ * The results are always written to {@code target/load-test/report.json}.
+ */
+@SpringBootTest(classes = R2DbcApp.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "application.security.login-rate-limit.enabled=false")
+public class ApiLoadIT {
+
+    private static final String LOAD_TEST_LOGIN = "load-test-admin";
+    private static final String LOAD_TEST_PASSWORD = "load-test-password";
+    private static final String GENERATED_LOGIN_PREFIX = "load-test-user-";
+
+    private final Logger log = LoggerFactory.getLogger(ApiLoadIT.class);
+
+    private final int concurrency = Integer.getInteger("load-test.concurrency", 16);
+    private final int requests = Integer.getInteger("load-test.requests", 500);
+    private final int warmupRequests = Integer.getInteger("load-test.warmup-requests", 100);
+    private final int users = Integer.getInteger("load-test.users", 100);
+    private final double threshold = Double.parseDouble(System.getProperty("load-test.threshold", "0.2"));
+    private final Path baselinePath = Paths.get(System.getProperty("load-test.baseline", "src/test/resources/config/load-test-baseline.json"));
+    private final boolean updateBaseline = Boolean.getBoolean("load-test.update-baseline");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private WebClient webClient;
+
+    @BeforeEach
+    public void setup() {
+        webClient = WebClient.create("http://localhost:" + port);
+        User admin = createUser(LOAD_TEST_LOGIN, passwordEncoder.encode(LOAD_TEST_PASSWORD));
+        userRepository.saveUserAuthority(admin.getId(), AuthoritiesConstants.ADMIN)
+            .then(userRepository.saveUserAuthority(admin.getId(), AuthoritiesConstants.USER))
+            .block();
+        // The generated users only populate the listing, they share a hash which is never checked
+        String password = passwordEncoder.encode(LOAD_TEST_PASSWORD);
+        for (int i = 0; i < users; i++) {
+            createUser(GENERATED_LOGIN_PREFIX + i, password);
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        userRepository.findAll()
+            .filter(user -> user.getLogin().startsWith("load-test-"))
+            .concatMap(user -> userRepository.deleteUserAuthoritiesByUserId(user.getId()).then(userRepository.delete(user)))
+            .blockLast();
+    }
+
+    @Test
+    public void loadTest() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername(LOAD_TEST_LOGIN);
+        login.setPassword(LOAD_TEST_PASSWORD);
+        byte[] loginBody = TestUtil.convertObjectToJsonBytes(login);
+        String authorization = "Bearer " + webClient.post().uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(loginBody)
+            .retrieve()
+            .bodyToMono(Map.class)
+            .map(body -> body.get("id_token").toString())
+            .block();
+
+        LoadTestReport report = new LoadTestReport();
+        run(report, "authenticate", () -> webClient.post().uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(loginBody)
+            .exchange()
+            .flatMap(response -> response.releaseBody().thenReturn(response.statusCode())));
+        run(report, "account", () -> webClient.get().uri("/api/account")
+            .header(JWTFilter.AUTHORIZATION_HEADER, authorization)
+            .exchange()
+            .flatMap(response -> response.releaseBody().thenReturn(response.statusCode())));
+        AtomicInteger page = new AtomicInteger();
+        run(report, "users", () -> webClient.get().uri("/api/users?page={page}&size=20", page.getAndIncrement() % 5)
+            .header(JWTFilter.AUTHORIZATION_HEADER, authorization)
+            .exchange()
+            .flatMap(response -> response.releaseBody().thenReturn(response.statusCode())));
+        run(report, "audits", () -> webClient.get().uri("/management/audits?page=0&size=20")
+            .header(JWTFilter.AUTHORIZATION_HEADER, authorization)
+            .exchange()
+            .flatMap(response -> response.releaseBody().thenReturn(response.statusCode())));
+
+        log.info("Load test results:{}", report);
+        report.write(Paths.get("target", "load-test", "report.json"));
+
+        report.getScenarios().forEach((name, result) ->
+            assertThat(result.getErrors()).as("errors in scenario %s", name).isZero());
+        if (updateBaseline) {
+            report.write(baselinePath);
+            log.info("Load test baseline updated in {}", baselinePath.toAbsolutePath());
+        } else if (Files.exists(baselinePath)) {
+            List<String> regressions = report.regressionsAgainst(LoadTestReport.read(baselinePath), threshold);
+            assertThat(regressions).as("regressions against %s", baselinePath).isEmpty();
+        } else {
+            log.warn("No load test baseline found in {}, run with -Dload-test.update-baseline=true to create it",
+                baselinePath.toAbsolutePath());
+        }
+    }
+
+    private void run(LoadTestReport report, String scenario, Supplier<Mono<HttpStatus>> request) {
+        execute(request, warmupRequests, new long[warmupRequests], new AtomicLong());
+
+        long[] latencies = new long[requests];
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        execute(request, requests, latencies, errors);
+        report.add(scenario, concurrency, latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    private void execute(Supplier<Mono<HttpStatus>> request, int count, long[] latencies, AtomicLong errors) {
+        Flux.range(0, count)
+            .flatMap(i -> Mono.defer(() -> {
+                long start = System.nanoTime();
+                return request.get()
+                    .doOnNext(status -> {
+                        if (!status.is2xxSuccessful()) {
+                            errors.incrementAndGet();
+                        }
+                    })
+                    .doOnError(e -> errors.incrementAndGet())
+                    .onErrorResume(e -> Mono.empty())
+                    .doFinally(signal -> latencies[i] = System.nanoTime() - start);
+            }), concurrency)
+            .blockLast();
+    }
+
+    private User createUser(String login, String encodedPassword) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@localhost");
+        user.setActivated(true);
+        user.setPassword(encodedPassword);
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        user.setCreatedBy(Constants.SYSTEM_ACCOUNT);
+        return userRepository.save(user).block();
+    }
+}
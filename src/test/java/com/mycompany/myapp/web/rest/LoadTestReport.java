@@ -0,0 +1,211 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles of a load test run, and comparison against a stored baseline.
+ */
+public class LoadTestReport {
+
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private Map<String, ScenarioResult> scenarios = new LinkedHashMap<>();
+
+    public Map<String, ScenarioResult> getScenarios() {
+        return scenarios;
+    }
+
+    public void setScenarios(Map<String, ScenarioResult> scenarios) {
+        this.scenarios = scenarios;
+    }
+
+    /**
+     * Compute the statistics of a scenario and add them to the report.
+     *
+     * @param name the scenario name.
+     * @param concurrency the number of in-flight requests.
+     * @param latenciesInNanos the latency of each request, in nanoseconds.
+     * @param errors the number of requests which did not complete with a 2xx status.
+     * @param elapsedInNanos the wall-clock duration of the whole scenario, in nanoseconds.
+     * @return the computed statistics.
+     */
+    public ScenarioResult add(String name, int concurrency, long[] latenciesInNanos, long errors, long elapsedInNanos) {
+        long[] sorted = latenciesInNanos.clone();
+        Arrays.sort(sorted);
+        ScenarioResult result = new ScenarioResult();
+        result.setRequests(sorted.length);
+        result.setConcurrency(concurrency);
+        result.setErrors(errors);
+        result.setThroughput(sorted.length / (elapsedInNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+        result.setP50(percentileInMillis(sorted, 0.50));
+        result.setP90(percentileInMillis(sorted, 0.90));
+        result.setP95(percentileInMillis(sorted, 0.95));
+        result.setP99(percentileInMillis(sorted, 0.99));
+        result.setMax(percentileInMillis(sorted, 1.0));
+        scenarios.put(name, result);
+        return result;
+    }
+
+    /**
+     * List the scenarios which regressed compared to a baseline.
+     * <p>
+     * A scenario regresses when its throughput is lower, or its 95th percentile latency higher, than the baseline
+     * by more than the given threshold.
+     *
+     * @param baseline the stored baseline.
+     * @param threshold the tolerated relative regression, {@code 0.2} meaning 20%.
+     * @return a description of each regression, empty if there is none.
+     */
+    public List<String> regressionsAgainst(LoadTestReport baseline, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        scenarios.forEach((name, current) -> {
+            ScenarioResult reference = baseline.getScenarios().get(name);
+            if (reference == null) {
+                return;
+            }
+            if (current.getThroughput() < reference.getThroughput() * (1 - threshold)) {
+                regressions.add(String.format("%s: throughput %.1f req/s is below baseline %.1f req/s",
+                    name, current.getThroughput(), reference.getThroughput()));
+            }
+            if (current.getP95() > reference.getP95() * (1 + threshold)) {
+                regressions.add(String.format("%s: p95 %.2f ms is above baseline %.2f ms",
+                    name, current.getP95(), reference.getP95()));
+            }
+        });
+        return regressions;
+    }
+
+    public static LoadTestReport read(Path path) throws IOException {
+        return mapper.readValue(path.toFile(), LoadTestReport.class);
+    }
+
+    public void write(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        mapper.writeValue(path.toFile(), this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format("%n%-16s %8s %6s %7s %10s %9s %9s %9s %9s %9s%n",
+            "scenario", "requests", "conc.", "errors", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms"));
+        scenarios.forEach((name, result) -> builder.append(String.format("%-16s %8d %6d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+            name, result.getRequests(), result.getConcurrency(), result.getErrors(), result.getThroughput(),
+            result.getP50(), result.getP90(), result.getP95(), result.getP99(), result.getMax())));
+        return builder.toString();
+    }
+
+    private static double percentileInMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Statistics of a single scenario.
+     */
+    public static class ScenarioResult {
+
+        private int requests;
+
+        private int concurrency;
+
+        private long errors;
+
+        private double throughput;
+
+        private double p50;
+
+        private double p90;
+
+        private double p95;
+
+        private double p99;
+
+        private double max;
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public void setRequests(int requests) {
+            this.requests = requests;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public void setErrors(long errors) {
+            this.errors = errors;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public void setThroughput(double throughput) {
+            this.throughput = throughput;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public void setP50(double p50) {
+            this.p50 = p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public void setP90(double p90) {
+            this.p90 = p90;
+        }
+
+        public double getP95() {
+            return p95;
+        }
+
+        public void setP95(double p95) {
+            this.p95 = p95;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public void setP99(double p99) {
+            this.p99 = p99;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public void setMax(double max) {
+            this.max = max;
+        }
+    }
+}
@@ -4,15 +4,24 @@ import com.mycompany.myapp.R2DbcApp;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.web.rest.vm.LoginVM;
+import com.mycompany.myapp.web.rest.vm.RefreshTokenVM;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * Integration tests for the {@link UserJWTController} REST controller.
  */
@@ -23,6 +32,9 @@ public class UserJWTControllerIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -78,6 +90,72 @@ public class UserJWTControllerIT {
             .jsonPath("$.id_token").isNotEmpty();
     }
 
+    @Test
+    public void testRefresh() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-refresh");
+        user.setEmail("user-jwt-controller-refresh@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        user.setCreatedBy(Constants.SYSTEM_ACCOUNT);
+
+        userRepository.save(user).block();
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-refresh");
+        login.setPassword("test");
+        String refreshToken = authenticate(login);
+
+        RefreshTokenVM refresh = new RefreshTokenVM();
+        refresh.setRefreshToken(refreshToken);
+        byte[] body = webTestClient.post().uri("/api/authenticate/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .syncBody(TestUtil.convertObjectToJsonBytes(refresh))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueMatches("Authorization", "Bearer .+")
+            .expectBody()
+            .jsonPath("$.id_token").isNotEmpty()
+            .jsonPath("$.refresh_token").isNotEmpty()
+            .returnResult()
+            .getResponseBody();
+        assertThat(JsonPath.<String>read(new String(body, StandardCharsets.UTF_8), "$.refresh_token")).isNotEqualTo(refreshToken);
+
+        // A refresh token can only be used once
+        webTestClient.post().uri("/api/authenticate/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .syncBody(TestUtil.convertObjectToJsonBytes(refresh))
+            .exchange()
+            .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    public void testRefreshRevokedByUserDeletion() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-revoked");
+        user.setEmail("user-jwt-controller-revoked@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        user.setCreatedBy(Constants.SYSTEM_ACCOUNT);
+
+        userRepository.save(user).block();
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-revoked");
+        login.setPassword("test");
+        String refreshToken = authenticate(login);
+
+        userService.deleteUser("user-jwt-controller-revoked").block();
+
+        RefreshTokenVM refresh = new RefreshTokenVM();
+        refresh.setRefreshToken(refreshToken);
+        webTestClient.post().uri("/api/authenticate/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .syncBody(TestUtil.convertObjectToJsonBytes(refresh))
+            .exchange()
+            .expectStatus().isUnauthorized();
+    }
+
     @Test
     public void testAuthorizeFails() throws Exception {
         LoginVM login = new LoginVM();
@@ -92,4 +170,38 @@ public class UserJWTControllerIT {
             .expectBody()
             .jsonPath("$.id_token").doesNotExist();
     }
+
+    @Test
+    public void testAuthorizeThrottled() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-throttled");
+        login.setPassword("wrong password");
+        for (int i = 0; i < 10; i++) {
+            webTestClient.post().uri("/api/authenticate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(TestUtil.convertObjectToJsonBytes(login))
+                .exchange()
+                .expectStatus().isUnauthorized();
+        }
+        webTestClient.post().uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .syncBody(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader().exists(HttpHeaders.RETRY_AFTER)
+            .expectHeader().doesNotExist("Authorization");
+    }
+
+    private String authenticate(LoginVM login) throws Exception {
+        byte[] body = webTestClient.post().uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .syncBody(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.refresh_token").isNotEmpty()
+            .returnResult()
+            .getResponseBody();
+        return JsonPath.read(new String(body, StandardCharsets.UTF_8), "$.refresh_token");
+    }
 }
@@ -0,0 +1,92 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.security.LoginRateLimiter;
+import com.mycompany.myapp.service.AuditEventService;
+import com.mycompany.myapp.service.RefreshTokenService;
+import com.mycompany.myapp.web.rest.vm.LoginVM;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the {@link UserJWTController}, with its collaborators mocked.
+ */
+public class UserJWTControllerTest {
+
+    private RefreshTokenService refreshTokenService;
+
+    private ReactiveAuthenticationManager authenticationManager;
+
+    private LoginRateLimiter loginRateLimiter;
+
+    private UserJWTController controller;
+
+    @BeforeEach
+    public void setup() {
+        refreshTokenService = mock(RefreshTokenService.class);
+        authenticationManager = mock(ReactiveAuthenticationManager.class);
+        AuditEventService auditEventService = mock(AuditEventService.class);
+        loginRateLimiter = mock(LoginRateLimiter.class);
+        when(auditEventService.saveAuthenticationSuccess(anyString())).thenReturn(Mono.empty());
+        when(auditEventService.saveAuthenticationError(anyString(), any())).thenReturn(Mono.empty());
+        when(loginRateLimiter.tryAcquire(anyString(), any())).thenReturn(Mono.just(true));
+        when(loginRateLimiter.getRetryAfter()).thenReturn(Duration.ofSeconds(6));
+        controller = new UserJWTController(refreshTokenService, authenticationManager, auditEventService, loginRateLimiter);
+    }
+
+    @Test
+    public void testRejectsTheAttemptsDeniedByTheRateLimiter() {
+        when(loginRateLimiter.tryAcquire(anyString(), any())).thenReturn(Mono.just(false));
+
+        ResponseEntity<?> response = authorize().block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("6");
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    public void testDoesNotReportAnEmptyAuthenticationAsThrottled() {
+        when(authenticationManager.authenticate(any())).thenReturn(Mono.empty());
+
+        assertThatThrownBy(() -> authorize().block()).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    public void testDoesNotReportAnEmptyTokenCreationAsThrottled() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", "password", Collections.emptyList());
+        when(authenticationManager.authenticate(any())).thenReturn(Mono.just(authentication));
+        when(refreshTokenService.createTokens(any(), anyBoolean())).thenReturn(Mono.empty());
+
+        assertThatThrownBy(() -> authorize().block()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private Mono<ResponseEntity<UserJWTController.JWTToken>> authorize() {
+        LoginVM login = new LoginVM();
+        login.setUsername("user");
+        login.setPassword("password");
+        return controller.authorize(Mono.just(login), MockServerHttpRequest.post("/api/authenticate").build());
+    }
+}
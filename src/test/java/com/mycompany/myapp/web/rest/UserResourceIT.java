@@ -9,17 +9,20 @@ import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.dto.UserDTO;
 import com.mycompany.myapp.service.mapper.UserMapper;
 import com.mycompany.myapp.web.rest.vm.ManagedUserVM;
+import com.mycompany.myapp.web.rest.vm.UserSelectionVM;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -239,6 +242,57 @@ public class UserResourceIT {
         assertThat(foundUser.getLangKey()).isEqualTo(DEFAULT_LANGKEY);
     }
 
+    @Test
+    public void getAllUsersByFilter() {
+        userRepository.save(user).block();
+        userRepository.saveUserAuthority(user.getId(), AuthoritiesConstants.ADMIN).block();
+        User other = createEntity();
+        other.setLogin("johnny");
+        other.setEmail("johnny@example.com");
+        other.setActivated(false);
+        userRepository.save(other).block();
+
+        assertFoundLogins("/api/users?loginPrefix=JOHN&sort=login,asc", DEFAULT_LOGIN, "johnny");
+        assertFoundLogins("/api/users?loginPrefix=john&activated=true", DEFAULT_LOGIN);
+        assertFoundLogins("/api/users?loginPrefix=john_");
+        assertFoundLogins("/api/users?emailPrefix=johnny@", "johnny");
+        assertFoundLogins("/api/users?loginPrefix=john&authority=" + AuthoritiesConstants.ADMIN, DEFAULT_LOGIN);
+        assertFoundLogins("/api/users?loginPrefix=john&createdFrom=" + LocalDate.now().plusDays(1));
+        assertFoundLogins("/api/users?loginPrefix=john&createdTo=" + LocalDate.now() + "&sort=login,desc",
+            "johnny", DEFAULT_LOGIN);
+    }
+
+    @Test
+    public void getAllUsersWithSparseFieldset() {
+        userRepository.save(user).block();
+
+        webTestClient.get().uri("/api/users?loginPrefix=john&fields=login,email")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$[0].login").isEqualTo(DEFAULT_LOGIN)
+            .jsonPath("$[0].email").isEqualTo(DEFAULT_EMAIL)
+            .jsonPath("$[0].firstName").doesNotExist()
+            .jsonPath("$[0].authorities").doesNotExist();
+
+        webTestClient.get().uri("/api/users?fields=login,password")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    private void assertFoundLogins(String uri, String... logins) {
+        List<UserDTO> foundUsers = webTestClient.get().uri(uri)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("X-Total-Count", String.valueOf(logins.length))
+            .returnResult(UserDTO.class).getResponseBody().collectList().block();
+
+        assertThat(foundUsers).extracting(UserDTO::getLogin).containsExactly(logins);
+    }
+
     @Test
     public void getUser() {
         // Initialize the database
@@ -310,6 +364,39 @@ public class UserResourceIT {
         });
     }
 
+    @Test
+    public void updateUserWithAStaleVersion() throws Exception {
+        // Initialize the database
+        userRepository.save(user).block();
+
+        // Read the user, then let another update change it
+        User readUser = userRepository.findById(user.getId()).block();
+        ManagedUserVM managedUserVM = new ManagedUserVM();
+        managedUserVM.setId(readUser.getId());
+        managedUserVM.setLogin(readUser.getLogin());
+        managedUserVM.setFirstName(UPDATED_FIRSTNAME);
+        managedUserVM.setLastName(readUser.getLastName());
+        managedUserVM.setEmail(readUser.getEmail());
+        managedUserVM.setActivated(readUser.getActivated());
+        managedUserVM.setImageUrl(readUser.getImageUrl());
+        managedUserVM.setLangKey(readUser.getLangKey());
+        managedUserVM.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
+        managedUserVM.setVersion(readUser.getVersion());
+        userRepository.update(userRepository.findById(user.getId()).block(), concurrentUser -> concurrentUser.setLastName(UPDATED_LASTNAME))
+            .block();
+
+        webTestClient.put().uri("/api/users")
+            .contentType(TestUtil.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(managedUserVM))
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        // The concurrent update is kept, and the stale one is not applied
+        User testUser = userRepository.findById(user.getId()).block();
+        assertThat(testUser.getFirstName()).isEqualTo(DEFAULT_FIRSTNAME);
+        assertThat(testUser.getLastName()).isEqualTo(UPDATED_LASTNAME);
+    }
+
     @Test
     public void updateUserLogin() throws Exception {
         // Initialize the database
@@ -458,6 +545,95 @@ public class UserResourceIT {
         assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeDelete - 1));
     }
 
+    @Test
+    public void bulkDeactivateUsers() throws Exception {
+        userRepository.save(user).block();
+        User other = userRepository.save(createEntity()).block();
+        User unselected = userRepository.save(createEntity()).block();
+
+        UserSelectionVM selection = new UserSelectionVM();
+        selection.setLogins(new HashSet<>(Arrays.asList(user.getLogin().toUpperCase(), other.getLogin(), "unknown")));
+
+        webTestClient.post().uri("/api/users/bulk/deactivate")
+            .contentType(TestUtil.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(selection))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.count").isEqualTo(2);
+
+        assertPersistedUsers(users -> assertThat(users)
+            .allSatisfy(testUser -> assertThat(testUser.getActivated()).isEqualTo(testUser.getLogin().equals(unselected.getLogin()))));
+    }
+
+    @Test
+    public void bulkDeleteUsersByFilter() throws Exception {
+        userRepository.save(user).block();
+        User other = createEntity();
+        other.setEmail("other@example.com");
+        userRepository.save(other).block();
+
+        UserSelectionVM selection = new UserSelectionVM();
+        selection.setEmailDomain("localhost");
+
+        webTestClient.post().uri("/api/users/bulk/delete")
+            .contentType(TestUtil.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(selection))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.count").isEqualTo(1);
+
+        assertPersistedUsers(users -> assertThat(users).extracting(User::getLogin).containsExactly(other.getLogin()));
+    }
+
+    @Test
+    public void bulkAddAuthority() throws Exception {
+        userRepository.save(user).block();
+
+        UserSelectionVM selection = new UserSelectionVM();
+        selection.setLogins(Collections.singleton(user.getLogin()));
+
+        webTestClient.post().uri("/api/users/bulk/authorities/{authority}", AuthoritiesConstants.ADMIN)
+            .contentType(TestUtil.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(selection))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.count").isEqualTo(1);
+
+        User testUser = userRepository.findOneWithAuthoritiesByLogin(user.getLogin()).block();
+        assertThat(testUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.ADMIN);
+
+        webTestClient.post().uri("/api/users/bulk/authorities/{authority}", "ROLE_UNKNOWN")
+            .contentType(TestUtil.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(selection))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void bulkOperationNeedsLoginsOrFilter() throws Exception {
+        userRepository.save(user).block();
+
+        webTestClient.post().uri("/api/users/bulk/delete")
+            .contentType(TestUtil.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(new UserSelectionVM()))
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        UserSelectionVM selection = new UserSelectionVM();
+        selection.setLogins(Collections.singleton(user.getLogin()));
+        selection.setActivated(true);
+        webTestClient.post().uri("/api/users/bulk/delete")
+            .contentType(TestUtil.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(selection))
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        assertPersistedUsers(users -> assertThat(users).hasSize(1));
+    }
+
     @Test
     public void getAllAuthorities() {
         webTestClient.get().uri("/api/users/authorities")